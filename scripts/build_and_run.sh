@@ -4,8 +4,13 @@ set -euo pipefail  # 더 엄격한 오류 처리
 UUID=$1
 PORT=$2
 FRAMEWORK=$3
-WORKDIR="./uploads/$UUID"
-IMG="sandbox-$UUID"
+IMG=${4:-sandbox-$UUID}
+# all: 빌드 후 실행, build: 이미지 빌드만, run: 빌드된 이미지로 실행만
+PHASE=${5:-all}
+# build: 소스가 포함된 이미지로 실행, dev: 작업 디렉토리를 /app에 마운트해 watch 모드로 실행
+MODE=${6:-build}
+# 작업 디렉토리는 서버가 SANDBOX_WORKDIR로 넘긴다 (tmpfs 또는 디스크의 세대 디렉토리, 프로젝트가 하위 폴더에 있으면 그 폴더)
+WORKDIR="${SANDBOX_WORKDIR:-./uploads/$UUID}"
 CONTAINER="sandbox-$UUID"
 
 echo "========================================="
@@ -14,171 +19,191 @@ echo "UUID: $UUID"
 echo "PORT: $PORT"
 echo "FRAMEWORK: $FRAMEWORK"
 echo "WORKDIR: $WORKDIR"
+echo "IMAGE: $IMG"
+echo "PHASE: $PHASE"
+echo "MODE: $MODE"
 echo "========================================="
 
 # 에러 발생 시 정리 함수
 cleanup_on_error() {
     echo "Error occurred. Cleaning up..."
     docker rm -f $CONTAINER 2>/dev/null || true
-    docker rmi -f $IMG 2>/dev/null || true
+    # 이미지는 내용 해시 태그로 여러 샌드박스가 공유하므로 지우지 않음 (참조되지 않는 이미지는 서버의 이미지 GC가 정리)
 }
 
 trap cleanup_on_error ERR
 
-# 작업 디렉토리 확인
-if [ ! -d "$WORKDIR" ]; then
-    echo "Error: Work directory $WORKDIR does not exist"
-    exit 1
-fi
-
-echo "Work directory contents:"
-ls -la "$WORKDIR"
-
-# 프로젝트 구조 정규화 (기존 함수 그대로 사용)
-normalize_project_structure() {
-    local workdir=$1
-    local framework=$2
+if [ "$PHASE" != "run" ]; then
+    # 작업 디렉토리 확인
+    if [ ! -d "$WORKDIR" ]; then
+        echo "Error: Work directory $WORKDIR does not exist"
+        exit 1
+    fi
 
-    echo "Normalizing project structure for $framework..."
+    echo "Work directory contents:"
+    ls -la "$WORKDIR"
 
-    case $framework in
-        "spring")
-            local spring_dir=""
+    # 프로젝트 구조 정규화 (기존 함수 그대로 사용)
+    normalize_project_structure() {
+        local workdir=$1
+        local framework=$2
 
-            # gradlew 또는 build.gradle 파일이 있는 디렉토리 찾기
-            for dir in "$workdir"/*; do
-                if [ -d "$dir" ] && ([ -f "$dir/gradlew" ] || [ -f "$dir/build.gradle" ] || [ -f "$dir/pom.xml" ]); then
-                    spring_dir="$dir"
-                    break
-                fi
-            done
+        echo "Normalizing project structure for $framework..."
 
-            if [ -n "$spring_dir" ] && [ "$spring_dir" != "$workdir" ]; then
-                echo "Found Spring Boot project in: $spring_dir"
-                echo "Moving Spring Boot files to root..."
+        case $framework in
+            "spring")
+                local spring_dir=""
 
-                temp_dir="${workdir}_temp"
-                mkdir -p "$temp_dir"
-                cp -r "$spring_dir"/* "$temp_dir/"
+                # gradlew 또는 build.gradle 파일이 있는 디렉토리 찾기
+                for dir in "$workdir"/*; do
+                    if [ -d "$dir" ] && ([ -f "$dir/gradlew" ] || [ -f "$dir/build.gradle" ] || [ -f "$dir/pom.xml" ]); then
+                        spring_dir="$dir"
+                        break
+                    fi
+                done
 
-                find "$workdir" -mindepth 1 -not -name "Dockerfile" -exec rm -rf {} +
+                if [ -n "$spring_dir" ] && [ "$spring_dir" != "$workdir" ]; then
+                    echo "Found Spring Boot project in: $spring_dir"
+                    echo "Moving Spring Boot files to root..."
 
-                cp -r "$temp_dir"/* "$workdir/"
-                rm -rf "$temp_dir"
+                    temp_dir="${workdir}_temp"
+                    mkdir -p "$temp_dir"
+                    cp -r "$spring_dir"/* "$temp_dir/"
 
-                echo "Spring Boot project structure normalized"
-            fi
-            ;;
+                    find "$workdir" -mindepth 1 -maxdepth 1 -not -name "Dockerfile" -not -name ".sandbox" -exec rm -rf {} +
 
-        "react")
-            local react_dir=""
+                    cp -r "$temp_dir"/* "$workdir/"
+                    rm -rf "$temp_dir"
 
-            for dir in "$workdir"/*; do
-                if [ -d "$dir" ] && [ -f "$dir/package.json" ]; then
-                    react_dir="$dir"
-                    break
+                    echo "Spring Boot project structure normalized"
                 fi
-            done
+                ;;
 
-            if [ -n "$react_dir" ] && [ "$react_dir" != "$workdir" ]; then
-                echo "Found React project in: $react_dir"
-                echo "Moving React files to root..."
+            "react")
+                local react_dir=""
 
-                temp_dir="${workdir}_temp"
-                mkdir -p "$temp_dir"
-                cp -r "$react_dir"/* "$temp_dir/"
+                for dir in "$workdir"/*; do
+                    if [ -d "$dir" ] && [ -f "$dir/package.json" ]; then
+                        react_dir="$dir"
+                        break
+                    fi
+                done
 
-                find "$workdir" -mindepth 1 -not -name "Dockerfile" -exec rm -rf {} +
+                if [ -n "$react_dir" ] && [ "$react_dir" != "$workdir" ]; then
+                    echo "Found React project in: $react_dir"
+                    echo "Moving React files to root..."
 
-                cp -r "$temp_dir"/* "$workdir/"
-                rm -rf "$temp_dir"
+                    temp_dir="${workdir}_temp"
+                    mkdir -p "$temp_dir"
+                    cp -r "$react_dir"/* "$temp_dir/"
 
-                echo "React project structure normalized"
-            fi
-            ;;
+                    find "$workdir" -mindepth 1 -maxdepth 1 -not -name "Dockerfile" -not -name ".sandbox" -exec rm -rf {} +
 
-        "fastapi")
-            local fastapi_dir=""
+                    cp -r "$temp_dir"/* "$workdir/"
+                    rm -rf "$temp_dir"
 
-            for dir in "$workdir"/*; do
-                if [ -d "$dir" ] && ([ -f "$dir/requirements.txt" ] || [ -f "$dir/main.py" ]); then
-                    fastapi_dir="$dir"
-                    break
+                    echo "React project structure normalized"
                 fi
-            done
+                ;;
+
+            "fastapi")
+                local fastapi_dir=""
+
+                for dir in "$workdir"/*; do
+                    if [ -d "$dir" ] && ([ -f "$dir/requirements.txt" ] || [ -f "$dir/main.py" ]); then
+                        fastapi_dir="$dir"
+                        break
+                    fi
+                done
 
-            if [ -n "$fastapi_dir" ] && [ "$fastapi_dir" != "$workdir" ]; then
-                echo "Found FastAPI project in: $fastapi_dir"
-                echo "Moving FastAPI files to root..."
+                if [ -n "$fastapi_dir" ] && [ "$fastapi_dir" != "$workdir" ]; then
+                    echo "Found FastAPI project in: $fastapi_dir"
+                    echo "Moving FastAPI files to root..."
 
-                temp_dir="${workdir}_temp"
-                mkdir -p "$temp_dir"
-                cp -r "$fastapi_dir"/* "$temp_dir/"
+                    temp_dir="${workdir}_temp"
+                    mkdir -p "$temp_dir"
+                    cp -r "$fastapi_dir"/* "$temp_dir/"
 
-                find "$workdir" -mindepth 1 -not -name "Dockerfile" -exec rm -rf {} +
+                    find "$workdir" -mindepth 1 -maxdepth 1 -not -name "Dockerfile" -not -name ".sandbox" -exec rm -rf {} +
 
-                cp -r "$temp_dir"/* "$workdir/"
-                rm -rf "$temp_dir"
+                    cp -r "$temp_dir"/* "$workdir/"
+                    rm -rf "$temp_dir"
 
-                echo "FastAPI project structure normalized"
+                    echo "FastAPI project structure normalized"
+                fi
+                ;;
+        esac
+    }
+
+    # 프로젝트 구조 정규화 실행
+    # 서버는 프로젝트 루트(하위 폴더일 수 있음)를 SANDBOX_WORKDIR로 넘기므로 파일을 옮기지 않는다
+    # (작업 디렉토리는 델타 업로드 매니페스트, 세대 스냅샷과 같은 구조를 유지해야 함)
+    if [ -z "$SANDBOX_WORKDIR" ]; then
+        normalize_project_structure "$WORKDIR" "$FRAMEWORK"
+    fi
+
+    echo "Updated directory contents:"
+    ls -la "$WORKDIR"
+
+    # 프레임워크별 필수 파일 확인 (개선됨)
+    case $FRAMEWORK in
+        "spring")
+            if [ ! -f "$WORKDIR/build.gradle" ] && [ ! -f "$WORKDIR/pom.xml" ] && [ ! -f "$WORKDIR/gradlew" ]; then
+                echo "Error: No build.gradle, pom.xml, or gradlew found in $WORKDIR"
+                echo "Available files:"
+                find "$WORKDIR" -name "gradlew" -o -name "pom.xml" -o -name "build.gradle"
+                exit 1
+            fi
+            ;;
+        "react")
+            if [ ! -f "$WORKDIR/package.json" ]; then
+                echo "Error: No package.json found in $WORKDIR"
+                echo "Available files:"
+                find "$WORKDIR" -name "package.json"
+                exit 1
+            fi
+            ;;
+        "fastapi")
+            if [ ! -f "$WORKDIR/main.py" ]; then
+                echo "Error: No main.py found in $WORKDIR"
+                echo "Available files:"
+                find "$WORKDIR" -name "requirements.txt" -o -name "main.py"
+                exit 1
             fi
             ;;
     esac
-}
-
-# 프로젝트 구조 정규화 실행
-normalize_project_structure "$WORKDIR" "$FRAMEWORK"
 
-echo "Updated directory contents:"
-ls -la "$WORKDIR"
-
-# 프레임워크별 필수 파일 확인 (개선됨)
-case $FRAMEWORK in
-    "spring")
-        if [ ! -f "$WORKDIR/build.gradle" ] && [ ! -f "$WORKDIR/pom.xml" ] && [ ! -f "$WORKDIR/gradlew" ]; then
-            echo "Error: No build.gradle, pom.xml, or gradlew found in $WORKDIR"
-            echo "Available files:"
-            find "$WORKDIR" -name "gradlew" -o -name "pom.xml" -o -name "build.gradle"
-            exit 1
-        fi
-        ;;
-    "react")
-        if [ ! -f "$WORKDIR/package.json" ]; then
-            echo "Error: No package.json found in $WORKDIR"
-            echo "Available files:"
-            find "$WORKDIR" -name "package.json"
-            exit 1
-        fi
-        ;;
-    "fastapi")
-        if [ ! -f "$WORKDIR/main.py" ]; then
-            echo "Error: No main.py found in $WORKDIR"
-            echo "Available files:"
-            find "$WORKDIR" -name "requirements.txt" -o -name "main.py"
-            exit 1
-        fi
-        ;;
-esac
+    # Dockerfile 존재 확인
+    if [ ! -f "$WORKDIR/Dockerfile" ]; then
+        echo "Error: Dockerfile not found in $WORKDIR"
+        exit 1
+    fi
 
-# Dockerfile 존재 확인
-if [ ! -f "$WORKDIR/Dockerfile" ]; then
-    echo "Error: Dockerfile not found in $WORKDIR"
-    exit 1
-fi
+    echo "Dockerfile content:"
+    cat "$WORKDIR/Dockerfile"
 
-echo "Dockerfile content:"
-cat "$WORKDIR/Dockerfile"
+    # 이전 컨테이너 정리 (이미지는 서버의 이미지 GC가 관리)
+    echo "Cleaning up previous containers..."
+    docker rm -f $CONTAINER 2>/dev/null || true
 
-# 이전 컨테이너/이미지 정리
-echo "Cleaning up previous containers and images..."
-docker rm -f $CONTAINER 2>/dev/null || true
-docker rmi -f $IMG 2>/dev/null || true
+    # Docker 빌드 (보관된 이미지의 레이어를 캐시로 재사용)
+    echo "Building Docker image..."
+    # host.docker.internal: 서버의 의존성 캐시 프록시 접근용
+    if ! docker build --progress=plain \
+        --add-host=host.docker.internal:host-gateway \
+        -t $IMG $WORKDIR; then
+        echo "ERROR: Docker build failed"
+        exit 1
+    fi
 
-# Docker 빌드
-echo "Building Docker image..."
-if ! docker build --progress=plain --no-cache -t $IMG $WORKDIR; then
-    echo "ERROR: Docker build failed"
-    exit 1
+    if [ "$PHASE" = "build" ]; then
+        echo "Image built: $IMG"
+        exit 0
+    fi
+else
+    # 이미 빌드된 이미지로 컨테이너만 실행
+    echo "Using prebuilt image: $IMG"
+    docker rm -f $CONTAINER 2>/dev/null || true
 fi
 
 # 내부 앱 포트 결정
@@ -198,20 +223,44 @@ case $FRAMEWORK in
         ;;
 esac
 
-echo "Starting container with port mapping $PORT:$APPPORT..."
+# 개발 모드: 소스는 마운트, node_modules는 이미지에 설치된 것을 익명 볼륨으로 유지
+MOUNT_ARGS=()
+if [ "$MODE" = "dev" ]; then
+    MOUNT_ARGS+=(-v "$(cd "$WORKDIR" && pwd):/app")
+    if [ "$FRAMEWORK" = "react" ]; then
+        MOUNT_ARGS+=(-v /app/node_modules)
+    fi
+fi
+
+# 서버의 리버스 프록시가 컨테이너 IP로 직접 연결하면 호스트 포트를 열지 않는다 (SANDBOX_PUBLISH_PORTS=0)
+PORT_ARGS=()
+if [ "${SANDBOX_PUBLISH_PORTS:-1}" != "0" ]; then
+    PORT_ARGS+=(-p $PORT:$APPPORT)
+    echo "Starting container with port mapping $PORT:$APPPORT..."
+else
+    echo "Starting container without published ports (app port $APPPORT)..."
+fi
 
 # 컨테이너 실행
+# --rm 없이 실행: 비정상 종료해도 서버가 로그를 끝까지 보관한 뒤 컨테이너를 삭제한다
+# (수집이 끝날 때 지우지 못하면 서버가 sandbox.managed 라벨로 찾아 주기적으로 정리)
 if docker run -d \
-    --rm \
     --name $CONTAINER \
-    -p $PORT:$APPPORT \
+    --label sandbox.managed=true \
+    ${PORT_ARGS[@]+"${PORT_ARGS[@]}"} \
     --memory=2g \
     --cpus=2 \
+    ${MOUNT_ARGS[@]+"${MOUNT_ARGS[@]}"} \
     $IMG; then
 
     echo "Container started successfully!"
     echo "Container: $CONTAINER"
-    echo "Port mapping: $PORT:$APPPORT"
+    if [ ${#PORT_ARGS[@]} -gt 0 ]; then
+        echo "Port mapping: $PORT:$APPPORT"
+        APP_URL="http://localhost:$PORT"
+    else
+        APP_URL="http://$(docker inspect -f '{{range .NetworkSettings.Networks}}{{.IPAddress}} {{end}}' $CONTAINER 2>/dev/null | awk '{print $1}'):$APPPORT"
+    fi
 
     # 개선된 헬스 체크
     echo "Waiting for container to be ready..."
@@ -223,8 +272,8 @@ if docker run -d \
             sleep 5
             case $FRAMEWORK in
                 "react"|"fastapi")
-                    if curl -f -s http://localhost:$PORT >/dev/null 2>&1; then
-                        echo "Application is responding on port $PORT"
+                    if curl -f -s $APP_URL >/dev/null 2>&1; then
+                        echo "Application is responding on $APP_URL"
                     else
                         echo "Note: Application may still be starting up..."
                     fi
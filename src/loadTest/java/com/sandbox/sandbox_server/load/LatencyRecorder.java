@@ -0,0 +1,89 @@
+package com.sandbox.sandbox_server.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 엔드포인트 하나의 응답 시간과 상태 코드 집계
+ */
+class LatencyRecorder {
+
+	private final String name;
+	private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+	private final AtomicLong ok = new AtomicLong();
+	private final AtomicLong throttled = new AtomicLong();
+	private final AtomicLong clientErrors = new AtomicLong();
+	private final AtomicLong serverErrors = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+
+	LatencyRecorder(String name) {
+		this.name = name;
+	}
+
+	void record(int statusCode, long elapsedNanos) {
+		latencies.add(elapsedNanos);
+		if (statusCode == 429) {
+			throttled.incrementAndGet();
+		} else if (statusCode >= 500) {
+			serverErrors.incrementAndGet();
+		} else if (statusCode >= 400) {
+			clientErrors.incrementAndGet();
+		} else {
+			ok.incrementAndGet();
+		}
+	}
+
+	/**
+	 * 응답을 받지 못한 요청 (연결 실패, 타임아웃)
+	 */
+	void recordFailure(long elapsedNanos) {
+		latencies.add(elapsedNanos);
+		failures.incrementAndGet();
+	}
+
+	long serverErrors() {
+		return serverErrors.get();
+	}
+
+	long requests() {
+		return latencies.size();
+	}
+
+	Map<String, Object> summary(double elapsedSeconds) {
+		List<Long> sorted = new ArrayList<>(latencies);
+		Collections.sort(sorted);
+
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("endpoint", name);
+		summary.put("requests", sorted.size());
+		summary.put("ok", ok.get());
+		summary.put("throttled", throttled.get());
+		summary.put("clientErrors", clientErrors.get());
+		summary.put("serverErrors", serverErrors.get());
+		summary.put("failures", failures.get());
+		summary.put("throughputPerSecond", Math.round(sorted.size() / elapsedSeconds * 10) / 10.0);
+		summary.put("p50Millis", percentileMillis(sorted, 0.50));
+		summary.put("p90Millis", percentileMillis(sorted, 0.90));
+		summary.put("p99Millis", percentileMillis(sorted, 0.99));
+		summary.put("maxMillis", sorted.isEmpty() ? 0 : toMillis(sorted.get(sorted.size() - 1)));
+		return summary;
+	}
+
+	static double percentileMillis(List<Long> sorted, double percentile) {
+		if (sorted.isEmpty()) {
+			return 0;
+		}
+		int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+		return toMillis(sorted.get(Math.max(0, index)));
+	}
+
+	private static double toMillis(long nanos) {
+		return Math.round(nanos / (double) TimeUnit.MILLISECONDS.toNanos(1) * 10) / 10.0;
+	}
+}
@@ -0,0 +1,78 @@
+package com.sandbox.sandbox_server.load;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 부하 중 서버 JVM의 스레드 수와 힙 사용량 주기적 측정 (테스트와 서버가 같은 JVM)
+ */
+class ResourceSampler implements AutoCloseable {
+
+	private static final long MB = 1024 * 1024;
+
+	private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+	private final int startThreads;
+	private final long startGcCount;
+	private final long startGcMillis;
+
+	private volatile long maxHeapUsed;
+	private volatile long heapUsedTotal;
+	private volatile int samples;
+
+	ResourceSampler(long intervalMillis) {
+		threads.resetPeakThreadCount();
+		startThreads = threads.getThreadCount();
+		startGcCount = gcCount();
+		startGcMillis = gcMillis();
+		scheduler.scheduleAtFixedRate(this::sample, 0, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	private synchronized void sample() {
+		long used = memory.getHeapMemoryUsage().getUsed();
+		maxHeapUsed = Math.max(maxHeapUsed, used);
+		heapUsedTotal += used;
+		samples++;
+	}
+
+	Map<String, Object> summary() {
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("threadsAtStart", startThreads);
+		summary.put("threadsAtEnd", threads.getThreadCount());
+		summary.put("peakThreads", threads.getPeakThreadCount());
+		summary.put("maxHeapUsedMb", maxHeapUsed / MB);
+		summary.put("avgHeapUsedMb", samples == 0 ? 0 : heapUsedTotal / samples / MB);
+		summary.put("heapCommittedMb", memory.getHeapMemoryUsage().getCommitted() / MB);
+		summary.put("gcCount", gcCount() - startGcCount);
+		summary.put("gcMillis", gcMillis() - startGcMillis);
+		return summary;
+	}
+
+	private static long gcCount() {
+		return ManagementFactory.getGarbageCollectorMXBeans().stream()
+				.mapToLong(GarbageCollectorMXBean::getCollectionCount)
+				.filter(count -> count > 0)
+				.sum();
+	}
+
+	private static long gcMillis() {
+		return ManagementFactory.getGarbageCollectorMXBeans().stream()
+				.mapToLong(GarbageCollectorMXBean::getCollectionTime)
+				.filter(time -> time > 0)
+				.sum();
+	}
+
+	@Override
+	public void close() {
+		scheduler.shutdownNow();
+	}
+}
@@ -0,0 +1,261 @@
+package com.sandbox.sandbox_server.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 가짜 컨테이너 런타임 위에서 실제 컨트롤러에 /run, /status, /logs, /active 혼합 부하
+ * 사용자마다 자기 샌드박스를 실행/재실행하고, 조회는 아무 샌드박스나 대상으로 한다.
+ *
+ * 설정 (시스템 속성):
+ * load.users 동시 사용자 수 (기본 32)
+ * load.duration 측정 시간 (기본 PT30S)
+ * load.mix 요청 비율 (기본 run:5,status:55,logs:35,active:5)
+ * load.think-time 요청 사이 대기 (기본 PT0.05S)
+ * 결과는 콘솔과 build/reports/load-test/에 저장
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("simulated")
+class SandboxLoadTest {
+
+	private static final int BASE_SANDBOX_PORT = 20000;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@TempDir
+	Path workDir;
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(5))
+			.executor(Executors.newCachedThreadPool())
+			.build();
+
+	@Test
+	void mixedWorkload() throws Exception {
+		int users = Integer.getInteger("load.users", 32);
+		Duration duration = Duration.parse(System.getProperty("load.duration", "PT30S"));
+		Duration thinkTime = Duration.parse(System.getProperty("load.think-time", "PT0.05S"));
+		Map<String, Integer> mix = parseMix(System.getProperty("load.mix", "run:5,status:55,logs:35,active:5"));
+
+		Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+		mix.keySet().forEach(operation -> recorders.put(operation, new LatencyRecorder(operation)));
+
+		List<Path> archives = new ArrayList<>();
+		for (int user = 0; user < users; user++) {
+			archives.add(createArchive(user));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(users);
+		long startNanos = System.nanoTime();
+		long deadline = startNanos + duration.toNanos();
+
+		try (ResourceSampler sampler = new ResourceSampler(200)) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int user = 0; user < users; user++) {
+				int index = user;
+				futures.add(executor.submit(() -> runUser(index, users, archives.get(index), mix, recorders,
+						thinkTime, deadline)));
+			}
+			for (Future<?> future : futures) {
+				future.get(duration.toSeconds() + 120, TimeUnit.SECONDS);
+			}
+
+			double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+			Map<String, Object> report = new LinkedHashMap<>();
+			report.put("users", users);
+			report.put("durationSeconds", Math.round(elapsedSeconds * 10) / 10.0);
+			report.put("mix", mix);
+			report.put("endpoints", recorders.values().stream().map(recorder -> recorder.summary(elapsedSeconds)).toList());
+			report.put("totalThroughputPerSecond", Math.round(
+					recorders.values().stream().mapToLong(LatencyRecorder::requests).sum() / elapsedSeconds * 10) / 10.0);
+			report.put("jvm", sampler.summary());
+
+			printReport(report);
+			writeReport(report);
+
+			assertThat(recorders.values().stream().mapToLong(LatencyRecorder::requests).sum()).isPositive();
+			for (String readOnly : List.of("status", "logs", "active")) {
+				if (recorders.containsKey(readOnly)) {
+					assertThat(recorders.get(readOnly).serverErrors()).as(readOnly + " 5xx").isZero();
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void runUser(int user, int users, Path archive, Map<String, Integer> mix,
+						 Map<String, LatencyRecorder> recorders, Duration thinkTime, long deadline) {
+		String ownUuid = "load-" + user;
+		int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+		// 처음에는 자기 샌드박스부터 실행
+		send("run", runRequest(ownUuid, user, archive), recorders);
+
+		while (System.nanoTime() < deadline) {
+			String operation = pick(mix, total);
+			String target = "load-" + ThreadLocalRandom.current().nextInt(users);
+
+			HttpRequest request = switch (operation) {
+				case "run" -> runRequest(ownUuid, user, archive);
+				case "status" -> get("/api/sandbox/status/" + target);
+				case "logs" -> get("/api/sandbox/logs/" + target + "?lines=100");
+				case "active" -> get("/api/sandbox/active");
+				default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+			};
+			send(operation, request, recorders);
+
+			try {
+				Thread.sleep(thinkTime.toMillis());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private void send(String operation, HttpRequest request, Map<String, LatencyRecorder> recorders) {
+		LatencyRecorder recorder = recorders.get(operation);
+		long start = System.nanoTime();
+		try {
+			HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+			if (recorder != null) {
+				recorder.record(response.statusCode(), System.nanoTime() - start);
+			}
+		} catch (IOException e) {
+			if (recorder != null) {
+				recorder.recordFailure(System.nanoTime() - start);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private HttpRequest runRequest(String uuid, int user, Path archive) {
+		Map<String, Object> body = Map.of(
+				"uuid", uuid,
+				"url", archive.toUri().toString(),
+				"framework", "fastapi",
+				"port", BASE_SANDBOX_PORT + user
+		);
+		try {
+			return HttpRequest.newBuilder(uri("/api/sandbox/run"))
+					.timeout(Duration.ofMinutes(5))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+					.build();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(uri(path))
+				.timeout(Duration.ofSeconds(60))
+				.GET()
+				.build();
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+
+	/**
+	 * 사용자마다 내용이 다른 FastAPI 프로젝트 (이미지를 공유하지 않도록)
+	 */
+	private Path createArchive(int user) throws IOException {
+		Path archive = workDir.resolve("project-" + user + ".zip");
+		try (OutputStream out = Files.newOutputStream(archive);
+			 ZipOutputStream zip = new ZipOutputStream(out)) {
+			zip.putNextEntry(new ZipEntry("main.py"));
+			zip.write(("from fastapi import FastAPI\n\napp = FastAPI()\n\n\n@app.get(\"/\")\ndef root():\n"
+					+ "    return {\"user\": " + user + "}\n").getBytes(StandardCharsets.UTF_8));
+			zip.closeEntry();
+			zip.putNextEntry(new ZipEntry("requirements.txt"));
+			zip.write("fastapi\nuvicorn\n".getBytes(StandardCharsets.UTF_8));
+			zip.closeEntry();
+		}
+		return archive;
+	}
+
+	private static Map<String, Integer> parseMix(String value) {
+		Map<String, Integer> mix = new LinkedHashMap<>();
+		for (String part : value.split(",")) {
+			String[] pair = part.trim().split(":");
+			mix.put(pair[0], Integer.parseInt(pair[1]));
+		}
+		return mix;
+	}
+
+	private static String pick(Map<String, Integer> mix, int total) {
+		int roll = ThreadLocalRandom.current().nextInt(total);
+		for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+			roll -= entry.getValue();
+			if (roll < 0) {
+				return entry.getKey();
+			}
+		}
+		return mix.keySet().iterator().next();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void printReport(Map<String, Object> report) {
+		System.out.println();
+		System.out.printf("=== Load test: %s users, %s s, %s req/s total ===%n",
+				report.get("users"), report.get("durationSeconds"), report.get("totalThroughputPerSecond"));
+		System.out.printf("%-8s %9s %9s %9s %9s %9s %10s %9s %9s %9s %9s%n",
+				"endpoint", "requests", "ok", "429", "4xx", "5xx", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+		for (Map<String, Object> endpoint : (List<Map<String, Object>>) report.get("endpoints")) {
+			System.out.printf("%-8s %9s %9s %9s %9s %9s %10s %9s %9s %9s %9s%n",
+					endpoint.get("endpoint"), endpoint.get("requests"), endpoint.get("ok"), endpoint.get("throttled"),
+					endpoint.get("clientErrors"), endpoint.get("serverErrors"), endpoint.get("throughputPerSecond"),
+					endpoint.get("p50Millis"), endpoint.get("p90Millis"), endpoint.get("p99Millis"),
+					endpoint.get("maxMillis"));
+		}
+		System.out.println("JVM: " + report.get("jvm"));
+		System.out.println();
+	}
+
+	private void writeReport(Map<String, Object> report) throws IOException {
+		Path dir = Paths.get("build", "reports", "load-test");
+		Files.createDirectories(dir);
+		Path file = dir.resolve("load-" + Instant.now().toString().replace(":", "-") + ".json");
+		objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+		System.out.println("Report written to " + file.toAbsolutePath());
+	}
+}
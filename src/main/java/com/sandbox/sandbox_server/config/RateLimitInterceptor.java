@@ -0,0 +1,121 @@
+package com.sandbox.sandbox_server.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sandbox.sandbox_server.util.TokenBucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * docker 프로세스를 띄우거나 로그 전체를 훑는 조회 API(/status, /logs, /logs/{uuid}/search, /active) 요청 수 제한
+ * uuid별 버킷과 전체 버킷을 모두 통과해야 하며, 초과하면 429와 Retry-After로 바로 응답한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final Pattern UUID_PATH = Pattern.compile("^/api/sandbox/(status|logs)/([^/]+)(/search)?$");
+    private static final long IDLE_EVICT_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    // uuid -> 버킷
+    private final ConcurrentHashMap<String, TokenBucket> perUuid = new ConcurrentHashMap<>();
+    private volatile TokenBucket global;
+
+    @Value("${sandbox.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sandbox.rate-limit.per-uuid.capacity:10}")
+    private double perUuidCapacity;
+
+    @Value("${sandbox.rate-limit.per-uuid.refill-per-second:5}")
+    private double perUuidRefillPerSecond;
+
+    @Value("${sandbox.rate-limit.global.capacity:200}")
+    private double globalCapacity;
+
+    @Value("${sandbox.rate-limit.global.refill-per-second:100}")
+    private double globalRefillPerSecond;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!enabled) {
+            return true;
+        }
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Matcher matcher = UUID_PATH.matcher(path);
+        String endpoint = matcher.matches() ? (matcher.group(3) != null ? "search" : matcher.group(1)) : "active";
+        String uuid = matcher.matches() ? matcher.group(2) : null;
+
+        if (uuid != null) {
+            TokenBucket bucket = perUuid.computeIfAbsent(uuid,
+                    key -> new TokenBucket(perUuidCapacity, perUuidRefillPerSecond));
+            if (!bucket.tryConsume()) {
+                return reject(response, "uuid", endpoint, uuid, bucket.secondsUntilAvailable());
+            }
+        }
+
+        TokenBucket globalBucket = globalBucket();
+        if (!globalBucket.tryConsume()) {
+            return reject(response, "global", endpoint, uuid, globalBucket.secondsUntilAvailable());
+        }
+        return true;
+    }
+
+    /**
+     * 오래 쓰지 않은 uuid 버킷 정리 (가득 찬 상태와 같으므로 버려도 동작은 같다)
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        perUuid.values().removeIf(bucket -> bucket.idleNanos() > IDLE_EVICT_NANOS);
+    }
+
+    private TokenBucket globalBucket() {
+        TokenBucket bucket = global;
+        if (bucket == null) {
+            synchronized (this) {
+                if (global == null) {
+                    global = new TokenBucket(globalCapacity, globalRefillPerSecond);
+                }
+                bucket = global;
+            }
+        }
+        return bucket;
+    }
+
+    private boolean reject(HttpServletResponse response, String scope, String endpoint, String uuid,
+                           long retryAfterSeconds) throws Exception {
+        meterRegistry.counter("sandbox.ratelimit.rejected", "scope", scope, "endpoint", endpoint).increment();
+        log.debug("Rate limited - scope: {}, endpoint: {}, uuid: {}", scope, endpoint, uuid);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        if (uuid != null) {
+            body.put("uuid", uuid);
+        }
+        body.put("status", "TOO_MANY_REQUESTS");
+        body.put("error", "요청이 너무 많습니다. 잠시 후 다시 시도해 주세요.");
+
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, retryAfterSeconds)));
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write(objectMapper.writeValueAsString(body));
+        return false;
+    }
+}
@@ -0,0 +1,17 @@
+package com.sandbox.sandbox_server.config;
+
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class WebServerConfig {
+
+    /**
+     * npm scoped 패키지 요청(@scope%2fname)이 거부되지 않도록 인코딩된 슬래시를 그대로 통과
+     */
+    @Bean
+    public TomcatConnectorCustomizer encodedSlashCustomizer() {
+        return connector -> connector.setEncodedSolidusHandling("passthrough");
+    }
+}
@@ -0,0 +1,71 @@
+package com.sandbox.sandbox_server.controller;
+
+import com.sandbox.sandbox_server.service.ArtifactCacheService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 샌드박스 빌드에서 사용하는 의존성 캐싱 프록시
+ * 빌드 컨테이너는 생성된 Gradle init 스크립트, settings.xml, npmrc, pip.conf를 통해 이 주소를 사용한다.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class ArtifactCacheController {
+
+    private final ArtifactCacheService artifactCacheService;
+
+    @GetMapping("/proxy/{repository}/**")
+    public ResponseEntity<?> getArtifact(@PathVariable String repository, HttpServletRequest request) {
+        // 인코딩된 경로를 그대로 업스트림에 전달 (npm scoped 패키지의 %2f 등)
+        String prefix = request.getContextPath() + "/proxy/" + repository + "/";
+        String uri = request.getRequestURI();
+        String path = uri.length() > prefix.length() ? uri.substring(prefix.length()) : "";
+
+        try {
+            Optional<ArtifactCacheService.CachedArtifact> artifact = artifactCacheService.fetch(repository, path);
+            if (artifact.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+
+            // 전송이 끝나거나 실패해야 캐시 항목 고정이 풀린다
+            ArtifactCacheService.CachedArtifact cached = artifact.get();
+            StreamingResponseBody body = out -> {
+                try (cached) {
+                    cached.writeTo(out);
+                }
+            };
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(cached.contentType()));
+            if (cached.contentLength() >= 0) {
+                response.contentLength(cached.contentLength());
+            }
+            return response.body(body);
+
+        } catch (Exception e) {
+            log.warn("Artifact fetch failed - {}/{}: {}", repository, path, e.getMessage());
+            return ResponseEntity.status(502).body(Map.of(
+                    "repository", repository,
+                    "path", path,
+                    "status", "ERROR",
+                    "error", String.valueOf(e.getMessage())
+            ));
+        }
+    }
+
+    @GetMapping("/api/sandbox/cache/stats")
+    public ResponseEntity<?> getCacheStats() {
+        return ResponseEntity.ok(artifactCacheService.getStats());
+    }
+}
@@ -0,0 +1,97 @@
+package com.sandbox.sandbox_server.controller;
+
+import com.sandbox.sandbox_server.service.ContainerStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 컨테이너 리소스 사용량 (docker stats 스트림 기반)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/sandbox/stats")
+@RequiredArgsConstructor
+public class ContainerStatsController {
+
+    private final ContainerStatsService containerStatsService;
+
+    /**
+     * 실행 중인 샌드박스별 최근 샘플과 요약
+     */
+    @GetMapping
+    public ResponseEntity<?> getStats() {
+        try {
+            List<Map<String, Object>> containers = containerStatsService.snapshot();
+
+            return ResponseEntity.ok(Map.of(
+                    "containers", containers,
+                    "count", containers.size(),
+                    "streaming", containerStatsService.isStreaming(),
+                    "status", "SUCCESS"
+            ));
+
+        } catch (Exception e) {
+            log.error("Failed to get container stats", e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "status", "ERROR",
+                    "error", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * 프레임워크별 리소스 한도 추천
+     */
+    @GetMapping("/recommendations")
+    public ResponseEntity<?> getRecommendations() {
+        try {
+            return ResponseEntity.ok(containerStatsService.recommendations());
+
+        } catch (Exception e) {
+            log.error("Failed to build resource recommendations", e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "status", "ERROR",
+                    "error", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * 샌드박스 하나의 시계열
+     * @param seconds 최근 몇 초 (기본 300, 0이면 보관 중인 전체)
+     */
+    @GetMapping("/{uuid}")
+    public ResponseEntity<?> getSeries(@PathVariable String uuid,
+                                       @RequestParam(defaultValue = "300") long seconds) {
+        try {
+            long since = seconds > 0 ? System.currentTimeMillis() - seconds * 1000 : 0;
+            Optional<Map<String, Object>> series = containerStatsService.series(uuid, since);
+            if (series.isEmpty()) {
+                return ResponseEntity.status(404).body(Map.of(
+                        "uuid", uuid,
+                        "status", "NOT_FOUND",
+                        "error", "리소스 사용량을 수집 중인 컨테이너가 없습니다."
+                ));
+            }
+            return ResponseEntity.ok(series.get());
+
+        } catch (Exception e) {
+            log.error("Failed to get container stats series: {}", uuid, e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "uuid", uuid,
+                    "status", "ERROR",
+                    "error", e.getMessage()
+            ));
+        }
+    }
+}
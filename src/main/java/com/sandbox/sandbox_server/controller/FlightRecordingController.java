@@ -0,0 +1,115 @@
+package com.sandbox.sandbox_server.controller;
+
+import com.sandbox.sandbox_server.service.FlightRecordingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JFR 기록 조회 (관리용)
+ * GET /{uuid} 로 실행별 타임라인(JSON), GET / 로 전체 기록(.jfr, JDK Mission Control 등으로 분석)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/sandbox/admin/recordings")
+@RequiredArgsConstructor
+public class FlightRecordingController {
+
+    private final FlightRecordingService flightRecordingService;
+
+    /**
+     * uuid별 타임라인 (다운로드 시 download=true)
+     */
+    @GetMapping("/{uuid}")
+    public ResponseEntity<?> getTimeline(@PathVariable String uuid,
+                                         @RequestParam(defaultValue = "false") boolean download) {
+        try {
+            List<Map<String, Object>> events = flightRecordingService.timeline(uuid);
+            if (events.isEmpty()) {
+                return ResponseEntity.status(404).body(Map.of(
+                        "uuid", uuid,
+                        "status", "NOT_FOUND",
+                        "error", "기록된 이벤트가 없습니다."
+                ));
+            }
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("uuid", uuid);
+            body.put("status", "SUCCESS");
+            body.put("count", events.size());
+            body.put("events", events);
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (download) {
+                response.header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"sandbox-" + uuid + "-timeline.json\"");
+            }
+            return response.body(body);
+
+        } catch (IllegalStateException e) {
+            return unavailable(e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to build recording timeline: {}", uuid, e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "uuid", uuid,
+                    "status", "ERROR",
+                    "error", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * 상시 기록 전체 다운로드 (.jfr)
+     */
+    @GetMapping
+    public ResponseEntity<?> download() {
+        try {
+            Path file = flightRecordingService.dump();
+            long size = Files.size(file);
+
+            StreamingResponseBody body = out -> {
+                try {
+                    Files.copy(file, out);
+                } finally {
+                    Files.deleteIfExists(file);
+                }
+            };
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .contentLength(size)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"sandbox.jfr\"")
+                    .body(body);
+
+        } catch (IllegalStateException e) {
+            return unavailable(e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to dump flight recording", e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "status", "ERROR",
+                    "error", e.getMessage()
+            ));
+        }
+    }
+
+    private ResponseEntity<?> unavailable(String message) {
+        return ResponseEntity.status(503).body(Map.of(
+                "status", "UNAVAILABLE",
+                "error", message
+        ));
+    }
+}
@@ -0,0 +1,103 @@
+package com.sandbox.sandbox_server.controller;
+
+import com.sandbox.sandbox_server.service.BaseImageService;
+import com.sandbox.sandbox_server.service.ImageRetentionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/sandbox/images")
+@RequiredArgsConstructor
+public class ImageController {
+
+    private final ImageRetentionService imageRetentionService;
+    private final BaseImageService baseImageService;
+
+    /**
+     * 보관 중인 샌드박스 이미지와 마지막 GC 결과 조회
+     */
+    @GetMapping
+    public ResponseEntity<?> getImages() {
+        try {
+            List<Map<String, Object>> images = imageRetentionService.getImages();
+
+            return ResponseEntity.ok(Map.of(
+                    "images", images,
+                    "count", images.size(),
+                    "lastGc", imageRetentionService.getLastReport(),
+                    "status", "SUCCESS"
+            ));
+
+        } catch (Exception e) {
+            log.error("Failed to list images", e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "status", "ERROR",
+                    "error", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * 이미지 GC 즉시 실행
+     */
+    @PostMapping("/gc")
+    public ResponseEntity<?> collect() {
+        try {
+            return ResponseEntity.ok(imageRetentionService.collect());
+
+        } catch (Exception e) {
+            log.error("Image GC failed", e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "status", "ERROR",
+                    "error", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * 베이스 이미지 다이제스트와 워밍업 상태 조회
+     */
+    @GetMapping("/base")
+    public ResponseEntity<?> getBaseImages() {
+        Map<String, Object> body = new LinkedHashMap<>(baseImageService.describe());
+        body.put("status", "SUCCESS");
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * 베이스 이미지 즉시 갱신 (pull 후 다이제스트 재확인)
+     */
+    @PostMapping("/base/refresh")
+    public ResponseEntity<?> refreshBaseImages() {
+        try {
+            baseImageService.refreshAll().get();
+
+            Map<String, Object> body = new LinkedHashMap<>(baseImageService.describe());
+            body.put("status", "SUCCESS");
+            return ResponseEntity.ok(body);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(503).body(Map.of(
+                    "status", "ERROR",
+                    "error", "interrupted"
+            ));
+        } catch (Exception e) {
+            log.error("Base image refresh failed", e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "status", "ERROR",
+                    "error", String.valueOf(e.getMessage())
+            ));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.sandbox.sandbox_server.controller;
+
+import com.sandbox.sandbox_server.proxy.SandboxTrafficStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 리버스 프록시를 거친 샌드박스별 트래픽
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/sandbox/proxy")
+@RequiredArgsConstructor
+public class SandboxProxyController {
+
+    private final SandboxTrafficStats trafficStats;
+
+    /**
+     * 샌드박스별 요청 수, 초당 요청 수(최근 1분), 지연 시간 p50/p95, 열린 WebSocket 수
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats() {
+        try {
+            List<Map<String, Object>> sandboxes = trafficStats.snapshot();
+
+            return ResponseEntity.ok(Map.of(
+                    "sandboxes", sandboxes,
+                    "count", sandboxes.size(),
+                    "status", "SUCCESS"
+            ));
+
+        } catch (Exception e) {
+            log.error("Failed to get proxy stats", e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "status", "ERROR",
+                    "error", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * minutes 동안 요청이 없고 열린 WebSocket도 없는 샌드박스 (정리 대상 후보)
+     */
+    @GetMapping("/idle")
+    public ResponseEntity<?> getIdle(@RequestParam(defaultValue = "30") long minutes) {
+        if (minutes < 0) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "BAD_REQUEST",
+                    "error", "minutes는 0 이상이어야 합니다."
+            ));
+        }
+
+        try {
+            List<Map<String, Object>> idle = trafficStats.idle(Duration.ofMinutes(minutes));
+
+            return ResponseEntity.ok(Map.of(
+                    "sandboxes", idle,
+                    "count", idle.size(),
+                    "thresholdMinutes", minutes,
+                    "status", "SUCCESS"
+            ));
+
+        } catch (Exception e) {
+            log.error("Failed to get idle sandboxes", e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "status", "ERROR",
+                    "error", e.getMessage()
+            ));
+        }
+    }
+}
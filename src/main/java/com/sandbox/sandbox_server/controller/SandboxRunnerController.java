@@ -2,15 +2,27 @@ package com.sandbox.sandbox_server.controller;
 
 import com.sandbox.sandbox_server.dto.SandboxRunRequest;
 import com.sandbox.sandbox_server.dto.SandboxRunResponse;
+import com.sandbox.sandbox_server.service.ContainerLogIndex;
+import com.sandbox.sandbox_server.service.LogArchiveService;
+import com.sandbox.sandbox_server.service.LogSearchService;
+import com.sandbox.sandbox_server.service.ProcessLimitExceededException;
 import com.sandbox.sandbox_server.service.SandboxService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 @RestController
@@ -19,21 +31,24 @@ import java.util.Map;
 public class SandboxRunnerController {
 
     private final SandboxService sandboxService;
+    private final LogSearchService logSearchService;
+    private final LogArchiveService logArchiveService;
 
     @PostMapping("/run")
     public ResponseEntity<SandboxRunResponse> runContainer(@RequestBody SandboxRunRequest request) {
         long startTime = System.currentTimeMillis();
 
         try {
-            log.info("Received sandbox run request - uuid: {}, framework: {}, port: {}",
-                    request.getUuid(), request.getFramework(), request.getPort());
+            log.info("Received sandbox run request - uuid: {}, framework: {}, port: {}, mode: {}",
+                    request.getUuid(), request.getFramework(), request.getPort(), request.getMode());
 
             // 기존과 동일하게 호출하지만, 내부적으로 중복 실행 방지 로직이 작동
             String result = sandboxService.runProject(
                     request.getUuid(),      // uuid를 프로젝트 식별자로 사용
                     request.getUrl(),
                     request.getFramework(),
-                    request.getPort()
+                    request.getPort(),
+                    request.getMode()
             );
 
             long executionTime = System.currentTimeMillis() - startTime;
@@ -65,31 +80,87 @@ public class SandboxRunnerController {
         }
     }
 
+    /**
+     * 여러 프로젝트 일괄 실행
+     * 같은 내용의 프로젝트는 이미지를 한 번만 빌드하고 컨테이너만 따로 실행한다.
+     */
+    @PostMapping("/run/batch")
+    public ResponseEntity<?> runContainers(@RequestBody List<SandboxRunRequest> requests) {
+        long startTime = System.currentTimeMillis();
+
+        if (requests == null || requests.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "BAD_REQUEST",
+                    "error", "실행할 요청이 없습니다."
+            ));
+        }
+
+        Set<String> uuids = new HashSet<>();
+        for (SandboxRunRequest request : requests) {
+            if (!uuids.add(request.getUuid())) {
+                return ResponseEntity.badRequest().body(Map.of(
+                        "status", "BAD_REQUEST",
+                        "error", "중복된 uuid가 있습니다: " + request.getUuid()
+                ));
+            }
+        }
+
+        log.info("Received sandbox batch run request - count: {}", requests.size());
+
+        List<CompletableFuture<SandboxRunResponse>> futures = requests.stream()
+                .map(request -> sandboxService.runProjectAsync(
+                                request.getUuid(),
+                                request.getUrl(),
+                                request.getFramework(),
+                                request.getPort(),
+                                request.getMode())
+                        .handle((result, error) -> {
+                            long executionTime = System.currentTimeMillis() - startTime;
+                            if (error == null) {
+                                return SandboxRunResponse.builder()
+                                        .message("실행 완료")
+                                        .result(result)
+                                        .status("SUCCESS")
+                                        .executionId(request.getUuid())
+                                        .executionTime(executionTime)
+                                        .build();
+                            }
+
+                            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                    ? error.getCause()
+                                    : error;
+                            return SandboxRunResponse.builder()
+                                    .message("실행 실패")
+                                    .error(cause.getMessage())
+                                    .status("FAILED")
+                                    .executionId(request.getUuid())
+                                    .executionTime(executionTime)
+                                    .build();
+                        }))
+                .toList();
+
+        List<SandboxRunResponse> results = futures.stream()
+                .map(CompletableFuture::join)
+                .toList();
+        long failed = results.stream().filter(response -> "FAILED".equals(response.getStatus())).count();
+
+        return ResponseEntity.ok(Map.of(
+                "results", results,
+                "count", results.size(),
+                "succeeded", results.size() - failed,
+                "failed", failed,
+                "executionTime", System.currentTimeMillis() - startTime,
+                "status", failed == 0 ? "SUCCESS" : failed == results.size() ? "FAILED" : "PARTIAL_FAILURE"
+        ));
+    }
+
     @GetMapping("/status/{uuid}")
     public ResponseEntity<?> getContainerStatus(@PathVariable String uuid) {
         try {
-            String containerName = "sandbox-" + uuid;
-
-            ProcessBuilder pb = new ProcessBuilder("docker", "ps", "--filter", "name=" + containerName, "--format", "{{.Status}}");
-            Process process = pb.start();
-
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String status = reader.readLine();
-
-                if (status != null && !status.trim().isEmpty()) {
-                    return ResponseEntity.ok(Map.of(
-                            "uuid", uuid,
-                            "status", "RUNNING",
-                            "details", status
-                    ));
-                } else {
-                    return ResponseEntity.ok(Map.of(
-                            "uuid", uuid,
-                            "status", "STOPPED",
-                            "details", "Container not found or stopped"
-                    ));
-                }
-            }
+            return ResponseEntity.ok(sandboxService.getContainerStatus(uuid));
+
+        } catch (ProcessLimitExceededException e) {
+            return tooManyRequests(uuid, e);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of(
                     "uuid", uuid,
@@ -170,6 +241,8 @@ public class SandboxRunnerController {
 
             return ResponseEntity.ok(logs);
 
+        } catch (ProcessLimitExceededException e) {
+            return tooManyRequests(uuid, e);
         } catch (Exception e) {
             log.error("Failed to get container logs: {}", uuid, e);
             return ResponseEntity.status(500).body(Map.of(
@@ -182,4 +255,101 @@ public class SandboxRunnerController {
             ));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 수집된 컨테이너 로그 검색 (시각 범위, 레벨, 검색어, 커서 기반 페이지)
+     */
+    @GetMapping("/logs/{uuid}/search")
+    public ResponseEntity<?> searchContainerLogs(
+            @PathVariable String uuid,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "false") boolean regex,
+            @RequestParam(defaultValue = "0") long cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+
+        try {
+            Optional<ContainerLogIndex.Result> result =
+                    logSearchService.search(uuid, from, to, level, q, regex, cursor, limit);
+
+            if (result.isEmpty()) {
+                return ResponseEntity.status(404).body(Map.of(
+                        "uuid", uuid,
+                        "status", "NOT_FOUND",
+                        "message", "수집 중인 로그가 없습니다."
+                ));
+            }
+
+            ContainerLogIndex.Result logs = result.get();
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("uuid", uuid);
+            body.put("status", "SUCCESS");
+            body.put("entries", logs.entries());
+            body.put("nextCursor", logs.nextCursor());
+            body.put("scanned", logs.scanned());
+            body.put("truncated", logs.truncated());
+            body.put("indexedEntries", logs.indexedEntries());
+            body.put("droppedEntries", logs.droppedEntries());
+            return ResponseEntity.ok(body);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "uuid", uuid,
+                    "status", "BAD_REQUEST",
+                    "error", e.getMessage()
+            ));
+        } catch (Exception e) {
+            log.error("Failed to search container logs: {}", uuid, e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "uuid", uuid,
+                    "status", "ERROR",
+                    "error", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * 보관된 로그 다운로드 (gzip, 세그먼트를 이어 붙여 스트리밍)
+     * @param stream runtime 또는 build
+     */
+    @GetMapping("/logs/{uuid}/archive")
+    public ResponseEntity<?> downloadLogArchive(
+            @PathVariable String uuid,
+            @RequestParam(defaultValue = LogArchiveService.RUNTIME) String stream) {
+
+        if (!LogArchiveService.RUNTIME.equals(stream) && !LogArchiveService.BUILD.equals(stream)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "uuid", uuid,
+                    "status", "BAD_REQUEST",
+                    "error", "stream은 runtime 또는 build만 가능합니다: " + stream
+            ));
+        }
+
+        if (!logArchiveService.hasArchive(uuid, stream)) {
+            return ResponseEntity.status(404).body(Map.of(
+                    "uuid", uuid,
+                    "status", "NOT_FOUND",
+                    "message", "보관된 로그가 없습니다."
+            ));
+        }
+
+        StreamingResponseBody body = out -> logArchiveService.copyArchive(uuid, stream, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"sandbox-" + uuid + "-" + stream + ".log.gz\"")
+                .body(body);
+    }
+
+    private ResponseEntity<?> tooManyRequests(String uuid, ProcessLimitExceededException e) {
+        return ResponseEntity.status(429)
+                .header("Retry-After", "1")
+                .body(Map.of(
+                        "uuid", uuid,
+                        "status", "TOO_MANY_REQUESTS",
+                        "error", e.getMessage()
+                ));
+    }
+}
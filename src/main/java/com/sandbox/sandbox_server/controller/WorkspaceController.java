@@ -0,0 +1,207 @@
+package com.sandbox.sandbox_server.controller;
+
+import com.sandbox.sandbox_server.dto.SandboxRunResponse;
+import com.sandbox.sandbox_server.dto.WorkspaceManifestRequest;
+import com.sandbox.sandbox_server.dto.WorkspaceRunRequest;
+import com.sandbox.sandbox_server.service.SandboxService;
+import com.sandbox.sandbox_server.service.WorkspaceManager;
+import com.sandbox.sandbox_server.service.WorkspaceSyncService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 델타 업로드
+ * 1. POST /manifest 로 전체 파일의 sha256을 보내면 서버에 없는 파일 목록을 돌려준다 (삭제는 이 단계에서 반영)
+ * 2. POST /files (multipart, 파일명 = 상대 경로) 또는 POST /patch (ZIP)로 그 파일들만 전송
+ * 3. POST /run 으로 작업 디렉토리 그대로 실행
+ * 개발 모드로 실행 중이면 작업 디렉토리가 마운트되어 있으므로 1~2단계만으로 변경이 반영된다.
+ * GET / 으로 작업 디렉토리 위치(tmpfs/디스크)와 작업별 I/O 시간을 조회한다.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/sandbox/workspace/{uuid}")
+@RequiredArgsConstructor
+public class WorkspaceController {
+
+    private final WorkspaceSyncService workspaceSyncService;
+    private final SandboxService sandboxService;
+    private final WorkspaceManager workspaceManager;
+
+    @GetMapping
+    public ResponseEntity<?> describe(@PathVariable String uuid) {
+        try {
+            Map<String, Object> info = workspaceManager.describe(uuid);
+            if (info == null) {
+                return ResponseEntity.status(404).body(Map.of(
+                        "uuid", uuid,
+                        "status", "NOT_FOUND",
+                        "message", "작업 디렉토리가 없습니다."
+                ));
+            }
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("uuid", uuid);
+            body.put("status", "SUCCESS");
+            body.putAll(info);
+            return ResponseEntity.ok(body);
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(uuid, e.getMessage());
+        }
+    }
+
+    @PostMapping("/manifest")
+    public ResponseEntity<?> applyManifest(@PathVariable String uuid, @RequestBody WorkspaceManifestRequest request) {
+        if (request.getFiles() == null) {
+            return badRequest(uuid, "files가 없습니다.");
+        }
+
+        try {
+            SandboxService.DevSync sync = sandboxService.beginDevSync(uuid);
+            WorkspaceSyncService.ManifestDiff diff = workspaceSyncService.applyManifest(uuid, request.getFiles());
+            if (!diff.deleted().isEmpty()) {
+                sandboxService.completeDevSync(sync);
+            }
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("uuid", uuid);
+            body.put("status", "SUCCESS");
+            body.put("missing", diff.missing());
+            body.put("deleted", diff.deleted());
+            body.put("unchanged", diff.unchanged());
+            body.put("applyMillis", diff.applyMillis());
+            return ResponseEntity.ok(body);
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(uuid, e.getMessage());
+        } catch (Exception e) {
+            return error(uuid, "Failed to apply workspace manifest", e);
+        }
+    }
+
+    @PostMapping("/files")
+    public ResponseEntity<?> uploadFiles(@PathVariable String uuid, @RequestParam("files") List<MultipartFile> files) {
+        Map<String, InputStream> streams = new LinkedHashMap<>();
+        try {
+            for (MultipartFile file : files) {
+                streams.put(file.getOriginalFilename(), file.getInputStream());
+            }
+            SandboxService.DevSync sync = sandboxService.beginDevSync(uuid);
+            WorkspaceSyncService.UploadResult result = workspaceSyncService.applyFiles(uuid, streams);
+            return uploadResult(uuid, sync, result);
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(uuid, e.getMessage());
+        } catch (IllegalStateException e) {
+            return conflict(uuid, e.getMessage());
+        } catch (Exception e) {
+            return error(uuid, "Failed to apply workspace files", e);
+        } finally {
+            for (InputStream stream : streams.values()) {
+                try {
+                    stream.close();
+                } catch (Exception ignored) {
+                }
+            }
+        }
+    }
+
+    @PostMapping(value = "/patch", consumes = {"application/zip", "application/octet-stream"})
+    public ResponseEntity<?> applyPatch(@PathVariable String uuid, HttpServletRequest request) {
+        try {
+            SandboxService.DevSync sync = sandboxService.beginDevSync(uuid);
+            WorkspaceSyncService.UploadResult result = workspaceSyncService.applyPatch(uuid, request.getInputStream());
+            return uploadResult(uuid, sync, result);
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(uuid, e.getMessage());
+        } catch (IllegalStateException e) {
+            return conflict(uuid, e.getMessage());
+        } catch (Exception e) {
+            return error(uuid, "Failed to apply workspace patch", e);
+        }
+    }
+
+    @PostMapping("/run")
+    public ResponseEntity<?> runWorkspace(@PathVariable String uuid, @RequestBody WorkspaceRunRequest request) {
+        long startTime = System.currentTimeMillis();
+
+        try {
+            String result = sandboxService.runWorkspace(
+                    uuid, request.getFramework(), request.getPort(), request.getMode());
+
+            return ResponseEntity.ok(SandboxRunResponse.builder()
+                    .message("실행 완료")
+                    .result(result)
+                    .status("SUCCESS")
+                    .executionId(uuid)
+                    .executionTime(System.currentTimeMillis() - startTime)
+                    .build());
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(uuid, e.getMessage());
+        } catch (IllegalStateException e) {
+            return conflict(uuid, e.getMessage());
+        } catch (Exception e) {
+            log.error("Workspace execution failed", e);
+
+            return ResponseEntity.status(500).body(SandboxRunResponse.builder()
+                    .message("실행 실패")
+                    .error(e.getMessage())
+                    .status("FAILED")
+                    .executionId(uuid)
+                    .executionTime(System.currentTimeMillis() - startTime)
+                    .build());
+        }
+    }
+
+    private ResponseEntity<?> uploadResult(String uuid, SandboxService.DevSync sync,
+                                           WorkspaceSyncService.UploadResult result) {
+        if (result.filesWritten() > 0) {
+            sandboxService.completeDevSync(sync);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("uuid", uuid);
+        body.put("status", result.missing().isEmpty() ? "SUCCESS" : "INCOMPLETE");
+        body.put("filesWritten", result.filesWritten());
+        body.put("bytesReceived", result.bytesReceived());
+        body.put("missing", result.missing());
+        body.put("applyMillis", result.applyMillis());
+        return ResponseEntity.ok(body);
+    }
+
+    private ResponseEntity<?> badRequest(String uuid, String message) {
+        return ResponseEntity.badRequest().body(Map.of(
+                "uuid", uuid,
+                "status", "BAD_REQUEST",
+                "error", message
+        ));
+    }
+
+    private ResponseEntity<?> conflict(String uuid, String message) {
+        return ResponseEntity.status(409).body(Map.of(
+                "uuid", uuid,
+                "status", "CONFLICT",
+                "error", message
+        ));
+    }
+
+    private ResponseEntity<?> error(String uuid, String message, Exception e) {
+        log.error("{}: {}", message, uuid, e);
+        return ResponseEntity.status(500).body(Map.of(
+                "uuid", uuid,
+                "status", "ERROR",
+                "error", e.getMessage()
+        ));
+    }
+}
@@ -8,4 +8,6 @@ public class SandboxRunRequest {
     private String url;
     private String framework;
     private int port;
+    // build(기본) 또는 dev (react, fastapi만 지원, 그 외에는 build로 실행)
+    private String mode;
 }
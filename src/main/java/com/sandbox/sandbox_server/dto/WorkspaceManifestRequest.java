@@ -0,0 +1,11 @@
+package com.sandbox.sandbox_server.dto;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+public class WorkspaceManifestRequest {
+    // 프로젝트 기준 상대 경로 -> sha256 (hex)
+    private Map<String, String> files;
+}
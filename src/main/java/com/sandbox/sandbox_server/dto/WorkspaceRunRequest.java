@@ -0,0 +1,11 @@
+package com.sandbox.sandbox_server.dto;
+
+import lombok.Getter;
+
+@Getter
+public class WorkspaceRunRequest {
+    private String framework;
+    private int port;
+    // build(기본) 또는 dev
+    private String mode;
+}
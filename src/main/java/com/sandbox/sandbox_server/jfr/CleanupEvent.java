@@ -0,0 +1,45 @@
+package com.sandbox.sandbox_server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 컨테이너 중지 또는 작업 디렉토리 정리
+ */
+@Name(CleanupEvent.NAME)
+@Label("Sandbox Cleanup")
+@Category({"Sandbox", "Cleanup"})
+@Description("Container stop or workspace cleanup")
+@StackTrace(false)
+public class CleanupEvent extends SandboxEvent {
+
+    public static final String NAME = "sandbox.Cleanup";
+
+    @Label("Target")
+    @Description("Container name or directory")
+    public String target;
+
+    @Label("Reason")
+    @Description("replace, manual, shutdown, failure")
+    public String reason;
+
+    @Label("Success")
+    public boolean success;
+
+    public static CleanupEvent start(String uuid, String target, String reason) {
+        CleanupEvent event = new CleanupEvent();
+        event.uuid = uuid;
+        event.target = target;
+        event.reason = reason;
+        event.begin();
+        return event;
+    }
+
+    public void complete(boolean success) {
+        this.success = success;
+        commit();
+    }
+}
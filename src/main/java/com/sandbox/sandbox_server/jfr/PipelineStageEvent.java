@@ -0,0 +1,68 @@
+package com.sandbox.sandbox_server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 실행 파이프라인 단계 (다운로드, 압축 해제, 이미지 빌드, 컨테이너 시작, 첫 응답)
+ * 이벤트 구간이 단계 소요 시간이다.
+ */
+@Name(PipelineStageEvent.NAME)
+@Label("Sandbox Pipeline Stage")
+@Category({"Sandbox", "Pipeline"})
+@Description("Stage of a sandbox run")
+@StackTrace(false)
+public class PipelineStageEvent extends SandboxEvent {
+
+    public static final String NAME = "sandbox.PipelineStage";
+
+    public static final String DOWNLOAD = "download";
+    public static final String EXTRACT = "extract";
+    public static final String BUILD = "build";
+    public static final String CONTAINER_START = "container-start";
+    public static final String READINESS = "readiness";
+
+    public static final String SUCCESS = "success";
+    public static final String FAILED = "failed";
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Framework")
+    public String framework;
+
+    @Label("Image")
+    public String image;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Entries")
+    public int entries;
+
+    @Label("Outcome")
+    @Description("success, failed, built, reused, shared, timeout")
+    public String outcome;
+
+    /**
+     * 단계 시작 (끝나면 complete 호출)
+     */
+    public static PipelineStageEvent start(String uuid, String stage, String framework) {
+        PipelineStageEvent event = new PipelineStageEvent();
+        event.uuid = uuid;
+        event.stage = stage;
+        event.framework = framework;
+        event.begin();
+        return event;
+    }
+
+    public void complete(String outcome) {
+        this.outcome = outcome;
+        commit();
+    }
+}
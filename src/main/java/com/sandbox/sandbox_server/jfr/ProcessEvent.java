@@ -0,0 +1,38 @@
+package com.sandbox.sandbox_server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 외부 프로세스(docker CLI, 빌드 스크립트) 시작
+ * 이벤트 구간은 실행 슬롯 대기부터 프로세스 시작까지이고 (호출 스레드에서 기록), waitTime은 그중 슬롯 대기 시간이다.
+ * 종료 코드와 실행 시간은 ProcessExitEvent로 따로 남긴다.
+ */
+@Name(ProcessEvent.NAME)
+@Label("Sandbox Process")
+@Category({"Sandbox", "Process"})
+@Description("External process spawned for a sandbox")
+@StackTrace(false)
+public class ProcessEvent extends SandboxEvent {
+
+    public static final String NAME = "sandbox.Process";
+
+    @Label("Command")
+    public String command;
+
+    @Label("PID")
+    public long pid;
+
+    @Label("Wait Time")
+    @Description("Time spent waiting for a process slot")
+    @Timespan(Timespan.NANOSECONDS)
+    public long waitTime;
+
+    @Label("Outcome")
+    @Description("started, rejected, failed")
+    public String outcome;
+}
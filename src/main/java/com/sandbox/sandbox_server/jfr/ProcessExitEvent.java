@@ -0,0 +1,36 @@
+package com.sandbox.sandbox_server.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 외부 프로세스 종료
+ * 프로세스 종료를 감지한 스레드에서 기록하므로 시작(ProcessEvent)과 별도 이벤트로 남긴다.
+ */
+@Name(ProcessExitEvent.NAME)
+@Label("Sandbox Process Exit")
+@Category({"Sandbox", "Process"})
+@Description("External process exited")
+@StackTrace(false)
+public class ProcessExitEvent extends SandboxEvent {
+
+    public static final String NAME = "sandbox.ProcessExit";
+
+    @Label("Command")
+    public String command;
+
+    @Label("PID")
+    public long pid;
+
+    @Label("Exit Code")
+    public int exitCode;
+
+    @Label("Run Time")
+    @Description("Time from process start to exit")
+    @Timespan(Timespan.NANOSECONDS)
+    public long runTime;
+}
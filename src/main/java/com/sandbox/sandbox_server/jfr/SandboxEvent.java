@@ -0,0 +1,16 @@
+package com.sandbox.sandbox_server.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * 샌드박스 JFR 이벤트 공통 (uuid로 실행별 타임라인을 구성)
+ */
+public abstract class SandboxEvent extends Event {
+
+    public static final String NAME_PREFIX = "sandbox.";
+    public static final String UUID_FIELD = "uuid";
+
+    @Label("UUID")
+    public String uuid;
+}
@@ -0,0 +1,405 @@
+package com.sandbox.sandbox_server.proxy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 샌드박스 리버스 프록시
+ * {uuid}{host-suffix} 호스트(기본 방식)로 들어온 요청을 컨테이너로 전달한다.
+ * /sandbox/{uuid}/** 경로 방식은 관리 API(/api/sandbox/**), 다른 샌드박스와 같은 origin이 되므로
+ * path-routing.enabled로 명시적으로 켰을 때만 쓰고, 응답 쿠키의 Path를 /sandbox/{uuid}/ 안으로 제한한다.
+ * 업스트림 응답을 기다리는 동안 요청 스레드를 점유하지 않도록 서블릿 비동기 + HttpClient.sendAsync를 사용하고,
+ * HttpClient의 keep-alive 연결 풀을 모든 샌드박스가 공유한다. WebSocket 업그레이드는 WebSocketTunnel로 넘긴다.
+ * 응답 본문 전달(스레드 1개)과 WebSocket 터널(스레드 2개)은 스레드를 점유하므로 동시 스트림 수를 max-streams로 제한하고,
+ * 스레드 풀도 그에 맞춰 상한을 둔다. 한도에 도달하면 바로 503으로 응답한다.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class SandboxProxyFilter extends OncePerRequestFilter {
+
+    static final String PATH_PREFIX = "/sandbox/";
+
+    // 업스트림으로 넘기지 않는 헤더 (hop-by-hop, HttpClient가 직접 설정하는 헤더)
+    private static final Set<String> SKIPPED_REQUEST_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-authorization", "proxy-connection", "te", "trailer",
+            "transfer-encoding", "upgrade", "host", "content-length", "expect", "date", "from", "via", "warning",
+            "http2-settings");
+    private static final Set<String> SKIPPED_RESPONSE_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-connection", "te", "trailer",
+            "transfer-encoding", "upgrade", ":status");
+
+    private final SandboxRouter router;
+    private final SandboxTrafficStats trafficStats;
+    private final ObjectMapper objectMapper;
+
+    // HttpClient 내부 작업(연결, 응답 헤더 처리)용 여유 스레드
+    private static final int CLIENT_THREADS = 16;
+
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    private ThreadPoolExecutor executor;
+    private Semaphore streams;
+    private HttpClient httpClient;
+
+    @Value("${sandbox.proxy.enabled:true}")
+    private boolean enabled;
+
+    // 예: .sandbox.example.com 이면 {uuid}.sandbox.example.com 으로 접근
+    @Value("${sandbox.proxy.host-suffix:}")
+    private String hostSuffix;
+
+    // /sandbox/{uuid}/** 경로 방식 (샌드박스 앱이 관리 API와 같은 origin에서 실행되므로 신뢰할 수 있는 앱에만)
+    @Value("${sandbox.proxy.path-routing.enabled:false}")
+    private boolean pathRouting;
+
+    @Value("${sandbox.proxy.connect-timeout:5s}")
+    private Duration connectTimeout;
+
+    @Value("${sandbox.proxy.request-timeout:5m}")
+    private Duration requestTimeout;
+
+    // 동시에 전달 중인 응답 본문 + 열린 WebSocket 최대 수
+    @Value("${sandbox.proxy.max-streams:256}")
+    private int maxStreams;
+
+    // WebSocket 핸드셰이크 전체 제한 시간 (요청 스레드에서 업스트림 101 응답을 기다림)
+    @Value("${sandbox.proxy.websocket.handshake-timeout:5s}")
+    private Duration handshakeTimeout;
+
+    @PostConstruct
+    public void init() {
+        if (enabled && hostSuffix.isBlank() && !pathRouting) {
+            log.warn("Sandbox proxy has no route: set sandbox.proxy.host-suffix "
+                    + "(or sandbox.proxy.path-routing.enabled=true for same-origin path routing)");
+        }
+        streams = new Semaphore(maxStreams);
+        executor = new ThreadPoolExecutor(0, maxStreams * 2 + CLIENT_THREADS, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "sandbox-proxy-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(connectTimeout)
+                .executor(executor)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Route route = enabled ? match(request) : null;
+        if (route == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (route.path() == null) {
+            // /sandbox/{uuid} -> /sandbox/{uuid}/ (앱의 상대 경로가 맞게 동작하도록)
+            String query = request.getQueryString();
+            response.setStatus(308);
+            response.setHeader("Location", request.getRequestURI() + "/" + (query != null ? "?" + query : ""));
+            return;
+        }
+
+        URI target = router.target(route.uuid());
+        if (target == null) {
+            writeError(response, 404, route.uuid(), "NOT_FOUND", "실행 중인 샌드박스가 없습니다.");
+            return;
+        }
+
+        if (!streams.tryAcquire()) {
+            trafficStats.record(route.uuid(), 503, 0);
+            log.warn("Proxy stream limit ({}) reached, rejecting - uuid: {}", maxStreams, route.uuid());
+            writeError(response, 503, route.uuid(), "SERVICE_UNAVAILABLE",
+                    "프록시 동시 연결 수가 한도에 도달했습니다. 잠시 후 다시 시도해 주세요.");
+            return;
+        }
+        Runnable release = releaseOnce();
+
+        try {
+            if (WebSocketTunnel.isUpgrade(request)) {
+                WebSocketTunnel.open(request, response, route.uuid(), target, route.path(),
+                        forwardedHeaders(request, route), connectTimeout, handshakeTimeout, executor, release,
+                        trafficStats, router, objectMapper);
+                return;
+            }
+            forward(request, response, route, target, release);
+        } catch (IOException | ServletException | RuntimeException e) {
+            release.run();
+            throw e;
+        }
+    }
+
+    /**
+     * 스트림 자리 반환 (여러 번 호출해도 한 번만)
+     */
+    private Runnable releaseOnce() {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                streams.release();
+            }
+        };
+    }
+
+    /**
+     * 업스트림 요청을 비동기로 보내고, 응답 헤더가 오면 HttpClient 스레드에서 본문을 그대로 흘려보낸다.
+     * @param release 본문 전달이 끝나면 호출 (스트림 자리 반환)
+     */
+    private void forward(HttpServletRequest request, HttpServletResponse response, Route route, URI target,
+                         Runnable release) throws IOException {
+        HttpRequest upstreamRequest;
+        try {
+            upstreamRequest = buildRequest(request, route, target);
+        } catch (IllegalArgumentException e) {
+            release.run();
+            writeError(response, 400, route.uuid(), "BAD_REQUEST", "잘못된 요청 경로입니다.");
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        AsyncContext async = request.startAsync();
+        async.setTimeout(requestTimeout.toMillis() + connectTimeout.toMillis());
+
+        httpClient.sendAsync(upstreamRequest, HttpResponse.BodyHandlers.ofInputStream())
+                .whenComplete((upstream, error) -> {
+                    int status = 0;
+                    try {
+                        if (error != null) {
+                            status = handleFailure(response, route.uuid(), error);
+                        } else {
+                            status = upstream.statusCode();
+                            relay(upstream, response, route);
+                        }
+                    } catch (IOException e) {
+                        // 클라이언트가 먼저 연결을 끊음
+                        log.debug("Proxy response aborted - uuid: {}: {}", route.uuid(), e.getMessage());
+                    } finally {
+                        release.run();
+                        trafficStats.record(route.uuid(), status, System.nanoTime() - startNanos);
+                        async.complete();
+                    }
+                });
+    }
+
+    private HttpRequest buildRequest(HttpServletRequest request, Route route, URI target) {
+        String query = request.getQueryString();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(
+                        URI.create(target + route.path() + (query != null ? "?" + query : "")))
+                .timeout(requestTimeout);
+
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (SKIPPED_REQUEST_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            for (String value : Collections.list(request.getHeaders(name))) {
+                builder.header(name, value);
+            }
+        }
+        forwardedHeaders(request, route).forEach(builder::header);
+
+        long contentLength = request.getContentLengthLong();
+        boolean hasBody = contentLength > 0 || request.getHeader("Transfer-Encoding") != null;
+        HttpRequest.BodyPublisher body;
+        if (!hasBody) {
+            body = HttpRequest.BodyPublishers.noBody();
+        } else {
+            HttpRequest.BodyPublisher stream = HttpRequest.BodyPublishers.ofInputStream(() -> {
+                try {
+                    return request.getInputStream();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            body = contentLength > 0 ? HttpRequest.BodyPublishers.fromPublisher(stream, contentLength) : stream;
+        }
+        return builder.method(request.getMethod(), body).build();
+    }
+
+    private Map<String, String> forwardedHeaders(HttpServletRequest request, Route route) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        headers.put("X-Forwarded-For", forwardedFor != null
+                ? forwardedFor + ", " + request.getRemoteAddr()
+                : request.getRemoteAddr());
+        headers.put("X-Forwarded-Proto", request.getScheme());
+        String host = request.getHeader("Host");
+        if (host != null) {
+            headers.put("X-Forwarded-Host", host);
+        }
+        if (route.prefix() != null) {
+            headers.put("X-Forwarded-Prefix", route.prefix());
+        }
+        return headers;
+    }
+
+    private void relay(HttpResponse<InputStream> upstream, HttpServletResponse response, Route route)
+            throws IOException {
+        response.setStatus(upstream.statusCode());
+        upstream.headers().map().forEach((name, values) -> {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (SKIPPED_RESPONSE_HEADERS.contains(lower)) {
+                return;
+            }
+            if (lower.equals("set-cookie") && route.prefix() != null) {
+                values.forEach(value -> response.addHeader(name, scopeCookie(value, route.prefix())));
+            } else {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+
+        try (InputStream in = upstream.body()) {
+            OutputStream out = response.getOutputStream();
+            byte[] buffer = new byte[16 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                // 스트리밍 응답(SSE, HMR 이벤트 등)이 버퍼에 묶이지 않도록 받은 만큼 바로 내보냄
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        }
+    }
+
+    /**
+     * 경로 방식 응답 쿠키를 /sandbox/{uuid}/ 안으로 제한
+     * 앱 기준 Path(/, /api 등)는 프록시 경로 아래로 옮기고, Domain은 지워 다른 호스트로 퍼지지 않게 한다.
+     */
+    static String scopeCookie(String cookie, String prefix) {
+        String[] parts = cookie.split(";");
+        StringBuilder scoped = new StringBuilder(parts[0].trim());
+        boolean hasPath = false;
+        for (int i = 1; i < parts.length; i++) {
+            String attribute = parts[i].trim();
+            String lower = attribute.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("domain=") || attribute.isEmpty()) {
+                continue;
+            }
+            if (lower.startsWith("path=")) {
+                String path = attribute.substring("path=".length()).trim();
+                if (!path.equals(prefix) && !path.startsWith(prefix + "/")) {
+                    path = prefix + (path.startsWith("/") ? path : "/");
+                }
+                attribute = "Path=" + path;
+                hasPath = true;
+            }
+            scoped.append("; ").append(attribute);
+        }
+        if (!hasPath) {
+            scoped.append("; Path=").append(prefix).append("/");
+        }
+        return scoped.toString();
+    }
+
+    private int handleFailure(HttpServletResponse response, String uuid, Throwable error) throws IOException {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpTimeoutException) {
+            writeError(response, 504, uuid, "GATEWAY_TIMEOUT", "샌드박스 응답 시간이 초과되었습니다.");
+            return 0;
+        }
+        if (cause instanceof ConnectException) {
+            // 컨테이너가 재시작되어 주소가 바뀌었거나 아직 앱이 뜨지 않음
+            router.invalidate(uuid);
+        }
+        log.debug("Proxy request failed - uuid: {}: {}", uuid, cause.toString());
+        writeError(response, 502, uuid, "BAD_GATEWAY", "샌드박스에 연결할 수 없습니다.");
+        return 0;
+    }
+
+    private void writeError(HttpServletResponse response, int status, String uuid, String code, String message)
+            throws IOException {
+        if (response.isCommitted()) {
+            return;
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("uuid", uuid);
+        body.put("status", code);
+        body.put("error", message);
+
+        response.setStatus(status);
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write(objectMapper.writeValueAsString(body));
+    }
+
+    /**
+     * 요청이 가리키는 샌드박스 (프록시 대상이 아니면 null)
+     */
+    private Route match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        if (!hostSuffix.isBlank()) {
+            String host = request.getServerName().toLowerCase(Locale.ROOT);
+            String suffix = hostSuffix.toLowerCase(Locale.ROOT);
+            if (host.endsWith(suffix) && host.length() > suffix.length()) {
+                String uuid = host.substring(0, host.length() - suffix.length());
+                return new Route(uuid, path.isEmpty() ? "/" : path, null);
+            }
+        }
+
+        if (!pathRouting || !path.startsWith(PATH_PREFIX)) {
+            return null;
+        }
+        String rest = path.substring(PATH_PREFIX.length());
+        int slash = rest.indexOf('/');
+        String uuid = slash < 0 ? rest : rest.substring(0, slash);
+        if (uuid.isEmpty()) {
+            return null;
+        }
+        return new Route(uuid, slash < 0 ? null : rest.substring(slash),
+                request.getContextPath() + PATH_PREFIX + uuid);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param path 컨테이너로 보낼 경로 (null이면 끝에 /를 붙여 리다이렉트)
+     * @param prefix 경로 방식일 때 앞에 붙은 /sandbox/{uuid} (X-Forwarded-Prefix)
+     */
+    private record Route(String uuid, String path, String prefix) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.sandbox.sandbox_server.proxy;
+
+import com.sandbox.sandbox_server.service.ActiveSandbox;
+import com.sandbox.sandbox_server.service.ProcessRunner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * uuid -> 컨테이너 주소
+ * 호스트 포트를 열고 실행하면 localhost:{port}, 열지 않으면 docker inspect로 얻은 컨테이너 IP:{앱 포트}로 연결한다.
+ * 컨테이너 IP는 처음 요청할 때 조회해서 재사용하고, 연결에 실패하면 다시 조회한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SandboxRouter {
+
+    // 컨테이너 안의 앱 포트 (build_and_run.sh와 같은 값)
+    private static final Map<String, Integer> APP_PORTS = Map.of(
+            "spring", 8080,
+            "react", 3000,
+            "fastapi", 8000
+    );
+
+    private final ProcessRunner processRunner;
+    private final SandboxTrafficStats trafficStats;
+
+    // uuid -> 경로
+    private final ConcurrentHashMap<String, Route> routes = new ConcurrentHashMap<>();
+
+    @Value("${sandbox.proxy.publish-ports:true}")
+    private boolean publishPorts;
+
+    /**
+     * 컨테이너 시작 후 경로 등록 (같은 uuid의 이전 경로는 교체)
+     */
+    public void register(String uuid, ActiveSandbox sandbox) {
+        routes.put(uuid, new Route(sandbox));
+        trafficStats.track(uuid, sandbox.framework());
+    }
+
+    public void unregister(String uuid) {
+        routes.remove(uuid);
+        trafficStats.forget(uuid);
+    }
+
+    public boolean isPublishPorts() {
+        return publishPorts;
+    }
+
+    /**
+     * @return 실행 중인 샌드박스가 없거나 주소를 알 수 없으면 null
+     */
+    public URI target(String uuid) {
+        Route route = routes.get(uuid);
+        if (route == null) {
+            return null;
+        }
+        if (publishPorts) {
+            return URI.create("http://127.0.0.1:" + route.sandbox.port());
+        }
+
+        URI target = route.target;
+        if (target == null) {
+            String address = inspectAddress(route.sandbox.containerName());
+            Integer appPort = APP_PORTS.get(route.sandbox.framework());
+            if (address == null || appPort == null) {
+                return null;
+            }
+            target = URI.create("http://" + address + ":" + appPort);
+            route.target = target;
+        }
+        return target;
+    }
+
+    public String framework(String uuid) {
+        Route route = routes.get(uuid);
+        return route != null ? route.sandbox.framework() : null;
+    }
+
+    /**
+     * 연결 실패 시 캐시된 컨테이너 주소 폐기 (재시작 등으로 IP가 바뀌었을 수 있음)
+     */
+    public void invalidate(String uuid) {
+        Route route = routes.get(uuid);
+        if (route != null) {
+            route.target = null;
+        }
+    }
+
+    private String inspectAddress(String containerName) {
+        try {
+            ProcessRunner.CommandResult result = processRunner.run(5, "docker", "inspect", "-f",
+                    "{{range .NetworkSettings.Networks}}{{.IPAddress}} {{end}}", containerName);
+            if (!result.isSuccess()) {
+                log.warn("docker inspect failed - container: {}: {}", containerName, result.output().trim());
+                return null;
+            }
+            String address = result.output().trim();
+            int space = address.indexOf(' ');
+            address = space > 0 ? address.substring(0, space) : address;
+            return address.isEmpty() ? null : address;
+        } catch (Exception e) {
+            log.warn("Failed to resolve container address - container: {}: {}", containerName, e.getMessage());
+            return null;
+        }
+    }
+
+    private static final class Route {
+
+        private final ActiveSandbox sandbox;
+        private volatile URI target;
+
+        private Route(ActiveSandbox sandbox) {
+            this.sandbox = sandbox;
+        }
+    }
+}
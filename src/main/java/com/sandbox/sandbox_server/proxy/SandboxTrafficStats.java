@@ -0,0 +1,201 @@
+package com.sandbox.sandbox_server.proxy;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 프록시를 거친 샌드박스별 요청 수, 지연 시간, 마지막 활동 시각
+ * uuid 태그는 카디널리티가 커서 Micrometer에는 프레임워크 단위로만 남기고, 샌드박스별 값은 메모리에서 집계한다.
+ * 열린 WebSocket이 있으면 유휴로 보지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SandboxTrafficStats {
+
+    private static final int RATE_WINDOW_SECONDS = 60;
+    private static final int LATENCY_SAMPLES = 256;
+
+    private final MeterRegistry meterRegistry;
+
+    // uuid -> 트래픽
+    private final ConcurrentHashMap<String, Traffic> traffic = new ConcurrentHashMap<>();
+    private final AtomicInteger openWebSockets = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("sandbox.proxy.websockets.open", openWebSockets, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 샌드박스 등록 (등록 시각부터 유휴 시간을 센다)
+     */
+    public void track(String uuid, String framework) {
+        traffic.put(uuid, new Traffic(framework));
+    }
+
+    public void forget(String uuid) {
+        traffic.remove(uuid);
+    }
+
+    /**
+     * HTTP 요청 하나 기록
+     * @param status 업스트림 응답 코드 (연결 실패 등으로 응답이 없으면 0)
+     */
+    public void record(String uuid, int status, long elapsedNanos) {
+        Traffic entry = traffic.get(uuid);
+        String framework = entry != null ? entry.framework : "unknown";
+        meterRegistry.timer("sandbox.proxy.requests", "framework", framework, "outcome", outcome(status))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (entry != null) {
+            entry.record(status, elapsedNanos);
+        }
+    }
+
+    /**
+     * WebSocket 데이터 전송 등 요청 외 활동
+     */
+    public void touch(String uuid) {
+        Traffic entry = traffic.get(uuid);
+        if (entry != null) {
+            entry.lastActivityMillis = System.currentTimeMillis();
+        }
+    }
+
+    public void webSocketOpened(String uuid) {
+        openWebSockets.incrementAndGet();
+        Traffic entry = traffic.get(uuid);
+        if (entry != null) {
+            entry.webSockets.incrementAndGet();
+            entry.lastActivityMillis = System.currentTimeMillis();
+        }
+    }
+
+    public void webSocketClosed(String uuid) {
+        openWebSockets.updateAndGet(count -> Math.max(0, count - 1));
+        Traffic entry = traffic.get(uuid);
+        if (entry != null) {
+            entry.webSockets.updateAndGet(count -> Math.max(0, count - 1));
+            entry.lastActivityMillis = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 샌드박스별 통계 (요청이 많은 순)
+     */
+    public List<Map<String, Object>> snapshot() {
+        long now = System.currentTimeMillis();
+        return traffic.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> -entry.getValue().requests.get()))
+                .map(entry -> entry.getValue().describe(entry.getKey(), now))
+                .toList();
+    }
+
+    /**
+     * threshold 이상 요청도 열린 WebSocket도 없는 샌드박스 (오래 유휴인 순)
+     */
+    public List<Map<String, Object>> idle(Duration threshold) {
+        long now = System.currentTimeMillis();
+        return traffic.entrySet().stream()
+                .filter(entry -> entry.getValue().webSockets.get() == 0)
+                .filter(entry -> now - entry.getValue().lastActivityMillis >= threshold.toMillis())
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().lastActivityMillis))
+                .map(entry -> entry.getValue().describe(entry.getKey(), now))
+                .toList();
+    }
+
+    private static String outcome(int status) {
+        return status == 0 ? "error" : (status / 100) + "xx";
+    }
+
+    private static final class Traffic {
+
+        private final String framework;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicInteger webSockets = new AtomicInteger();
+        private volatile long lastActivityMillis = System.currentTimeMillis();
+
+        // 초 단위 요청 수 (최근 RATE_WINDOW_SECONDS초)
+        private final long[] secondStamps = new long[RATE_WINDOW_SECONDS];
+        private final int[] secondCounts = new int[RATE_WINDOW_SECONDS];
+        // 최근 요청의 지연 시간 (ns)
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+        private int latencyCount;
+        private int latencyNext;
+
+        private Traffic(String framework) {
+            this.framework = framework;
+        }
+
+        private synchronized void record(int status, long elapsedNanos) {
+            long now = System.currentTimeMillis();
+            requests.incrementAndGet();
+            if (status == 0 || status >= 500) {
+                errors.incrementAndGet();
+            }
+            lastActivityMillis = now;
+
+            long second = now / 1000;
+            int slot = (int) (second % RATE_WINDOW_SECONDS);
+            if (secondStamps[slot] != second) {
+                secondStamps[slot] = second;
+                secondCounts[slot] = 0;
+            }
+            secondCounts[slot]++;
+
+            latencies[latencyNext] = elapsedNanos;
+            latencyNext = (latencyNext + 1) % LATENCY_SAMPLES;
+            latencyCount = Math.min(latencyCount + 1, LATENCY_SAMPLES);
+        }
+
+        private synchronized Map<String, Object> describe(String uuid, long now) {
+            long second = now / 1000;
+            long recent = 0;
+            for (int i = 0; i < RATE_WINDOW_SECONDS; i++) {
+                if (second - secondStamps[i] < RATE_WINDOW_SECONDS) {
+                    recent += secondCounts[i];
+                }
+            }
+
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("uuid", uuid);
+            body.put("framework", framework);
+            body.put("requests", requests.get());
+            body.put("errors", errors.get());
+            body.put("requestsPerSecond", Math.round(recent * 100.0 / RATE_WINDOW_SECONDS) / 100.0);
+            body.put("latencyP50Millis", percentileMillis(sorted, 0.50));
+            body.put("latencyP95Millis", percentileMillis(sorted, 0.95));
+            body.put("openWebSockets", webSockets.get());
+            body.put("lastActivity", Instant.ofEpochMilli(lastActivityMillis).toString());
+            body.put("idleSeconds", TimeUnit.MILLISECONDS.toSeconds(now - lastActivityMillis));
+            return body;
+        }
+
+        private static double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            long nanos = sorted[Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1)];
+            return Math.round(nanos / 10_000.0) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.sandbox.sandbox_server.proxy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpUpgradeHandler;
+import jakarta.servlet.http.WebConnection;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * WebSocket 패스스루
+ * 업스트림과 직접 핸드셰이크한 뒤 101 응답을 클라이언트에 그대로 돌려주고,
+ * 이후 프레임은 해석하지 않고 양방향 바이트 스트림으로 복사한다 (dev 서버 HMR, 앱 자체 WebSocket 모두 동일).
+ */
+@Slf4j
+public class WebSocketTunnel implements HttpUpgradeHandler {
+
+    private static final int MAX_HEAD_BYTES = 16 * 1024;
+    private static final Set<String> SKIPPED_RESPONSE_HEADERS = Set.of("content-length", "transfer-encoding");
+
+    private Socket upstream;
+    private byte[] pending;
+    private String uuid;
+    private SandboxTrafficStats trafficStats;
+    private Executor executor;
+    private Runnable release;
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    static boolean isUpgrade(HttpServletRequest request) {
+        String upgrade = request.getHeader("Upgrade");
+        return upgrade != null && upgrade.equalsIgnoreCase("websocket");
+    }
+
+    /**
+     * 업스트림에 핸드셰이크를 보내고, 101이면 클라이언트 연결을 업그레이드해 터널을 연다.
+     * 업그레이드는 요청 스레드에서 해야 하므로 핸드셰이크는 요청 스레드에서 하되, 전체를 handshakeTimeout 안으로 제한한다.
+     * @param release 터널이 닫히거나 업그레이드하지 못하면 호출 (스트림 자리 반환)
+     */
+    static void open(HttpServletRequest request, HttpServletResponse response, String uuid, URI target, String path,
+                     Map<String, String> forwardedHeaders, Duration connectTimeout, Duration handshakeTimeout,
+                     Executor executor, Runnable release, SandboxTrafficStats trafficStats, SandboxRouter router,
+                     ObjectMapper objectMapper) throws IOException, ServletException {
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + handshakeTimeout.toNanos();
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(target.getHost(), target.getPort()),
+                    (int) Math.min(connectTimeout.toMillis(), handshakeTimeout.toMillis()));
+            socket.setTcpNoDelay(true);
+
+            OutputStream out = socket.getOutputStream();
+            out.write(requestHead(request, target, path, forwardedHeaders).getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+
+            InputStream in = socket.getInputStream();
+            ByteArrayOutputStream head = new ByteArrayOutputStream();
+            byte[] leftover = readHead(socket, in, head, deadlineNanos);
+            String[] lines = head.toString(StandardCharsets.ISO_8859_1).split("\r\n");
+            int status = parseStatus(lines[0]);
+            trafficStats.record(uuid, status, System.nanoTime() - startNanos);
+
+            if (status != 101) {
+                socket.close();
+                release.run();
+                Map<String, Object> body = errorBody(uuid);
+                body.put("upstreamStatus", status);
+                writeError(response, objectMapper, body);
+                return;
+            }
+
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon <= 0) {
+                    continue;
+                }
+                String name = lines[i].substring(0, colon).trim();
+                if (!SKIPPED_RESPONSE_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    response.addHeader(name, lines[i].substring(colon + 1).trim());
+                }
+            }
+
+            socket.setSoTimeout(0);
+            WebSocketTunnel tunnel = request.upgrade(WebSocketTunnel.class);
+            tunnel.upstream = socket;
+            tunnel.pending = leftover;
+            tunnel.uuid = uuid;
+            tunnel.trafficStats = trafficStats;
+            tunnel.executor = executor;
+            tunnel.release = release;
+        } catch (IOException e) {
+            socket.close();
+            release.run();
+            if (!(e instanceof SocketTimeoutException)) {
+                router.invalidate(uuid);
+            }
+            trafficStats.record(uuid, 0, System.nanoTime() - startNanos);
+            log.debug("WebSocket handshake failed - uuid: {}: {}", uuid, e.getMessage());
+            if (!response.isCommitted()) {
+                writeError(response, objectMapper, errorBody(uuid));
+            }
+        }
+    }
+
+    private static Map<String, Object> errorBody(String uuid) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("uuid", uuid);
+        body.put("status", "BAD_GATEWAY");
+        body.put("error", "샌드박스 WebSocket 연결에 실패했습니다.");
+        return body;
+    }
+
+    private static void writeError(HttpServletResponse response, ObjectMapper objectMapper, Map<String, Object> body)
+            throws IOException {
+        response.setStatus(502);
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write(objectMapper.writeValueAsString(body));
+    }
+
+    @Override
+    public void init(WebConnection connection) {
+        trafficStats.webSocketOpened(uuid);
+        // 업그레이드된 연결은 ReadListener를 등록하지 않으면 블로킹 스트림으로 동작한다
+        executor.execute(() -> {
+            try (InputStream in = connection.getInputStream()) {
+                pump(in, upstream.getOutputStream(), null);
+            } catch (IOException e) {
+                log.debug("WebSocket client stream closed - uuid: {}: {}", uuid, e.getMessage());
+            } finally {
+                close(connection);
+            }
+        });
+        executor.execute(() -> {
+            try (OutputStream out = connection.getOutputStream()) {
+                pump(upstream.getInputStream(), out, pending);
+            } catch (IOException e) {
+                log.debug("WebSocket upstream stream closed - uuid: {}: {}", uuid, e.getMessage());
+            } finally {
+                close(connection);
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        release.run();
+        try {
+            upstream.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void pump(InputStream in, OutputStream out, byte[] initial) throws IOException {
+        if (initial != null && initial.length > 0) {
+            out.write(initial);
+            out.flush();
+        }
+        byte[] buffer = new byte[8 * 1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            out.flush();
+            trafficStats.touch(uuid);
+        }
+    }
+
+    private void close(WebConnection connection) {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        trafficStats.webSocketClosed(uuid);
+        release.run();
+        try {
+            upstream.close();
+        } catch (IOException ignored) {
+        }
+        try {
+            connection.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    private static String requestHead(HttpServletRequest request, URI target, String path,
+                                      Map<String, String> forwardedHeaders) {
+        Set<String> replaced = forwardedHeaders.keySet().stream()
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        String query = request.getQueryString();
+
+        StringBuilder head = new StringBuilder();
+        head.append("GET ").append(path).append(query != null ? "?" + query : "").append(" HTTP/1.1\r\n");
+        head.append("Host: ").append(target.getHost()).append(':').append(target.getPort()).append("\r\n");
+        for (String name : Collections.list(request.getHeaderNames())) {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (lower.equals("host") || replaced.contains(lower)) {
+                continue;
+            }
+            for (String value : Collections.list(request.getHeaders(name))) {
+                head.append(name).append(": ").append(value).append("\r\n");
+            }
+        }
+        forwardedHeaders.forEach((name, value) -> head.append(name).append(": ").append(value).append("\r\n"));
+        return head.append("\r\n").toString();
+    }
+
+    /**
+     * 응답 헤더(빈 줄 전까지)를 head에 읽고, 같이 읽힌 뒤쪽 바이트(첫 프레임 등)를 돌려준다.
+     * 조금씩 보내는 업스트림도 deadline을 넘기지 않도록 읽을 때마다 남은 시간으로 소켓 제한 시간을 줄인다.
+     */
+    private static byte[] readHead(Socket socket, InputStream in, ByteArrayOutputStream head, long deadlineNanos)
+            throws IOException {
+        byte[] buffer = new byte[4096];
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        while (received.size() < MAX_HEAD_BYTES) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+            if (remainingMillis <= 0) {
+                throw new SocketTimeoutException("Upstream handshake timed out");
+            }
+            socket.setSoTimeout((int) remainingMillis);
+            int read = in.read(buffer);
+            if (read == -1) {
+                throw new IOException("Upstream closed during handshake");
+            }
+            received.write(buffer, 0, read);
+            byte[] bytes = received.toByteArray();
+            int end = indexOfBlankLine(bytes);
+            if (end >= 0) {
+                head.write(bytes, 0, end);
+                int bodyStart = end + 4;
+                byte[] leftover = new byte[bytes.length - bodyStart];
+                System.arraycopy(bytes, bodyStart, leftover, 0, leftover.length);
+                return leftover;
+            }
+        }
+        throw new IOException("Upstream handshake response too large");
+    }
+
+    private static int indexOfBlankLine(byte[] bytes) {
+        for (int i = 0; i + 3 < bytes.length; i++) {
+            if (bytes[i] == '\r' && bytes[i + 1] == '\n' && bytes[i + 2] == '\r' && bytes[i + 3] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int parseStatus(String statusLine) throws IOException {
+        String[] parts = statusLine.split(" ", 3);
+        try {
+            return Integer.parseInt(parts[1]);
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid upstream status line: " + statusLine);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.sandbox.sandbox_server.service;
+
+/**
+ * 실행 중인 샌드박스 정보
+ * @param image 컨테이너가 사용하는 이미지 (같은 내용의 프로젝트끼리 공유)
+ * @param mode 실행 모드 (DEV면 작업 디렉토리가 컨테이너에 마운트되어 있음)
+ */
+public record ActiveSandbox(String containerName, String framework, int port, String image, RunMode mode) {
+}
@@ -0,0 +1,505 @@
+package com.sandbox.sandbox_server.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 빌드 의존성(Maven, Gradle, npm, PyPI) 캐싱 프록시
+ * 캐시 파일은 "저장소/경로"의 sha256 값을 파일명으로 저장하므로
+ * 채워진 캐시 디렉토리를 그대로 복사해 오프라인 서버를 미리 준비할 수 있다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ArtifactCacheService {
+
+    // 저장소 이름 -> 업스트림 주소
+    private static final Map<String, String> UPSTREAMS = Map.of(
+            "maven", "https://repo.maven.apache.org/maven2/",
+            "gradle-plugins", "https://plugins.gradle.org/m2/",
+            "gradle-dist", "https://services.gradle.org/distributions/",
+            "npm", "https://registry.npmjs.org/",
+            "pypi", "https://pypi.org/",
+            "pypi-files", "https://files.pythonhosted.org/"
+    );
+
+    private static final String NPM_METADATA_ACCEPT =
+            "application/vnd.npm.install-v1+json; q=1.0, application/json; q=0.8";
+
+    private final MeterRegistry meterRegistry;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    // 캐시 키 -> 캐시 항목
+    private final ConcurrentHashMap<String, CacheEntry> index = new ConcurrentHashMap<>();
+    // 같은 항목을 동시에 내려받지 않도록 진행 중인 다운로드 공유
+    private final ConcurrentHashMap<String, CompletableFuture<CacheEntry>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Value("${sandbox.artifact-cache.dir:cache/artifacts}")
+    private Path cacheDir;
+
+    @Value("${sandbox.artifact-cache.max-size:20GB}")
+    private DataSize maxSize;
+
+    @Value("${sandbox.artifact-cache.metadata-ttl:10m}")
+    private Duration metadataTtl;
+
+    @Value("${sandbox.artifact-cache.offline:false}")
+    private boolean offline;
+
+    @Value("${sandbox.artifact-cache.public-url:http://host.docker.internal:9090/proxy}")
+    private String publicUrl;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(cacheDir.resolve("tmp"));
+
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            files.filter(Files::isRegularFile)
+                    .filter(file -> !file.getParent().endsWith("tmp"))
+                    .forEach(file -> {
+                        try {
+                            long size = Files.size(file);
+                            long lastAccess = Files.getLastModifiedTime(file).toMillis();
+                            // 재시작 전에 받은 메타데이터는 신선도를 알 수 없으므로 만료된 것으로 취급
+                            index.put(file.getFileName().toString(), new CacheEntry(file, size, 0, lastAccess));
+                            totalBytes.addAndGet(size);
+                        } catch (IOException e) {
+                            log.warn("Failed to index cached artifact: {}", file, e);
+                        }
+                    });
+        }
+
+        Gauge.builder("sandbox.artifact-cache.size", totalBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("sandbox.artifact-cache.entries", index, Map::size)
+                .register(meterRegistry);
+        Gauge.builder("sandbox.artifact-cache.hit-ratio", this, ArtifactCacheService::hitRatio)
+                .register(meterRegistry);
+
+        log.info("Artifact cache ready - dir: {}, entries: {}, size: {} bytes, offline: {}",
+                cacheDir.toAbsolutePath(), index.size(), totalBytes.get(), offline);
+    }
+
+    /**
+     * 캐시된 아티팩트 조회 (없으면 업스트림에서 받아 저장)
+     * @return 업스트림에도 없거나 오프라인 모드에서 캐시에 없으면 empty
+     */
+    public Optional<CachedArtifact> fetch(String repository, String path) throws IOException {
+        String upstream = UPSTREAMS.get(repository);
+        if (upstream == null || path.isEmpty() || path.contains("..")) {
+            return Optional.empty();
+        }
+
+        String key = cacheKey(repository, path);
+        boolean metadata = isMetadata(repository, path);
+        CacheEntry entry = index.get(key);
+
+        if (entry != null && (!metadata || offline || entry.isFresh(metadataTtl))) {
+            CachedArtifact artifact = open(key, entry, repository, path, metadata);
+            if (artifact != null) {
+                record(repository, "hit");
+                return Optional.of(artifact);
+            }
+            // 조회와 고정 사이에 정리됨 -> 다시 받음
+            entry = null;
+        }
+
+        if (offline) {
+            record(repository, "miss");
+            log.debug("Offline cache miss - {}/{}", repository, path);
+            return Optional.empty();
+        }
+
+        try {
+            CacheEntry downloaded = download(key, repository, upstream + path, path);
+            record(repository, "miss");
+            if (downloaded == null) {
+                return Optional.empty();
+            }
+            CachedArtifact artifact = open(key, downloaded, repository, path, metadata);
+            if (artifact == null) {
+                throw new IOException("Artifact evicted before it could be served: " + repository + "/" + path);
+            }
+            return Optional.of(artifact);
+        } catch (IOException e) {
+            CachedArtifact stale = entry != null ? open(key, entry, repository, path, metadata) : null;
+            if (stale != null) {
+                // 업스트림 장애 시 만료된 메타데이터라도 제공
+                log.warn("Upstream failed, serving stale entry - {}/{}: {}", repository, path, e.getMessage());
+                record(repository, "stale");
+                return Optional.of(stale);
+            }
+            record(repository, "error");
+            throw e;
+        }
+    }
+
+    /**
+     * 캐시 통계
+     */
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "entries", index.size(),
+                "sizeBytes", totalBytes.get(),
+                "maxSizeBytes", maxSize.toBytes(),
+                "hits", hits.get(),
+                "misses", misses.get(),
+                "hitRatio", hitRatio(),
+                "offline", offline
+        );
+    }
+
+    private CacheEntry download(String key, String repository, String url, String path) throws IOException {
+        CompletableFuture<CacheEntry> future = new CompletableFuture<>();
+        CompletableFuture<CacheEntry> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            CacheEntry entry = doDownload(key, repository, url);
+            future.complete(entry);
+            return entry;
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            IOException ioe = new IOException("Download interrupted: " + path, e);
+            future.completeExceptionally(ioe);
+            throw ioe;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private CacheEntry doDownload(String key, String repository, String url) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMinutes(5))
+                .GET();
+        if ("npm".equals(repository)) {
+            request.header("Accept", NPM_METADATA_ACCEPT);
+        }
+
+        Path tmpFile = Files.createTempFile(cacheDir.resolve("tmp"), key, ".part");
+        try {
+            HttpResponse<Path> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofFile(tmpFile));
+
+            if (response.statusCode() == 404 || response.statusCode() == 410) {
+                return null;
+            }
+            if (response.statusCode() / 100 != 2) {
+                throw new IOException("Upstream returned " + response.statusCode() + ": " + url);
+            }
+
+            Path target = cacheDir.resolve(key.substring(0, 2)).resolve(key);
+            Files.createDirectories(target.getParent());
+            Files.move(tmpFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            long now = System.currentTimeMillis();
+            CacheEntry entry = new CacheEntry(target, Files.size(target), now, now);
+            CacheEntry previous = index.put(key, entry);
+            totalBytes.addAndGet(entry.size - (previous != null ? previous.size : 0));
+
+            log.debug("Cached artifact - {} ({} bytes)", url, entry.size);
+            evictIfNeeded();
+            return entry;
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    private CacheEntry await(CompletableFuture<CacheEntry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for download", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioe) {
+                throw ioe;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * 캐시 용량 초과 시 가장 오래 사용되지 않은 항목부터 삭제 (용량의 90%까지)
+     * 응답으로 전송 중인(고정된) 항목은 건너뛴다.
+     */
+    private synchronized void evictIfNeeded() {
+        long limit = maxSize.toBytes();
+        if (totalBytes.get() <= limit) {
+            return;
+        }
+
+        long target = limit / 10 * 9;
+        List<Map.Entry<String, CacheEntry>> entries = new ArrayList<>(index.entrySet());
+        entries.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+
+        long reclaimed = 0;
+        int evicted = 0;
+        int pinned = 0;
+        for (Map.Entry<String, CacheEntry> e : entries) {
+            if (totalBytes.get() <= target) {
+                break;
+            }
+            if (e.getValue().readers > 0) {
+                pinned++;
+                continue;
+            }
+            if (!index.remove(e.getKey(), e.getValue())) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(e.getValue().file);
+            } catch (IOException ex) {
+                log.warn("Failed to delete evicted artifact: {}", e.getValue().file, ex);
+            }
+            totalBytes.addAndGet(-e.getValue().size);
+            reclaimed += e.getValue().size;
+            evicted++;
+        }
+
+        Counter.builder("sandbox.artifact-cache.evictions").register(meterRegistry).increment(evicted);
+        log.info("Artifact cache eviction - removed {} entries, reclaimed {} bytes, skipped {} in use",
+                evicted, reclaimed, pinned);
+    }
+
+    private CacheEntry touch(CacheEntry entry) {
+        long now = System.currentTimeMillis();
+        entry.lastAccess = now;
+        try {
+            Files.setLastModifiedTime(entry.file, FileTime.fromMillis(now));
+        } catch (IOException e) {
+            log.debug("Failed to update access time: {}", entry.file);
+        }
+        return entry;
+    }
+
+    /**
+     * 항목을 고정하고 파일을 연다 (정리와 같은 락 안에서 고정하므로, 고정된 뒤에는 삭제되지 않음)
+     * @return 이미 정리된 항목이면 null
+     */
+    private CachedArtifact open(String key, CacheEntry entry, String repository, String path, boolean metadata)
+            throws IOException {
+        synchronized (this) {
+            if (index.get(key) != entry) {
+                return null;
+            }
+            entry.readers++;
+        }
+
+        try {
+            InputStream in = Files.newInputStream(entry.file);
+            touch(entry);
+            // 메타데이터 안의 다운로드 주소를 프록시 주소로 변경 (전송하면서 치환)
+            String[] rewrite = switch (metadata ? repository : "") {
+                case "npm" -> new String[]{UPSTREAMS.get("npm"), publicUrl + "/npm/"};
+                case "pypi" -> new String[]{UPSTREAMS.get("pypi-files"), publicUrl + "/pypi-files/"};
+                default -> null;
+            };
+            return new CachedArtifact(this, entry, in, contentType(repository, path, metadata),
+                    rewrite != null ? -1 : entry.size, rewrite);
+        } catch (IOException e) {
+            release(entry);
+            throw e;
+        }
+    }
+
+    private synchronized void release(CacheEntry entry) {
+        entry.readers--;
+    }
+
+    private boolean isMetadata(String repository, String path) {
+        return switch (repository) {
+            case "npm" -> !path.endsWith(".tgz");
+            case "pypi" -> path.startsWith("simple/");
+            case "maven", "gradle-plugins" -> path.contains("maven-metadata.xml");
+            default -> false;
+        };
+    }
+
+    private String contentType(String repository, String path, boolean metadata) {
+        if (metadata && "npm".equals(repository)) {
+            return "application/json";
+        }
+        if (metadata && "pypi".equals(repository)) {
+            return "text/html";
+        }
+        if (path.endsWith(".xml") || path.endsWith(".pom")) {
+            return "application/xml";
+        }
+        return "application/octet-stream";
+    }
+
+    private void record(String repository, String result) {
+        if ("hit".equals(result) || "stale".equals(result)) {
+            hits.incrementAndGet();
+        } else if ("miss".equals(result)) {
+            misses.incrementAndGet();
+        }
+        Counter.builder("sandbox.artifact-cache.requests")
+                .tag("repository", repository)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private double hitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    private static String cacheKey(String repository, String path) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest((repository + "/" + path).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 캐시 조회 결과 (열린 파일, 닫을 때까지 정리 대상에서 제외)
+     * 메타데이터는 다운로드 주소를 프록시 주소로 바꾸면서 조금씩 전송하므로 길이를 알 수 없다 (-1).
+     */
+    public static final class CachedArtifact implements Closeable {
+
+        private static final int CHUNK_CHARS = 8192;
+
+        private final ArtifactCacheService owner;
+        private final CacheEntry entry;
+        private final InputStream in;
+        private final String contentType;
+        private final long contentLength;
+        private final String[] rewrite;
+        private boolean closed;
+
+        private CachedArtifact(ArtifactCacheService owner, CacheEntry entry, InputStream in, String contentType,
+                               long contentLength, String[] rewrite) {
+            this.owner = owner;
+            this.entry = entry;
+            this.in = in;
+            this.contentType = contentType;
+            this.contentLength = contentLength;
+            this.rewrite = rewrite;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public long contentLength() {
+            return contentLength;
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            if (rewrite == null) {
+                in.transferTo(out);
+                return;
+            }
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            replace(new InputStreamReader(in, StandardCharsets.UTF_8), writer, rewrite[0], rewrite[1]);
+            writer.flush();
+        }
+
+        /**
+         * 청크 단위 치환 (청크 경계에 걸친 문자열을 위해 마지막 needle 길이 - 1 글자는 다음 청크로 넘김)
+         */
+        static void replace(Reader reader, Writer writer, String needle, String replacement) throws IOException {
+            char[] buffer = new char[CHUNK_CHARS];
+            String carry = "";
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                String text = carry + new String(buffer, 0, read);
+                int position = 0;
+                int match;
+                while ((match = text.indexOf(needle, position)) >= 0) {
+                    writer.write(text, position, match - position);
+                    writer.write(replacement);
+                    position = match + needle.length();
+                }
+                int keep = Math.max(position, text.length() - (needle.length() - 1));
+                writer.write(text, position, keep - position);
+                carry = text.substring(keep);
+            }
+            writer.write(carry);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                in.close();
+            } finally {
+                owner.release(entry);
+            }
+        }
+    }
+
+    private static final class CacheEntry {
+        private final Path file;
+        private final long size;
+        private final long fetchedAt;
+        private volatile long lastAccess;
+        // 전송 중인 응답 수 (정리 락 안에서만 변경)
+        private int readers;
+
+        private CacheEntry(Path file, long size, long fetchedAt, long lastAccess) {
+            this.file = file;
+            this.size = size;
+            this.fetchedAt = fetchedAt;
+            this.lastAccess = lastAccess;
+        }
+
+        private boolean isFresh(Duration ttl) {
+            return System.currentTimeMillis() - fetchedAt < ttl.toMillis();
+        }
+    }
+}
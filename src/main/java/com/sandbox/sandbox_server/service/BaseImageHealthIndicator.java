@@ -0,0 +1,23 @@
+package com.sandbox.sandbox_server.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * 베이스 이미지 워밍업 상태 (/actuator/health/readiness 에 포함)
+ * 워밍업 중이면 OUT_OF_SERVICE, 끝나면 일부 이미지를 확인하지 못했어도 UP (고정되지 않은 태그로 빌드 가능)
+ */
+@Component("baseImages")
+@RequiredArgsConstructor
+public class BaseImageHealthIndicator implements HealthIndicator {
+
+    private final BaseImageService baseImageService;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = baseImageService.isWarmedUp() ? Health.up() : Health.outOfService();
+        return builder.withDetails(baseImageService.describe()).build();
+    }
+}
@@ -0,0 +1,253 @@
+package com.sandbox.sandbox_server.service;
+
+import com.sandbox.sandbox_server.util.DockerfileUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 베이스 이미지 미리 받기 및 다이제스트 고정
+ * 서버가 뜨면 템플릿의 베이스 이미지를 백그라운드에서 pull 하고 RepoDigests로 다이제스트를 확인한다.
+ * 생성되는 Dockerfile은 이 다이제스트로 FROM을 고정하므로, 업스트림 태그가 갱신되어도 주기적 갱신 전까지는
+ * 같은 베이스 위에서 캐시된 레이어를 그대로 쓴다. 빌드는 워밍업이 끝날 때까지 (최대 warmup-wait) 기다린다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BaseImageService {
+
+    private final ProcessRunner processRunner;
+    private final MeterRegistry meterRegistry;
+
+    // 이미지 -> 마지막 확인 결과
+    private final ConcurrentHashMap<String, BaseImage> images = new ConcurrentHashMap<>();
+    private final CompletableFuture<Void> warmup = new CompletableFuture<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(DockerfileUtil.BASE_IMAGES.size());
+
+    @Value("${sandbox.base-images.prefetch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sandbox.base-images.pull-timeout:PT10M}")
+    private Duration pullTimeout;
+
+    // 빌드가 워밍업 완료를 기다리는 최대 시간 (넘으면 고정되지 않은 태그로 빌드)
+    @Value("${sandbox.base-images.warmup-wait:PT2M}")
+    private Duration warmupWait;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prefetchOnStartup() {
+        if (!enabled) {
+            log.info("Base image prefetch disabled");
+            warmup.complete(null);
+            return;
+        }
+
+        log.info("Prefetching base images: {}", DockerfileUtil.BASE_IMAGES);
+        long startNanos = System.nanoTime();
+        refreshAll().whenComplete((ignored, error) -> {
+            warmup.complete(null);
+            log.info("Base image warmup completed in {} ms - pinned: {}/{}",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                    pinnedDigests().size(), DockerfileUtil.BASE_IMAGES.size());
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${sandbox.base-images.refresh-interval:PT6H}",
+            initialDelayString = "${sandbox.base-images.refresh-interval:PT6H}")
+    public void scheduledRefresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            refreshAll().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Base image refresh failed: {}", e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * 모든 베이스 이미지를 병렬로 pull 하고 다이제스트 갱신
+     */
+    public CompletableFuture<Void> refreshAll() {
+        return CompletableFuture.allOf(DockerfileUtil.BASE_IMAGES.stream()
+                .map(image -> CompletableFuture.runAsync(() -> refresh(image), executor))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * pull 후 로컬 이미지의 다이제스트 확인
+     * pull이 실패해도 (오프라인 등) 로컬에 이미지가 있으면 그 다이제스트로 고정한다.
+     */
+    void refresh(String image) {
+        long startNanos = System.nanoTime();
+        String pullError = null;
+        try {
+            ProcessRunner.CommandResult pull = processRunner.run(pullTimeout.toSeconds(), "docker", "pull", "-q", image);
+            if (!pull.isSuccess()) {
+                pullError = lastLine(pull.output());
+            }
+        } catch (Exception e) {
+            pullError = e.getMessage();
+        }
+        String result = pullError == null ? "pulled" : "failed";
+        meterRegistry.timer("sandbox.base-images.pull", "image", image, "result", result)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+
+        String digest = null;
+        String error = pullError;
+        try {
+            digest = inspectDigest(image);
+            if (digest == null && error == null) {
+                error = "No repo digest";
+            }
+        } catch (Exception e) {
+            error = e.getMessage();
+        }
+
+        BaseImage previous = images.get(image);
+        if (digest == null && previous != null && previous.digest() != null) {
+            // 확인에 실패하면 마지막으로 확인된 다이제스트를 유지
+            digest = previous.digest();
+        }
+        images.put(image, new BaseImage(image, digest, Instant.now(), error));
+
+        if (previous != null && previous.digest() != null && digest != null && !digest.equals(previous.digest())) {
+            meterRegistry.counter("sandbox.base-images.updated", "image", image).increment();
+            log.info("Base image updated - {}: {} -> {}", image, previous.digest(), digest);
+        }
+        if (error != null) {
+            log.warn("Base image {} - pull/inspect failed: {} (digest: {})", image, error, digest);
+        } else {
+            log.info("Base image {} resolved to {}", image, digest);
+        }
+    }
+
+    /**
+     * 고정에 쓸 다이제스트 (확인된 이미지만)
+     */
+    public Map<String, String> pinnedDigests() {
+        Map<String, String> pinned = new LinkedHashMap<>();
+        for (String image : DockerfileUtil.BASE_IMAGES) {
+            BaseImage state = images.get(image);
+            if (state != null && state.digest() != null) {
+                pinned.put(image, state.digest());
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * 워밍업 완료까지 대기 (최대 warmup-wait)
+     * @return 워밍업 완료 여부 (시간 초과면 false, 빌드는 그대로 진행)
+     */
+    public boolean awaitWarmup() {
+        if (warmup.isDone()) {
+            return true;
+        }
+        try {
+            log.info("Waiting for base image warmup before build...");
+            warmup.get(warmupWait.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            log.warn("Base image warmup not finished within {}, building with floating tags", warmupWait);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+
+    public boolean isWarmedUp() {
+        return warmup.isDone();
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("warmedUp", isWarmedUp());
+        body.put("prefetchEnabled", enabled);
+
+        List<Map<String, Object>> entries = DockerfileUtil.BASE_IMAGES.stream().map(image -> {
+            BaseImage state = images.get(image);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("image", image);
+            entry.put("digest", state != null ? state.digest() : null);
+            entry.put("checkedAt", state != null ? state.checkedAt().toString() : null);
+            if (state != null && state.error() != null) {
+                entry.put("error", state.error());
+            }
+            return entry;
+        }).toList();
+        body.put("images", entries);
+        return body;
+    }
+
+    /**
+     * RepoDigests에서 이미지 저장소의 다이제스트 (sha256:...)
+     * 로컬에서만 빌드된 이미지는 RepoDigests가 비어 있어 null
+     */
+    private String inspectDigest(String image) throws Exception {
+        ProcessRunner.CommandResult result = processRunner.run(30, "docker", "image", "inspect", "--format",
+                "{{range .RepoDigests}}{{.}} {{end}}", image);
+        if (!result.isSuccess()) {
+            throw new IllegalStateException(lastLine(result.output()));
+        }
+
+        String repository = image.contains(":") ? image.substring(0, image.lastIndexOf(':')) : image;
+        String fallback = null;
+        for (String repoDigest : result.output().trim().split("\\s+")) {
+            int at = repoDigest.indexOf('@');
+            if (at < 0) {
+                continue;
+            }
+            String name = repoDigest.substring(0, at);
+            if (name.equals(repository) || name.endsWith("/" + repository)) {
+                return repoDigest.substring(at + 1);
+            }
+            if (fallback == null) {
+                fallback = repoDigest.substring(at + 1);
+            }
+        }
+        return fallback;
+    }
+
+    private static String lastLine(String output) {
+        String trimmed = output.trim();
+        int newline = trimmed.lastIndexOf('\n');
+        return newline >= 0 ? trimmed.substring(newline + 1) : trimmed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param digest 확인된 다이제스트 (한 번도 확인하지 못했으면 null)
+     * @param error 마지막 pull/inspect 실패 메시지
+     */
+    private record BaseImage(String image, String digest, Instant checkedAt, String error) {
+    }
+}
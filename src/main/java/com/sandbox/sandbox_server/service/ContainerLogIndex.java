@@ -0,0 +1,333 @@
+package com.sandbox.sandbox_server.service;
+
+import com.sandbox.sandbox_server.util.LogLevel;
+import com.sandbox.sandbox_server.util.LogLineParser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 컨테이너 하나의 로그를 메모리에 보관하는 증분 인덱스
+ * 각 줄에는 증가하는 순번(seq)이 붙고, 시각 범위는 이진 탐색으로,
+ * 레벨은 레벨별 순번 목록으로 찾기 때문에 조회 시 전체를 다시 훑지 않는다.
+ * 보관 용량을 넘으면 오래된 줄부터 버린다.
+ * 조회는 잠금 안에서 후보 줄만 복사하고 메시지 조건(정규식 등)은 잠금 밖에서 검사해, 느린 조회가 로그 수집을 막지 않는다.
+ */
+public class ContainerLogIndex {
+
+    // 줄마다 객체/배열 슬롯 등에 드는 대략적인 오버헤드
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+    // 한 번의 조회에서 검사하는 최대 줄 수 (초과 시 커서로 이어서 조회)
+    private static final int MAX_SCAN = 200_000;
+
+    private final long maxBytes;
+
+    private LogEntry[] ring = new LogEntry[1024];
+    private int head;
+    private int size;
+    private long firstSeq;
+    private long usedBytes;
+    private long droppedEntries;
+
+    private long lastTimestamp;
+    private LogLevel lastLevel = LogLevel.UNKNOWN;
+
+    // 레벨별 순번 목록 (UNKNOWN 포함)
+    private final SeqList[] byLevel = new SeqList[LogLevel.values().length];
+
+    public ContainerLogIndex(long maxBytes) {
+        this.maxBytes = maxBytes;
+        for (int i = 0; i < byLevel.length; i++) {
+            byLevel[i] = new SeqList();
+        }
+    }
+
+    /**
+     * docker logs --timestamps 출력 한 줄 추가
+     */
+    public synchronized void append(String line) {
+        long timestamp = LogLineParser.parseTimestamp(line);
+        String message = LogLineParser.stripTimestamp(line);
+        LogLevel level = LogLineParser.parseLevel(message, lastLevel);
+
+        // stdout/stderr가 섞이며 생기는 미세한 역전은 이진 탐색을 위해 단조 증가로 보정
+        timestamp = Math.max(timestamp >= 0 ? timestamp : System.currentTimeMillis(), lastTimestamp);
+        lastTimestamp = timestamp;
+        lastLevel = level;
+
+        long seq = firstSeq + size;
+        LogEntry entry = new LogEntry(seq, timestamp, level, message);
+
+        if (size == ring.length) {
+            grow();
+        }
+        ring[(head + size) % ring.length] = entry;
+        size++;
+        byLevel[level.ordinal()].add(seq);
+        usedBytes += sizeOf(entry);
+
+        while (usedBytes > maxBytes && size > 1) {
+            evictOldest();
+        }
+    }
+
+    public Result search(Query query) {
+        Candidates candidates = candidates(query);
+
+        List<LogEntry> matches = new ArrayList<>();
+        int scanned = 0;
+        long lastSeq = -1;
+        for (LogEntry entry : candidates.entries()) {
+            scanned++;
+            lastSeq = entry.seq();
+
+            if (query.text() == null || query.text().test(entry.message())) {
+                matches.add(entry);
+                if (matches.size() >= query.limit()) {
+                    break;
+                }
+            }
+        }
+
+        boolean more = lastSeq >= 0 && (scanned < candidates.entries().size() || candidates.more());
+        return new Result(
+                matches,
+                more ? lastSeq + 1 : null,
+                scanned,
+                candidates.truncated(),
+                candidates.indexedEntries(),
+                candidates.droppedEntries()
+        );
+    }
+
+    /**
+     * 조회 범위의 후보 줄 복사 (메시지 조건이 없으면 limit개, 있으면 최대 MAX_SCAN개)
+     */
+    private synchronized Candidates candidates(Query query) {
+        long endSeq = firstSeq + size;
+        long startSeq = Math.max(firstSeq, query.cursor());
+        if (query.from() != null) {
+            startSeq = Math.max(startSeq, seqAtOrAfter(query.from()));
+        }
+        if (query.to() != null) {
+            endSeq = Math.min(endSeq, seqAtOrAfter(query.to() + 1));
+        }
+
+        SeqCursor cursor = query.minLevel() != null
+                ? levelCursor(query.minLevel(), startSeq, endSeq)
+                : rangeCursor(startSeq, endSeq);
+
+        int max = query.text() == null ? Math.min(query.limit(), MAX_SCAN) : MAX_SCAN;
+        List<LogEntry> entries = new ArrayList<>(Math.min(max, size));
+        long seq;
+        while (entries.size() < max && (seq = cursor.next()) >= 0) {
+            entries.add(get(seq));
+        }
+
+        return new Candidates(
+                entries,
+                cursor.hasMore(),
+                query.cursor() > 0 && query.cursor() < firstSeq,
+                size,
+                droppedEntries
+        );
+    }
+
+    /**
+     * 다음에 추가될 줄의 순번
+     */
+    public synchronized long nextSeq() {
+        return firstSeq + size;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    private LogEntry get(long seq) {
+        return ring[(int) ((head + (seq - firstSeq)) % ring.length)];
+    }
+
+    /**
+     * 주어진 시각 이후 첫 줄의 순번 (없으면 다음에 추가될 순번)
+     */
+    private long seqAtOrAfter(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ring[(head + mid) % ring.length].timestamp() < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return firstSeq + low;
+    }
+
+    private SeqCursor rangeCursor(long startSeq, long endSeq) {
+        return new SeqCursor() {
+            private long next = startSeq;
+
+            @Override
+            public long next() {
+                return next < endSeq ? next++ : -1;
+            }
+
+            @Override
+            public boolean hasMore() {
+                return next < endSeq;
+            }
+        };
+    }
+
+    /**
+     * minLevel 이상 레벨 목록들을 순번 순으로 병합
+     */
+    private SeqCursor levelCursor(LogLevel minLevel, long startSeq, long endSeq) {
+        List<SeqList> lists = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (LogLevel level : LogLevel.values()) {
+            if (level != LogLevel.UNKNOWN && level.ordinal() >= minLevel.ordinal()) {
+                SeqList list = byLevel[level.ordinal()];
+                lists.add(list);
+                positions.add(list.indexAtOrAfter(startSeq));
+            }
+        }
+
+        return new SeqCursor() {
+            @Override
+            public long next() {
+                int best = -1;
+                long bestSeq = Long.MAX_VALUE;
+                for (int i = 0; i < lists.size(); i++) {
+                    int pos = positions.get(i);
+                    if (pos < lists.get(i).size()) {
+                        long seq = lists.get(i).get(pos);
+                        if (seq < endSeq && seq < bestSeq) {
+                            best = i;
+                            bestSeq = seq;
+                        }
+                    }
+                }
+                if (best < 0) {
+                    return -1;
+                }
+                positions.set(best, positions.get(best) + 1);
+                return bestSeq;
+            }
+
+            @Override
+            public boolean hasMore() {
+                for (int i = 0; i < lists.size(); i++) {
+                    int pos = positions.get(i);
+                    if (pos < lists.get(i).size() && lists.get(i).get(pos) < endSeq) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    private void evictOldest() {
+        LogEntry entry = ring[head];
+        ring[head] = null;
+        head = (head + 1) % ring.length;
+        size--;
+        firstSeq++;
+        usedBytes -= sizeOf(entry);
+        droppedEntries++;
+        byLevel[entry.level().ordinal()].removeFirst();
+    }
+
+    private void grow() {
+        LogEntry[] grown = new LogEntry[ring.length * 2];
+        for (int i = 0; i < size; i++) {
+            grown[i] = ring[(head + i) % ring.length];
+        }
+        ring = grown;
+        head = 0;
+    }
+
+    private static long sizeOf(LogEntry entry) {
+        return ENTRY_OVERHEAD_BYTES + 2L * entry.message().length();
+    }
+
+    /**
+     * @param cursor 이 순번부터 조회 (이전 결과의 nextCursor)
+     * @param minLevel 이 레벨 이상만 (null이면 전체)
+     * @param text 메시지 조건 (null이면 전체)
+     */
+    public record Query(Long from, Long to, LogLevel minLevel, Predicate<String> text, long cursor, int limit) {
+    }
+
+    /**
+     * @param nextCursor 다음 페이지 커서 (마지막이면 null)
+     * @param truncated 커서 위치의 로그가 이미 용량 초과로 버려졌는지 여부
+     */
+    public record Result(List<LogEntry> entries, Long nextCursor, int scanned, boolean truncated,
+                         int indexedEntries, long droppedEntries) {
+    }
+
+    public record LogEntry(long seq, long timestamp, LogLevel level, String message) {
+    }
+
+    private record Candidates(List<LogEntry> entries, boolean more, boolean truncated,
+                              int indexedEntries, long droppedEntries) {
+    }
+
+    private interface SeqCursor {
+        long next();
+
+        boolean hasMore();
+    }
+
+    /**
+     * 앞에서 제거 가능한 증가 순번 목록 (long 배열 기반)
+     */
+    private static final class SeqList {
+        private long[] values = new long[256];
+        private int start;
+        private int end;
+
+        void add(long seq) {
+            if (end == values.length) {
+                if (start > values.length / 2) {
+                    System.arraycopy(values, start, values, 0, end - start);
+                } else {
+                    values = Arrays.copyOf(values, values.length * 2);
+                    System.arraycopy(values, start, values, 0, end - start);
+                }
+                end -= start;
+                start = 0;
+            }
+            values[end++] = seq;
+        }
+
+        void removeFirst() {
+            if (start < end) {
+                start++;
+            }
+        }
+
+        int size() {
+            return end - start;
+        }
+
+        long get(int index) {
+            return values[start + index];
+        }
+
+        int indexAtOrAfter(long seq) {
+            int index = Arrays.binarySearch(values, start, end, seq);
+            return (index >= 0 ? index : -index - 1) - start;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.sandbox.sandbox_server.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 컨테이너 하나의 리소스 사용량 시계열
+ * 필드별 원시 타입 배열로 된 고정 크기 링 버퍼라서 샘플마다 객체를 만들지 않고, 가득 차면 오래된 샘플부터 덮어쓴다.
+ * 네트워크/블록 I/O는 docker stats가 주는 컨테이너 시작 이후 누적값 그대로 보관한다.
+ */
+public class ContainerResourceSeries {
+
+    private final long[] timestamps;
+    private final float[] cpuPercent;
+    private final long[] memoryBytes;
+    private final long[] netRxBytes;
+    private final long[] netTxBytes;
+    private final long[] blockReadBytes;
+    private final long[] blockWriteBytes;
+    private final int[] pids;
+
+    private int head;
+    private int size;
+    private long memoryLimitBytes;
+    private long memoryMaxBytes;
+    private double cpuMaxPercent;
+
+    public ContainerResourceSeries(int capacity) {
+        timestamps = new long[capacity];
+        cpuPercent = new float[capacity];
+        memoryBytes = new long[capacity];
+        netRxBytes = new long[capacity];
+        netTxBytes = new long[capacity];
+        blockReadBytes = new long[capacity];
+        blockWriteBytes = new long[capacity];
+        pids = new int[capacity];
+    }
+
+    public synchronized void add(Sample sample) {
+        int slot = (head + size) % timestamps.length;
+        if (size == timestamps.length) {
+            head = (head + 1) % timestamps.length;
+        } else {
+            size++;
+        }
+
+        timestamps[slot] = sample.timestamp();
+        cpuPercent[slot] = (float) sample.cpuPercent();
+        memoryBytes[slot] = sample.memoryBytes();
+        netRxBytes[slot] = sample.netRxBytes();
+        netTxBytes[slot] = sample.netTxBytes();
+        blockReadBytes[slot] = sample.blockReadBytes();
+        blockWriteBytes[slot] = sample.blockWriteBytes();
+        pids[slot] = sample.pids();
+
+        if (sample.memoryLimitBytes() > 0) {
+            memoryLimitBytes = sample.memoryLimitBytes();
+        }
+        // 최댓값은 링 버퍼에서 밀려난 샘플까지 포함 (컨테이너 수명 전체)
+        memoryMaxBytes = Math.max(memoryMaxBytes, sample.memoryBytes());
+        cpuMaxPercent = Math.max(cpuMaxPercent, sample.cpuPercent());
+    }
+
+    /**
+     * sinceMillis(epoch ms) 이후 샘플을 시간순으로
+     */
+    public synchronized List<Sample> samples(long sinceMillis) {
+        List<Sample> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) % timestamps.length;
+            if (timestamps[slot] >= sinceMillis) {
+                result.add(sampleAt(slot));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return 샘플이 없으면 null
+     */
+    public synchronized Sample latest() {
+        return size == 0 ? null : sampleAt((head + size - 1) % timestamps.length);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 보관 중인 샘플의 CPU/메모리 분포 (최댓값은 컨테이너 수명 전체 기준)
+     */
+    public synchronized Summary summary() {
+        double[] cpu = new double[size];
+        long[] memory = new long[size];
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) % timestamps.length;
+            cpu[i] = cpuPercent[slot];
+            memory[i] = memoryBytes[slot];
+        }
+        Arrays.sort(cpu);
+        Arrays.sort(memory);
+
+        return new Summary(
+                size,
+                percentile(cpu, 0.50),
+                percentile(cpu, 0.95),
+                cpuMaxPercent,
+                percentile(memory, 0.50),
+                percentile(memory, 0.95),
+                memoryMaxBytes,
+                memoryLimitBytes
+        );
+    }
+
+    private Sample sampleAt(int slot) {
+        return new Sample(timestamps[slot], cpuPercent[slot], memoryBytes[slot], memoryLimitBytes,
+                netRxBytes[slot], netTxBytes[slot], blockReadBytes[slot], blockWriteBytes[slot], pids[slot]);
+    }
+
+    static double percentile(double[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    /**
+     * @param cpuPercent 코어 하나를 100%로 본 사용률 (docker stats CPUPerc)
+     */
+    public record Sample(long timestamp, double cpuPercent, long memoryBytes, long memoryLimitBytes,
+                         long netRxBytes, long netTxBytes, long blockReadBytes, long blockWriteBytes, int pids) {
+    }
+
+    public record Summary(int samples, double cpuP50Percent, double cpuP95Percent, double cpuMaxPercent,
+                          long memoryP50Bytes, long memoryP95Bytes, long memoryMaxBytes, long memoryLimitBytes) {
+    }
+}
@@ -0,0 +1,346 @@
+package com.sandbox.sandbox_server.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sandbox.sandbox_server.util.DockerSizeParser;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * 컨테이너 리소스 사용량 수집 및 리소스 한도 추천
+ * 요청마다 docker stats를 부르지 않고, docker stats 스트림 하나로 모든 컨테이너의 샘플(약 1초 간격)을 받아
+ * 실행 중인 샌드박스별 ContainerResourceSeries에 쌓는다.
+ * 중지된 샌드박스는 요약만 프레임워크별로 남겨 추천 계산에 쓴다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContainerStatsService {
+
+    private static final String CONTAINER_PREFIX = "sandbox-";
+    // 스트림이 화면을 갱신할 때마다 출력하는 ANSI 제어 문자 (화면 지우기, 커서 이동)
+    private static final Pattern ANSI_ESCAPE = Pattern.compile("\u001B\\[[;?0-9]*[A-Za-z]");
+
+    // build_and_run.sh의 --cpus 값 (docker stats에는 CPU 한도가 나오지 않음)
+    private static final double SCRIPT_CPU_LIMIT = 2.0;
+    private static final long MEMORY_STEP_BYTES = 64L * 1024 * 1024;
+    private static final long MIN_MEMORY_BYTES = 128L * 1024 * 1024;
+    private static final double CPU_STEP = 0.25;
+    // 추천을 믿을 만하다고 보는 최소 컨테이너 수
+    private static final int MIN_CONTAINERS = 5;
+
+    private final ProcessRunner processRunner;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    private final ExecutorService reader = Executors.newSingleThreadExecutor();
+
+    // uuid -> 실행 중인 샌드박스 시계열
+    private final ConcurrentHashMap<String, Tracked> tracked = new ConcurrentHashMap<>();
+    // 프레임워크 -> 중지된 샌드박스 요약 (최근 것부터 historyPerFramework개)
+    private final ConcurrentHashMap<String, Deque<ContainerResourceSeries.Summary>> history = new ConcurrentHashMap<>();
+
+    private volatile Process stream;
+
+    @Value("${sandbox.stats.enabled:true}")
+    private boolean enabled;
+
+    // 컨테이너별 보관 샘플 수 (약 1초 간격)
+    @Value("${sandbox.stats.retention-samples:900}")
+    private int retentionSamples;
+
+    @Value("${sandbox.stats.history-per-framework:200}")
+    private int historyPerFramework;
+
+    // 추천 한도 = 관측치 p95 x headroom
+    @Value("${sandbox.stats.headroom:1.3}")
+    private double headroom;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("sandbox.container.stats.tracked", tracked, Map::size)
+                .description("Sandboxes with resource telemetry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 샌드박스 추적 시작 (컨테이너 실행 직후)
+     */
+    public void track(String uuid, String framework) {
+        tracked.put(uuid, new Tracked(framework, new ContainerResourceSeries(retentionSamples)));
+    }
+
+    /**
+     * 샌드박스 추적 종료, 요약은 프레임워크별 이력으로 보관
+     */
+    public void forget(String uuid) {
+        Tracked removed = tracked.remove(uuid);
+        if (removed == null || removed.series().size() == 0) {
+            return;
+        }
+
+        Deque<ContainerResourceSeries.Summary> summaries =
+                history.computeIfAbsent(removed.framework(), key -> new ArrayDeque<>());
+        synchronized (summaries) {
+            summaries.addFirst(removed.series().summary());
+            while (summaries.size() > historyPerFramework) {
+                summaries.removeLast();
+            }
+        }
+    }
+
+    /**
+     * docker stats 스트림이 없거나 끝났으면 (재)시작
+     */
+    @Scheduled(fixedDelay = 30000)
+    public void ensureStream() {
+        if (!enabled || (stream != null && stream.isAlive())) {
+            return;
+        }
+
+        try {
+            ProcessBuilder pb = new ProcessBuilder("docker", "stats", "--format", "{{json .}}");
+            pb.redirectErrorStream(true);
+            Process process = processRunner.startStream(pb);
+            stream = process;
+            reader.submit(() -> consume(process));
+            log.info("Container stats stream started");
+        } catch (IOException e) {
+            log.warn("Failed to start container stats stream: {}", e.getMessage());
+        }
+    }
+
+    private void consume(Process process) {
+        try (BufferedReader lines = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                handleLine(line);
+            }
+        } catch (IOException e) {
+            log.debug("Container stats stream closed: {}", e.getMessage());
+        } finally {
+            log.info("Container stats stream ended");
+        }
+    }
+
+    private void handleLine(String raw) {
+        String line = ANSI_ESCAPE.matcher(raw).replaceAll("").trim();
+        if (!line.startsWith("{")) {
+            return;
+        }
+
+        try {
+            JsonNode json = objectMapper.readTree(line);
+            String name = json.path("Name").asText("");
+            if (!name.startsWith(CONTAINER_PREFIX)) {
+                return;
+            }
+            Tracked target = tracked.get(name.substring(CONTAINER_PREFIX.length()));
+            if (target == null) {
+                return;
+            }
+
+            long[] memory = pair(json.path("MemUsage").asText(""));
+            long[] net = pair(json.path("NetIO").asText(""));
+            long[] block = pair(json.path("BlockIO").asText(""));
+            ContainerResourceSeries.Sample sample = new ContainerResourceSeries.Sample(
+                    System.currentTimeMillis(),
+                    percent(json.path("CPUPerc").asText("")),
+                    memory[0], memory[1],
+                    net[0], net[1],
+                    block[0], block[1],
+                    (int) parseLong(json.path("PIDs").asText("0"))
+            );
+            target.series().add(sample);
+            record(target.framework(), sample);
+
+        } catch (IOException | RuntimeException e) {
+            log.debug("Ignoring unparsable stats line: {}", line);
+        }
+    }
+
+    private void record(String framework, ContainerResourceSeries.Sample sample) {
+        DistributionSummary.builder("sandbox.container.memory")
+                .description("Sandbox container memory usage samples")
+                .baseUnit("bytes")
+                .tag("framework", framework)
+                .register(meterRegistry)
+                .record(sample.memoryBytes());
+        DistributionSummary.builder("sandbox.container.cpu")
+                .description("Sandbox container CPU usage samples (100 = one core)")
+                .baseUnit("percent")
+                .tag("framework", framework)
+                .register(meterRegistry)
+                .record(sample.cpuPercent());
+    }
+
+    /**
+     * 실행 중인 샌드박스별 최근 샘플과 요약
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> containers = new ArrayList<>();
+        new TreeMap<>(tracked).forEach((uuid, target) -> {
+            Map<String, Object> container = new LinkedHashMap<>();
+            container.put("uuid", uuid);
+            container.put("framework", target.framework());
+            container.put("latest", target.series().latest());
+            container.put("summary", target.series().summary());
+            containers.add(container);
+        });
+        return containers;
+    }
+
+    /**
+     * 샌드박스 시계열 (추적 중이 아니면 empty)
+     * @param sinceMillis 이 시각(epoch ms) 이후 샘플만
+     */
+    public Optional<Map<String, Object>> series(String uuid, long sinceMillis) {
+        Tracked target = tracked.get(uuid);
+        if (target == null) {
+            return Optional.empty();
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("uuid", uuid);
+        body.put("framework", target.framework());
+        body.put("summary", target.series().summary());
+        body.put("samples", target.series().samples(sinceMillis));
+        return Optional.of(body);
+    }
+
+    public boolean isStreaming() {
+        Process current = stream;
+        return current != null && current.isAlive();
+    }
+
+    /**
+     * 프레임워크별 리소스 한도 추천
+     * 메모리는 초과 시 OOM으로 종료되므로 컨테이너별 최댓값, CPU는 초과해도 느려질 뿐이므로 컨테이너별 p95를 기준으로
+     * 컨테이너들 사이의 p95에 headroom을 곱해 올림한다 (메모리 64MiB, CPU 0.25코어 단위).
+     */
+    public Map<String, Object> recommendations() {
+        Map<String, List<ContainerResourceSeries.Summary>> byFramework = new TreeMap<>();
+        history.forEach((framework, summaries) -> {
+            synchronized (summaries) {
+                byFramework.computeIfAbsent(framework, key -> new ArrayList<>()).addAll(summaries);
+            }
+        });
+        tracked.values().stream()
+                .filter(target -> target.series().size() > 0)
+                .forEach(target -> byFramework.computeIfAbsent(target.framework(), key -> new ArrayList<>())
+                        .add(target.series().summary()));
+
+        Map<String, Object> frameworks = new LinkedHashMap<>();
+        byFramework.forEach((framework, summaries) -> frameworks.put(framework, recommend(summaries)));
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("headroom", headroom);
+        body.put("frameworks", frameworks);
+        return body;
+    }
+
+    private Map<String, Object> recommend(List<ContainerResourceSeries.Summary> summaries) {
+        long[] memoryMax = summaries.stream().mapToLong(ContainerResourceSeries.Summary::memoryMaxBytes).sorted().toArray();
+        double[] cpuP95 = summaries.stream().mapToDouble(ContainerResourceSeries.Summary::cpuP95Percent).sorted().toArray();
+        long currentMemory = summaries.stream()
+                .mapToLong(ContainerResourceSeries.Summary::memoryLimitBytes)
+                .filter(limit -> limit > 0)
+                .max()
+                .orElse(0);
+
+        long observedMemory = ContainerResourceSeries.percentile(memoryMax, 0.95);
+        double observedCpus = ContainerResourceSeries.percentile(cpuP95, 0.95) / 100;
+
+        long recommendedMemory = Math.max(MIN_MEMORY_BYTES,
+                (long) Math.ceil(observedMemory * headroom / MEMORY_STEP_BYTES) * MEMORY_STEP_BYTES);
+        double recommendedCpus = Math.max(CPU_STEP, Math.ceil(observedCpus * headroom / CPU_STEP) * CPU_STEP);
+
+        Map<String, Object> memory = new LinkedHashMap<>();
+        memory.put("observedP95MaxBytes", observedMemory);
+        memory.put("observedMedianMaxBytes", ContainerResourceSeries.percentile(memoryMax, 0.50));
+        memory.put("recommendedBytes", recommendedMemory);
+        memory.put("recommendedDockerFlag", "--memory=" + recommendedMemory / (1024 * 1024) + "m");
+        memory.put("currentLimitBytes", currentMemory);
+        memory.put("overprovisionRatio", currentMemory > 0 ? round((double) currentMemory / recommendedMemory) : null);
+
+        Map<String, Object> cpu = new LinkedHashMap<>();
+        cpu.put("observedP95Cpus", round(observedCpus));
+        cpu.put("observedMedianCpus", round(ContainerResourceSeries.percentile(cpuP95, 0.50) / 100));
+        cpu.put("recommendedCpus", recommendedCpus);
+        cpu.put("recommendedDockerFlag", "--cpus=" + recommendedCpus);
+        cpu.put("currentLimitCpus", SCRIPT_CPU_LIMIT);
+        cpu.put("overprovisionRatio", round(SCRIPT_CPU_LIMIT / recommendedCpus));
+
+        Map<String, Object> recommendation = new LinkedHashMap<>();
+        recommendation.put("containers", summaries.size());
+        recommendation.put("confidence", summaries.size() >= MIN_CONTAINERS ? "normal" : "low");
+        recommendation.put("memory", memory);
+        recommendation.put("cpu", cpu);
+        return recommendation;
+    }
+
+    /**
+     * "80MiB / 2GiB" 같은 "값 / 값" 문자열
+     */
+    private static long[] pair(String value) {
+        String[] parts = value.split("/");
+        long first = parts.length > 0 ? DockerSizeParser.parse(parts[0]) : 0;
+        long second = parts.length > 1 ? DockerSizeParser.parse(parts[1]) : 0;
+        return new long[]{first, second};
+    }
+
+    private static double percent(String value) {
+        String number = value.replace("%", "").trim();
+        return number.isEmpty() || number.equals("--") ? 0 : Double.parseDouble(number);
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Process current = stream;
+        if (current != null) {
+            current.destroy();
+        }
+        reader.shutdownNow();
+    }
+
+    private record Tracked(String framework, ContainerResourceSeries series) {
+    }
+}
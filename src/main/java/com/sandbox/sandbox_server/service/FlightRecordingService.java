@@ -0,0 +1,179 @@
+package com.sandbox.sandbox_server.service;
+
+import com.sandbox.sandbox_server.jfr.CleanupEvent;
+import com.sandbox.sandbox_server.jfr.PipelineStageEvent;
+import com.sandbox.sandbox_server.jfr.ProcessEvent;
+import com.sandbox.sandbox_server.jfr.ProcessExitEvent;
+import com.sandbox.sandbox_server.jfr.SandboxEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.Timespan;
+import jdk.jfr.ValueDescriptor;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 샌드박스 JFR 이벤트 상시 기록
+ * 파이프라인 단계, 외부 프로세스, 정리 이벤트와 GC/CPU 정도만 켜 두어 오버헤드를 낮게 유지하고,
+ * 요청 시 기록을 복사해 uuid별 타임라인을 만든다.
+ */
+@Slf4j
+@Service
+public class FlightRecordingService {
+
+    private static final String RECORDING_NAME = "sandbox-continuous";
+
+    // 타임라인에서 따로 표시하거나 제외하는 기본 필드
+    private static final Set<String> BUILT_IN_FIELDS =
+            Set.of("startTime", "duration", "eventThread", "stackTrace", SandboxEvent.UUID_FIELD);
+
+    @Value("${sandbox.jfr.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sandbox.jfr.max-age:6h}")
+    private Duration maxAge;
+
+    @Value("${sandbox.jfr.max-size:256MB}")
+    private DataSize maxSize;
+
+    private volatile Recording recording;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Flight recording disabled");
+            return;
+        }
+        if (!FlightRecorder.isAvailable()) {
+            log.warn("Flight recorder is not available on this JVM");
+            return;
+        }
+
+        Recording continuous = new Recording();
+        continuous.setName(RECORDING_NAME);
+        continuous.setToDisk(true);
+        continuous.setMaxAge(maxAge);
+        continuous.setMaxSize(maxSize.toBytes());
+
+        continuous.enable(PipelineStageEvent.class).withThreshold(Duration.ZERO);
+        continuous.enable(ProcessEvent.class).withThreshold(Duration.ZERO);
+        continuous.enable(ProcessExitEvent.class).withThreshold(Duration.ZERO);
+        continuous.enable(CleanupEvent.class).withThreshold(Duration.ZERO);
+        continuous.enable("jdk.GarbageCollection").withThreshold(Duration.ZERO);
+        continuous.enable("jdk.CPULoad").withPeriod(Duration.ofSeconds(1));
+        continuous.start();
+
+        recording = continuous;
+        log.info("Flight recording started - maxAge: {}, maxSize: {}", maxAge, maxSize);
+    }
+
+    public boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * 현재까지의 기록을 파일로 저장 (호출한 쪽에서 삭제)
+     * @throws IllegalStateException 기록 중이 아님
+     */
+    public Path dump() throws IOException {
+        Recording current = recording;
+        if (current == null) {
+            throw new IllegalStateException("Flight recording is not running");
+        }
+
+        Path file = Files.createTempFile("sandbox-", ".jfr");
+        try (Recording copy = current.copy(true)) {
+            copy.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    /**
+     * uuid의 샌드박스 이벤트를 시작 시각 순으로 정리한 타임라인
+     * offsetMillis는 첫 이벤트 시작 기준, Timespan 필드는 ms로 변환
+     */
+    public List<Map<String, Object>> timeline(String uuid) throws IOException {
+        Path file = dump();
+        try {
+            List<RecordedEvent> events = new ArrayList<>();
+            try (RecordingFile recordingFile = new RecordingFile(file)) {
+                while (recordingFile.hasMoreEvents()) {
+                    RecordedEvent event = recordingFile.readEvent();
+                    if (event.getEventType().getName().startsWith(SandboxEvent.NAME_PREFIX)
+                            && event.hasField(SandboxEvent.UUID_FIELD)
+                            && uuid.equals(event.getString(SandboxEvent.UUID_FIELD))) {
+                        events.add(event);
+                    }
+                }
+            }
+            events.sort(Comparator.comparing(RecordedEvent::getStartTime));
+
+            List<Map<String, Object>> timeline = new ArrayList<>();
+            Instant origin = events.isEmpty() ? null : events.get(0).getStartTime();
+            for (RecordedEvent event : events) {
+                timeline.add(toEntry(event, origin));
+            }
+            return timeline;
+
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private Map<String, Object> toEntry(RecordedEvent event, Instant origin) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("event", event.getEventType().getName().substring(SandboxEvent.NAME_PREFIX.length()));
+        entry.put("startTime", event.getStartTime().toString());
+        entry.put("offsetMillis", Duration.between(origin, event.getStartTime()).toMillis());
+        entry.put("durationMillis", event.getDuration().toMillis());
+
+        RecordedThread thread = event.getThread();
+        if (thread != null) {
+            entry.put("thread", thread.getJavaName());
+        }
+
+        for (ValueDescriptor field : event.getFields()) {
+            String name = field.getName();
+            if (BUILT_IN_FIELDS.contains(name)) {
+                continue;
+            }
+            if (Timespan.class.getName().equals(field.getContentType())) {
+                entry.put(name + "Millis", event.getDuration(name).toMillis());
+            } else {
+                entry.put(name, event.getValue(name));
+            }
+        }
+        return entry;
+    }
+
+    @PreDestroy
+    public void stop() {
+        Recording current = recording;
+        recording = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.sandbox.sandbox_server.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sandbox.sandbox_server.util.DockerSizeParser;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 샌드박스 이미지 보관 및 디스크 예산 기반 LRU 정리
+ * 컨테이너를 중지해도 이미지는 남겨 두고, sandbox-* 이미지 전체 크기가 예산을 넘을 때만
+ * 사용 중이 아닌 이미지를 마지막 사용 시각이 오래된 순으로 삭제한다.
+ * 샌드박스 이미지는 같은 베이스 레이어를 공유하므로, 이미지마다 고유 레이어 크기(UniqueSize)만 더하고
+ * 공유 레이어는 한 번만 센다. 이미지를 지워도 공유 레이어는 남으므로 회수량도 고유 크기 기준이다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageRetentionService {
+
+    private static final String IMAGE_REFERENCE = "sandbox-*";
+    private static final String MANAGED_LABEL = "sandbox.managed=true";
+    private static final Pattern RECLAIMED = Pattern.compile("(?:Total reclaimed space|Total):\\s*(\\S+)");
+    // imageRefs 값: 삭제 중인 이미지 (acquire는 삭제가 끝날 때까지 대기)
+    private static final int REMOVING = -1;
+
+    private final ProcessRunner processRunner;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    // 이미지를 사용 중인 샌드박스 수 (빌드 대기 포함, 삭제 중이면 REMOVING)
+    private final ConcurrentHashMap<String, Integer> imageRefs = new ConcurrentHashMap<>();
+    // 삭제 중인 이미지 -> 삭제 완료
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> removals = new ConcurrentHashMap<>();
+    // 이미지 마지막 사용 시각 (epoch ms)
+    private final ConcurrentHashMap<String, Long> lastUsed = new ConcurrentHashMap<>();
+
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private volatile Map<String, Object> lastReport = Map.of();
+
+    @Value("${sandbox.image-gc.disk-budget:20GB}")
+    private DataSize diskBudget;
+
+    @Value("${sandbox.image-gc.build-cache-budget:5GB}")
+    private DataSize buildCacheBudget;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("sandbox.image-gc.retained", retainedBytes, AtomicLong::get)
+                .description("Total size of retained sandbox images at the last GC run")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 이미지 사용 시작 (사용 중인 이미지는 정리 대상에서 제외)
+     * 이미지를 삭제하는 중이면 삭제가 끝난 뒤 사용을 시작한다 (이후 빌드 단계에서 이미지가 없으면 다시 빌드).
+     */
+    public void acquire(String image) {
+        while (imageRefs.merge(image, 1, (refs, one) -> refs == REMOVING ? REMOVING : refs + one) == REMOVING) {
+            CompletableFuture<Void> removal = removals.get(image);
+            if (removal != null) {
+                removal.join();
+            }
+        }
+        lastUsed.put(image, System.currentTimeMillis());
+    }
+
+    /**
+     * 이미지 사용 종료 (이미지는 삭제하지 않고 보관)
+     */
+    public void release(String image) {
+        imageRefs.computeIfPresent(image, (key, count) -> count > 1 ? count - 1 : null);
+        lastUsed.put(image, System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${sandbox.image-gc.interval:PT5M}",
+            initialDelayString = "${sandbox.image-gc.initial-delay:PT1M}")
+    public void scheduledCollect() {
+        try {
+            collect();
+        } catch (Exception e) {
+            log.warn("Image GC failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 이미지 정리 실행
+     * 1. 예산 초과 시 사용 중이 아닌 sandbox-* 이미지를 LRU 순으로 삭제
+     * 2. 샌드박스 빌드에서 남은 dangling 이미지 삭제
+     * 3. 빌드 캐시를 예산 이하로 정리
+     */
+    public synchronized Map<String, Object> collect() throws IOException {
+        long startNanos = System.nanoTime();
+
+        List<ImageInfo> images = listImages();
+        long shared = sharedBytes(images);
+        long total = shared + images.stream().mapToLong(ImageInfo::unique).sum();
+        long budget = diskBudget.toBytes();
+
+        int evicted = 0;
+        long evictedBytes = 0;
+        if (total > budget) {
+            List<ImageInfo> candidates = images.stream()
+                    .filter(image -> !imageRefs.containsKey(image.tag()))
+                    .sorted(Comparator.comparingLong(ImageInfo::lastUsed))
+                    .toList();
+
+            for (ImageInfo image : candidates) {
+                if (total <= budget) {
+                    break;
+                }
+                if (removeIfUnused(image.tag())) {
+                    total -= image.unique();
+                    evictedBytes += image.unique();
+                    evicted++;
+                    log.info("Evicted image {} ({} unique bytes, last used {})",
+                            image.tag(), image.unique(), Instant.ofEpochMilli(image.lastUsed()));
+                }
+            }
+        }
+
+        long danglingBytes = reclaimed(processRunner.run(120,
+                "docker", "image", "prune", "-f", "--filter", "label=" + MANAGED_LABEL));
+        long buildCacheBytes = reclaimed(processRunner.run(120,
+                "docker", "builder", "prune", "-f", "--keep-storage", String.valueOf(buildCacheBudget.toBytes())));
+
+        long reclaimedBytes = evictedBytes + danglingBytes + buildCacheBytes;
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        retainedBytes.set(total);
+
+        meterRegistry.counter("sandbox.image-gc.runs").increment();
+        meterRegistry.counter("sandbox.image-gc.evicted").increment(evicted);
+        meterRegistry.counter("sandbox.image-gc.reclaimed", "source", "images").increment(evictedBytes);
+        meterRegistry.counter("sandbox.image-gc.reclaimed", "source", "dangling").increment(danglingBytes);
+        meterRegistry.counter("sandbox.image-gc.reclaimed", "source", "build-cache").increment(buildCacheBytes);
+
+        lastReport = Map.of(
+                "finishedAt", System.currentTimeMillis(),
+                "elapsedMillis", elapsedMillis,
+                "images", images.size() - evicted,
+                "retainedBytes", total,
+                "sharedBytes", shared,
+                "diskBudgetBytes", budget,
+                "evictedImages", evicted,
+                "reclaimedBytes", reclaimedBytes,
+                "reclaimedDanglingBytes", danglingBytes,
+                "reclaimedBuildCacheBytes", buildCacheBytes
+        );
+
+        log.info("Image GC completed in {} ms - retained: {} bytes, evicted: {} images, reclaimed: {} bytes",
+                elapsedMillis, total, evicted, reclaimedBytes);
+        return lastReport;
+    }
+
+    /**
+     * 보관 중인 이미지 목록 (마지막 사용 시각 오름차순)
+     */
+    public List<Map<String, Object>> getImages() throws IOException {
+        return listImages().stream()
+                .sorted(Comparator.comparingLong(ImageInfo::lastUsed))
+                .map(image -> Map.<String, Object>of(
+                        "image", image.tag(),
+                        "sizeBytes", image.size(),
+                        "uniqueBytes", image.unique(),
+                        "sharedBytes", image.size() - image.unique(),
+                        "lastUsed", image.lastUsed(),
+                        "inUse", Math.max(imageRefs.getOrDefault(image.tag(), 0), 0)
+                ))
+                .toList();
+    }
+
+    public Map<String, Object> getLastReport() {
+        return lastReport;
+    }
+
+    private List<ImageInfo> listImages() throws IOException {
+        ProcessRunner.CommandResult list = processRunner.run(30,
+                "docker", "images", "--filter", "reference=" + IMAGE_REFERENCE, "--format", "{{.Repository}}:{{.Tag}}");
+        if (!list.isSuccess()) {
+            throw new IOException("docker images failed: " + list.output());
+        }
+
+        List<String> tags = list.output().lines()
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty() && !tag.contains("<none>"))
+                .distinct()
+                .toList();
+        if (tags.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> command = new ArrayList<>(List.of("docker", "image", "inspect", "--format",
+                "{{join .RepoTags \",\"}}|{{.Size}}|{{.Created}}"));
+        command.addAll(tags);
+        ProcessRunner.CommandResult inspect = processRunner.run(30, command);
+
+        // 목록 조회 후 삭제된 태그는 오류 줄로 바뀌어 순서가 어긋나므로, 줄에 들어 있는 태그로 찾는다
+        Map<String, String[]> inspected = new HashMap<>();
+        for (String line : inspect.output().lines().toList()) {
+            String[] fields = line.split("\\|", 3);
+            if (fields.length < 3) {
+                continue;
+            }
+            for (String repoTag : fields[0].split(",")) {
+                inspected.put(repoTag.trim(), fields);
+            }
+        }
+
+        Map<String, Long> uniqueSizes = uniqueSizes();
+        List<ImageInfo> images = new ArrayList<>();
+        for (String repoTag : tags) {
+            String[] fields = inspected.get(repoTag);
+            if (fields == null) {
+                continue;
+            }
+            String tag = repoTag.endsWith(":latest")
+                    ? repoTag.substring(0, repoTag.length() - ":latest".length())
+                    : repoTag;
+            long size = parseLong(fields[1]);
+            long unique = Math.min(size, uniqueSizes.getOrDefault(repoTag, size));
+            long used = imageRefs.containsKey(tag)
+                    ? System.currentTimeMillis()
+                    : lastUsed.getOrDefault(tag, parseInstant(fields[2]));
+            images.add(new ImageInfo(tag, size, unique, used));
+        }
+        return images;
+    }
+
+    /**
+     * docker system df -v 의 이미지별 고유 레이어 크기 (repository:tag -> bytes)
+     * 지원하지 않는 docker 버전이거나 실패하면 빈 맵 (이미지 전체 크기를 고유 크기로 간주)
+     */
+    private Map<String, Long> uniqueSizes() {
+        Map<String, Long> usage = new HashMap<>();
+        try {
+            ProcessRunner.CommandResult df = processRunner.run(60, "docker", "system", "df", "-v", "--format", "json");
+            if (!df.isSuccess() || df.output().isBlank()) {
+                log.debug("docker system df unavailable, charging full image sizes: {}", df.output().trim());
+                return usage;
+            }
+            for (JsonNode image : objectMapper.readTree(df.output()).path("Images")) {
+                usage.put(image.path("Repository").asText() + ":" + image.path("Tag").asText(),
+                        DockerSizeParser.parse(image.path("UniqueSize").asText()));
+            }
+        } catch (IOException e) {
+            log.debug("Failed to read docker disk usage: {}", e.getMessage());
+        }
+        return usage;
+    }
+
+    /**
+     * 공유 레이어 크기 (한 번만 계산)
+     * 샌드박스 이미지가 공유하는 레이어는 대부분 같은 베이스 이미지라서, 가장 큰 공유 크기를 공유분 전체로 본다.
+     */
+    private static long sharedBytes(List<ImageInfo> images) {
+        return images.stream().mapToLong(image -> image.size() - image.unique()).max().orElse(0);
+    }
+
+    /**
+     * 사용 중이 아닐 때만 이미지 삭제
+     * 삭제 중 표시(REMOVING)만 맵 안에서 하고 docker rmi는 밖에서 실행한다.
+     * 그동안 acquire는 삭제가 끝날 때까지 기다리므로 삭제 도중 새로 사용이 시작되지 않는다.
+     */
+    private boolean removeIfUnused(String image) {
+        CompletableFuture<Void> removal = new CompletableFuture<>();
+        boolean[] claimed = {false};
+        imageRefs.compute(image, (key, refs) -> {
+            if (refs != null) {
+                return refs;
+            }
+            removals.put(key, removal);
+            claimed[0] = true;
+            return REMOVING;
+        });
+        if (!claimed[0]) {
+            return false;
+        }
+
+        boolean removed = false;
+        try {
+            removed = processRunner.run(60, "docker", "rmi", image).isSuccess();
+        } catch (IOException e) {
+            log.warn("Failed to remove image {}: {}", image, e.getMessage());
+        } finally {
+            if (removed) {
+                lastUsed.remove(image);
+            }
+            imageRefs.remove(image, REMOVING);
+            removals.remove(image, removal);
+            removal.complete(null);
+        }
+        return removed;
+    }
+
+    private long reclaimed(ProcessRunner.CommandResult result) {
+        Matcher matcher = RECLAIMED.matcher(result.output());
+        return matcher.find() ? DockerSizeParser.parse(matcher.group(1)) : 0;
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static long parseInstant(String value) {
+        try {
+            return Instant.parse(value.trim()).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @param size 공유 레이어를 포함한 이미지 크기
+     * @param unique 이 이미지만 쓰는 레이어 크기 (삭제하면 회수되는 크기)
+     */
+    private record ImageInfo(String tag, long size, long unique, long lastUsed) {
+    }
+}
@@ -0,0 +1,430 @@
+package com.sandbox.sandbox_server.service;
+
+import com.sandbox.sandbox_server.util.LogLineParser;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 빌드/런타임 로그 압축 보관
+ * logs/{uuid}/{build|runtime}-NNNNNN.log.gz 세그먼트로 나눠 쓰고, 쓰는 중인 세그먼트는 .part로 두었다가 닫을 때 이름을 바꾼다.
+ * 컨테이너는 로그 수집이 끝난 뒤(또는 LogSearchService의 주기적 정리로) 삭제되며, 그 뒤에도 /logs와 아카이브 다운로드로 마지막 출력을 볼 수 있다.
+ * 샌드박스별 예산, 전체 예산, 보관 기간을 넘으면 오래된 세그먼트부터 삭제한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LogArchiveService {
+
+    public static final String BUILD = "build";
+    public static final String RUNTIME = "runtime";
+
+    private static final String SEGMENT_SUFFIX = ".log.gz";
+    private static final String PART_SUFFIX = ".part";
+    private static final Pattern SEGMENT = Pattern.compile("^(build|runtime)-(\\d{6})\\.log\\.gz$");
+    private static final Pattern RELATIVE_SINCE = Pattern.compile("^(\\d+)([smh])$");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // lines 없이 조회할 때 응답에 담는 최대 줄 수 (전체는 아카이브 다운로드로)
+    private static final int MAX_TAIL_LINES = 10_000;
+
+    private final MeterRegistry meterRegistry;
+
+    // uuid/stream -> 다음 세그먼트 번호
+    private final ConcurrentHashMap<String, AtomicInteger> segmentCounters = new ConcurrentHashMap<>();
+
+    @Value("${sandbox.logs.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sandbox.logs.archive.dir:logs}")
+    private String archiveDir;
+
+    @Value("${sandbox.logs.archive.segment-size:4MB}")
+    private DataSize segmentSize;
+
+    @Value("${sandbox.logs.archive.max-size-per-sandbox:32MB}")
+    private DataSize maxSizePerSandbox;
+
+    @Value("${sandbox.logs.archive.max-total-size:2GB}")
+    private DataSize maxTotalSize;
+
+    @Value("${sandbox.logs.archive.max-age:7d}")
+    private Duration maxAge;
+
+    /**
+     * 세그먼트 기록 시작 (보관이 꺼져 있으면 아무것도 쓰지 않는 writer)
+     * @param stream BUILD 또는 RUNTIME
+     */
+    public SegmentWriter openWriter(String uuid, String stream) {
+        if (!enabled) {
+            return new SegmentWriter(null, stream, false);
+        }
+        return new SegmentWriter(uuid, stream, BUILD.equals(stream));
+    }
+
+    /**
+     * 보관된 세그먼트가 하나라도 있는지 여부
+     */
+    public boolean hasArchive(String uuid, String stream) {
+        return !segments(uuid, stream).isEmpty();
+    }
+
+    /**
+     * 마지막 lines줄 (세그먼트를 최신부터 하나씩 풀어서 필요한 만큼만 메모리에 둔다)
+     * @param lines 0 이하면 최대 MAX_TAIL_LINES줄
+     * @param since docker logs --since 형식 (ISO-8601, epoch 초, 10m 같은 상대 시간, all)
+     */
+    public Tail tail(String uuid, String stream, int lines, String since) throws IOException {
+        int limit = lines > 0 ? Math.min(lines, MAX_TAIL_LINES) : MAX_TAIL_LINES;
+        long sinceMillis = parseSince(since);
+
+        List<Path> segments = segments(uuid, stream);
+        ArrayDeque<String> tail = new ArrayDeque<>();
+        boolean truncated = false;
+        for (int i = segments.size() - 1; i >= 0 && !truncated; i--) {
+            int need = limit - tail.size();
+            ArrayDeque<String> chunk = new ArrayDeque<>();
+            AtomicInteger dropped = new AtomicInteger();
+            readSegment(segments.get(i), line -> {
+                if (sinceMillis > 0 && LogLineParser.parseTimestamp(line) < sinceMillis) {
+                    return;
+                }
+                chunk.addLast(line);
+                if (chunk.size() > need) {
+                    chunk.removeFirst();
+                    dropped.incrementAndGet();
+                }
+            });
+            while (!chunk.isEmpty()) {
+                tail.addFirst(chunk.removeLast());
+            }
+            // 한도를 채웠는데 앞에 읽지 않은 줄이 남아 있음
+            truncated = tail.size() >= limit && (dropped.get() > 0 || i > 0);
+        }
+
+        return new Tail(new ArrayList<>(tail), segments.size(), truncated);
+    }
+
+    /**
+     * 완료된 세그먼트 목록 (오래된 순)
+     */
+    public List<Path> segments(String uuid, String stream) {
+        Path dir = sandboxDir(uuid);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(file -> {
+                        Matcher matcher = SEGMENT.matcher(file.getFileName().toString());
+                        return matcher.matches() && matcher.group(1).equals(stream);
+                    })
+                    .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Failed to list log archive - uuid: {}: {}", uuid, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * 세그먼트를 이어 붙여 그대로 전송 (gzip 멤버를 연결한 것도 유효한 gzip 파일)
+     */
+    public void copyArchive(String uuid, String stream, OutputStream out) throws IOException {
+        for (Path segment : segments(uuid, stream)) {
+            try {
+                Files.copy(segment, out);
+            } catch (NoSuchFileException e) {
+                log.debug("Log segment removed while copying: {}", segment);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${sandbox.logs.archive.sweep-interval:PT10M}",
+            initialDelayString = "${sandbox.logs.archive.sweep-initial-delay:PT2M}")
+    public void scheduledSweep() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            sweep();
+        } catch (Exception e) {
+            log.warn("Log archive sweep failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 보관 기간이 지난 세그먼트 삭제 후, 전체 예산을 넘으면 가장 오래된 세그먼트부터 삭제
+     */
+    public synchronized void sweep() throws IOException {
+        Path root = Paths.get(archiveDir);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+
+        List<SegmentFile> all = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            for (Path file : files.filter(file -> SEGMENT.matcher(file.getFileName().toString()).matches()).toList()) {
+                try {
+                    all.add(new SegmentFile(file, Files.size(file), Files.getLastModifiedTime(file).toMillis()));
+                } catch (NoSuchFileException e) {
+                    // 다른 정리 작업이 먼저 삭제
+                }
+            }
+        }
+        all.sort(Comparator.comparingLong(SegmentFile::modifiedMillis));
+
+        long expiredBefore = System.currentTimeMillis() - maxAge.toMillis();
+        long total = all.stream().mapToLong(SegmentFile::size).sum();
+        int deleted = 0;
+        for (SegmentFile segment : all) {
+            if (segment.modifiedMillis() >= expiredBefore && total <= maxTotalSize.toBytes()) {
+                break;
+            }
+            if (Files.deleteIfExists(segment.path())) {
+                deleted++;
+            }
+            total -= segment.size();
+        }
+
+        // 세그먼트가 모두 지워진 샌드박스 디렉토리 정리
+        try (Stream<Path> dirs = Files.list(root)) {
+            for (Path dir : dirs.filter(Files::isDirectory).toList()) {
+                try (Stream<Path> entries = Files.list(dir)) {
+                    if (entries.findAny().isEmpty()) {
+                        Files.deleteIfExists(dir);
+                        String prefix = dir.getFileName() + "/";
+                        segmentCounters.keySet().removeIf(key -> key.startsWith(prefix));
+                    }
+                } catch (IOException e) {
+                    log.debug("Failed to remove empty log archive directory: {}", dir);
+                }
+            }
+        }
+
+        if (deleted > 0) {
+            meterRegistry.counter("sandbox.logs.archive.evicted", "reason", "sweep").increment(deleted);
+            log.info("Log archive sweep - deleted segments: {}, remaining bytes: {}", deleted, total);
+        }
+    }
+
+    private void enforceSandboxBudget(String uuid) {
+        Path dir = sandboxDir(uuid);
+        List<Path> segments = new ArrayList<>(segments(uuid, BUILD));
+        segments.addAll(segments(uuid, RUNTIME));
+        try {
+            List<SegmentFile> files = new ArrayList<>();
+            for (Path segment : segments) {
+                files.add(new SegmentFile(segment, Files.size(segment), Files.getLastModifiedTime(segment).toMillis()));
+            }
+            files.sort(Comparator.comparingLong(SegmentFile::modifiedMillis));
+
+            long total = files.stream().mapToLong(SegmentFile::size).sum();
+            for (int i = 0; i < files.size() - 1 && total > maxSizePerSandbox.toBytes(); i++) {
+                Files.deleteIfExists(files.get(i).path());
+                total -= files.get(i).size();
+                meterRegistry.counter("sandbox.logs.archive.evicted", "reason", "sandbox-budget").increment();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to enforce log archive budget - dir: {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private Path sandboxDir(String uuid) {
+        return Paths.get(archiveDir, uuid);
+    }
+
+    private Path nextSegmentPath(String uuid, String stream) {
+        AtomicInteger counter = segmentCounters.computeIfAbsent(uuid + "/" + stream, key -> {
+            List<Path> existing = segments(uuid, stream);
+            if (existing.isEmpty()) {
+                return new AtomicInteger();
+            }
+            Matcher matcher = SEGMENT.matcher(existing.get(existing.size() - 1).getFileName().toString());
+            return new AtomicInteger(matcher.matches() ? Integer.parseInt(matcher.group(2)) + 1 : 0);
+        });
+        return sandboxDir(uuid).resolve(String.format("%s-%06d%s", stream, counter.getAndIncrement(), SEGMENT_SUFFIX));
+    }
+
+    /**
+     * 세그먼트를 줄 단위로 읽기 (끝이 잘린 세그먼트는 읽은 데까지만)
+     */
+    private static void readSegment(Path segment, Consumer<String> consumer) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(segment), BUFFER_SIZE), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                consumer.accept(line);
+            }
+        } catch (NoSuchFileException e) {
+            log.debug("Log segment removed while reading: {}", segment);
+        } catch (EOFException e) {
+            log.warn("Truncated log segment: {}", segment);
+        }
+    }
+
+    /**
+     * @return epoch ms, 필터가 없거나 해석할 수 없으면 0
+     */
+    static long parseSince(String since) {
+        if (since == null || since.isBlank() || "all".equals(since)) {
+            return 0;
+        }
+        Matcher relative = RELATIVE_SINCE.matcher(since);
+        if (relative.matches()) {
+            long amount = Long.parseLong(relative.group(1));
+            Duration duration = switch (relative.group(2)) {
+                case "s" -> Duration.ofSeconds(amount);
+                case "m" -> Duration.ofMinutes(amount);
+                default -> Duration.ofHours(amount);
+            };
+            return System.currentTimeMillis() - duration.toMillis();
+        }
+        try {
+            return since.chars().allMatch(Character::isDigit)
+                    ? Long.parseLong(since) * 1000
+                    : Instant.parse(since).toEpochMilli();
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 한 스트림의 세그먼트 기록기 (segment-size만큼 쓰면 세그먼트를 닫고 다음 번호로 넘어간다)
+     * 쓰기 실패는 로그 수집을 막지 않도록 기록만 중단한다.
+     */
+    public class SegmentWriter implements Closeable {
+
+        private final String uuid;
+        private final String stream;
+        // 빌드 출력에는 시각이 없어서 docker logs --timestamps와 같은 형식으로 붙인다
+        private final boolean addTimestamps;
+
+        private BufferedWriter writer;
+        private Path partFile;
+        private Path segmentFile;
+        private long written;
+        private boolean failed;
+
+        private SegmentWriter(String uuid, String stream, boolean addTimestamps) {
+            this.uuid = uuid;
+            this.stream = stream;
+            this.addTimestamps = addTimestamps;
+            this.failed = uuid == null;
+        }
+
+        public synchronized void append(String line) {
+            if (failed) {
+                return;
+            }
+            try {
+                if (writer == null) {
+                    openSegment();
+                }
+                String entry = addTimestamps ? Instant.now() + " " + line : line;
+                writer.write(entry);
+                writer.write('\n');
+                written += entry.length() + 1;
+                if (written >= segmentSize.toBytes()) {
+                    closeSegment();
+                }
+            } catch (IOException e) {
+                failed = true;
+                log.warn("Log archive write failed - uuid: {}, stream: {}: {}", uuid, stream, e.getMessage());
+                discardSegment();
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (writer == null) {
+                return;
+            }
+            try {
+                closeSegment();
+            } catch (IOException e) {
+                log.warn("Failed to close log segment - uuid: {}, stream: {}: {}", uuid, stream, e.getMessage());
+                discardSegment();
+            }
+        }
+
+        private void openSegment() throws IOException {
+            Files.createDirectories(sandboxDir(uuid));
+            segmentFile = nextSegmentPath(uuid, stream);
+            partFile = segmentFile.resolveSibling(segmentFile.getFileName() + PART_SUFFIX);
+            writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(partFile), BUFFER_SIZE), StandardCharsets.UTF_8),
+                    BUFFER_SIZE);
+            written = 0;
+        }
+
+        private void closeSegment() throws IOException {
+            writer.close();
+            writer = null;
+            Files.move(partFile, segmentFile, StandardCopyOption.ATOMIC_MOVE);
+            meterRegistry.counter("sandbox.logs.archive.segments", "stream", stream).increment();
+            enforceSandboxBudget(uuid);
+        }
+
+        private void discardSegment() {
+            try {
+                if (writer != null) {
+                    writer.close();
+                }
+            } catch (IOException ignored) {
+                // 이미 실패한 세그먼트
+            }
+            writer = null;
+            try {
+                if (partFile != null) {
+                    Files.deleteIfExists(partFile);
+                }
+            } catch (IOException e) {
+                log.debug("Failed to delete partial log segment: {}", partFile);
+            }
+        }
+    }
+
+    /**
+     * @param segments 스트림의 전체 세그먼트 수
+     * @param truncated 반환한 줄보다 앞선 줄이 더 있는지
+     */
+    public record Tail(List<String> lines, int segments, boolean truncated) {
+    }
+
+    private record SegmentFile(Path path, long size, long modifiedMillis) {
+    }
+}
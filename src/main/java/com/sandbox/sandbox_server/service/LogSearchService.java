@@ -0,0 +1,289 @@
+package com.sandbox.sandbox_server.service;
+
+import com.sandbox.sandbox_server.util.DeadlineCharSequence;
+import com.sandbox.sandbox_server.util.LogLevel;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 컨테이너 로그 수집 및 검색
+ * 컨테이너마다 docker logs -f 프로세스 하나로 출력을 받아 ContainerLogIndex에 쌓고, LogArchiveService에 압축 보관한다.
+ * 컨테이너가 종료되면 (비정상 종료 포함) docker logs -f도 끝나므로 마지막 출력까지 보관된다.
+ * 수집을 시작하지 못했거나 서버가 재시작되어 아무도 지우지 않는 종료된 컨테이너는 주기적으로 정리한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LogSearchService {
+
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_REGEX_LENGTH = 256;
+    private static final String MANAGED_LABEL = "sandbox.managed=true";
+    private static final String CONTAINER_PREFIX = "sandbox-";
+
+    private final ProcessRunner processRunner;
+    private final LogArchiveService logArchiveService;
+
+    // uuid -> 로그 인덱스
+    private final ConcurrentHashMap<String, ContainerLogIndex> indexes = new ConcurrentHashMap<>();
+    // uuid -> docker logs -f 프로세스
+    private final ConcurrentHashMap<String, Process> followers = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    // 이전 정리 주기에 종료 상태로 본 컨테이너 ID (두 주기 연속 종료 상태일 때만 삭제)
+    private Set<String> exitedSeen = Set.of();
+
+    @Value("${sandbox.logs.index.max-size-per-container:8MB}")
+    private DataSize maxSizePerContainer;
+
+    // 정규식 검색 한 번에 허용하는 최대 매칭 시간 (역추적 폭주 방지)
+    @Value("${sandbox.logs.search.regex-timeout:2s}")
+    private Duration regexTimeout;
+
+    /**
+     * 컨테이너 로그 수집 시작 (같은 uuid의 이전 인덱스는 교체)
+     */
+    public void startCapture(String uuid) {
+        stopCapture(uuid);
+
+        String containerName = "sandbox-" + uuid;
+        ContainerLogIndex index = new ContainerLogIndex(maxSizePerContainer.toBytes());
+        indexes.put(uuid, index);
+
+        try {
+            // 같은 이름으로 다시 만든 컨테이너를 건드리지 않도록 ID로 따라가고 지운다
+            String container = containerId(containerName);
+            ProcessBuilder pb = new ProcessBuilder("docker", "logs", "--follow", "--timestamps", container);
+            pb.redirectErrorStream(true);
+            Process process = processRunner.startStream(pb);
+            followers.put(uuid, process);
+
+            executor.submit(() -> {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+                     LogArchiveService.SegmentWriter archive = logArchiveService.openWriter(uuid, LogArchiveService.RUNTIME)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        index.append(line);
+                        archive.append(line);
+                    }
+                } catch (IOException e) {
+                    log.debug("Log capture stream closed - uuid: {}", uuid);
+                } finally {
+                    // stopCapture로 끝난 게 아니면 컨테이너가 종료된 것이므로, 로그를 끝까지 보관한 뒤 컨테이너 삭제
+                    // (컨테이너는 --rm 없이 실행되어 비정상 종료해도 로그를 읽기 전에 사라지지 않는다)
+                    if (followers.remove(uuid, process)) {
+                        removeExited(uuid, container);
+                    }
+                    log.info("Log capture finished - uuid: {}, lines indexed: {}", uuid, index.size());
+                }
+            });
+
+            log.info("Log capture started - uuid: {}", uuid);
+
+        } catch (IOException e) {
+            log.warn("Failed to start log capture - uuid: {}: {}", uuid, e.getMessage());
+        }
+    }
+
+    private String containerId(String containerName) {
+        try {
+            ProcessRunner.CommandResult result = processRunner.run(10,
+                    "docker", "inspect", "--format", "{{.Id}}", containerName);
+            String id = result.output().trim();
+            if (result.isSuccess() && !id.isEmpty() && !id.contains(" ")) {
+                return id;
+            }
+        } catch (IOException e) {
+            log.debug("Failed to resolve container id - name: {}: {}", containerName, e.getMessage());
+        }
+        return containerName;
+    }
+
+    /**
+     * 종료된 컨테이너 삭제 (아직 실행 중이면 docker rm이 실패하므로 그대로 둔다)
+     */
+    private void removeExited(String uuid, String container) {
+        try {
+            ProcessRunner.CommandResult result = processRunner.run(30, "docker", "rm", container);
+            if (result.isSuccess()) {
+                log.info("Removed exited container - uuid: {}", uuid);
+            } else {
+                log.debug("Container not removed - uuid: {}: {}", uuid, result.output().trim());
+            }
+        } catch (IOException e) {
+            log.warn("Failed to remove exited container - uuid: {}: {}", uuid, e.getMessage());
+        }
+    }
+
+    /**
+     * 종료된 샌드박스 컨테이너 정리 (로그 수집이 끝날 때 지우지 못한 컨테이너)
+     * 수집 중인 컨테이너는 수집이 끝나면서 지우므로 건너뛰고, 방금 종료된 컨테이너가 수집 시작 전에 지워지지 않도록
+     * 두 주기 연속으로 종료 상태인 컨테이너만 지운다.
+     */
+    @Scheduled(fixedDelayString = "${sandbox.logs.exited-sweep-interval:PT5M}",
+            initialDelayString = "${sandbox.logs.exited-sweep-interval:PT5M}")
+    public synchronized void sweepExited() {
+        ProcessRunner.CommandResult result;
+        try {
+            result = processRunner.run(30, "docker", "ps", "-a",
+                    "--filter", "label=" + MANAGED_LABEL, "--filter", "status=exited", "--filter", "status=dead",
+                    "--format", "{{.ID}}|{{.Names}}");
+        } catch (IOException e) {
+            log.warn("Failed to list exited containers: {}", e.getMessage());
+            return;
+        }
+        if (!result.isSuccess()) {
+            log.warn("Failed to list exited containers: {}", result.output().trim());
+            return;
+        }
+
+        Set<String> exited = new HashSet<>();
+        for (String line : result.output().lines().toList()) {
+            String[] fields = line.trim().split("\\|", 2);
+            if (fields.length < 2 || !fields[1].startsWith(CONTAINER_PREFIX)) {
+                continue;
+            }
+            String id = fields[0];
+            String uuid = fields[1].substring(CONTAINER_PREFIX.length());
+            exited.add(id);
+            if (exitedSeen.contains(id) && !followers.containsKey(uuid)) {
+                removeExited(uuid, id);
+            }
+        }
+        exitedSeen = exited;
+    }
+
+    /**
+     * 로그 수집 중지 및 인덱스 해제
+     */
+    public void stopCapture(String uuid) {
+        Process process = followers.remove(uuid);
+        if (process != null) {
+            process.destroy();
+        }
+        indexes.remove(uuid);
+    }
+
+    /**
+     * 로그 검색
+     * @param from 시작 시각 (ISO-8601 또는 epoch ms, null이면 처음부터)
+     * @param to 종료 시각 (ISO-8601 또는 epoch ms, null이면 끝까지)
+     * @param level 이 레벨 이상만 조회 (null이면 전체)
+     * @param query 검색어 (regex가 true면 정규식)
+     * @return 수집 중인 로그가 없으면 empty
+     */
+    public Optional<ContainerLogIndex.Result> search(String uuid, String from, String to, String level,
+                                                     String query, boolean regex, long cursor, int limit) {
+        ContainerLogIndex index = indexes.get(uuid);
+        if (index == null) {
+            return Optional.empty();
+        }
+
+        ContainerLogIndex.Query indexQuery = new ContainerLogIndex.Query(
+                parseTime(from),
+                parseTime(to),
+                level != null ? parseLevel(level) : null,
+                textPredicate(query, regex),
+                Math.max(0, cursor),
+                Math.max(1, Math.min(limit, MAX_LIMIT))
+        );
+
+        try {
+            return Optional.of(index.search(indexQuery));
+        } catch (DeadlineCharSequence.DeadlineExceededException e) {
+            throw new IllegalArgumentException("정규식 검색 시간이 " + regexTimeout.toMillis()
+                    + "ms를 넘었습니다. 더 단순한 패턴을 사용하세요.");
+        }
+    }
+
+    /**
+     * 다음에 수집될 로그 줄의 순번 (수집 중이 아니면 -1)
+     */
+    public long nextSeq(String uuid) {
+        ContainerLogIndex index = indexes.get(uuid);
+        return index != null ? index.nextSeq() : -1;
+    }
+
+    /**
+     * 주어진 순번 이후 수집된 로그에 패턴과 일치하는 줄이 있는지 여부
+     */
+    public boolean containsSince(String uuid, long seq, Pattern pattern) {
+        ContainerLogIndex index = indexes.get(uuid);
+        if (index == null || seq < 0) {
+            return false;
+        }
+
+        ContainerLogIndex.Query query = new ContainerLogIndex.Query(
+                null, null, null, message -> pattern.matcher(message).find(), seq, 1);
+        return !index.search(query).entries().isEmpty();
+    }
+
+    private Long parseTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return value.chars().allMatch(Character::isDigit)
+                    ? Long.parseLong(value)
+                    : Instant.parse(value).toEpochMilli();
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("잘못된 시각 형식입니다: " + value);
+        }
+    }
+
+    private LogLevel parseLevel(String value) {
+        LogLevel level = LogLevel.from(value);
+        if (level == LogLevel.UNKNOWN) {
+            throw new IllegalArgumentException("지원하지 않는 로그 레벨입니다: " + value);
+        }
+        return level;
+    }
+
+    private Predicate<String> textPredicate(String query, boolean regex) {
+        if (query == null || query.isEmpty()) {
+            return null;
+        }
+        if (!regex) {
+            return message -> message.contains(query);
+        }
+        if (query.length() > MAX_REGEX_LENGTH) {
+            throw new IllegalArgumentException("정규식은 " + MAX_REGEX_LENGTH + "자 이하여야 합니다.");
+        }
+        try {
+            Pattern pattern = Pattern.compile(query);
+            long deadline = System.nanoTime() + regexTimeout.toNanos();
+            return message -> pattern.matcher(new DeadlineCharSequence(message, deadline)).find();
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("잘못된 정규식입니다: " + e.getDescription());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        followers.values().forEach(Process::destroy);
+        followers.clear();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,12 @@
+package com.sandbox.sandbox_server.service;
+
+import java.io.IOException;
+
+/**
+ * 외부 프로세스 시작
+ * 기본은 실제 프로세스를 실행하고, simulated 프로필에서는 docker CLI와 빌드 스크립트를 흉내 내는 가짜 런타임을 쓴다.
+ */
+public interface ProcessLauncher {
+
+    Process launch(ProcessBuilder pb) throws IOException;
+}
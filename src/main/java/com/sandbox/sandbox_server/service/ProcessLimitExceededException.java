@@ -0,0 +1,13 @@
+package com.sandbox.sandbox_server.service;
+
+import java.io.IOException;
+
+/**
+ * 동시에 실행 중인 외부 프로세스 수가 한도에 도달해 새 프로세스를 시작하지 않음
+ */
+public class ProcessLimitExceededException extends IOException {
+
+    public ProcessLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,239 @@
+package com.sandbox.sandbox_server.service;
+
+import com.sandbox.sandbox_server.jfr.ProcessEvent;
+import com.sandbox.sandbox_server.jfr.ProcessExitEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 외부 프로세스(docker CLI 등) 실행
+ * 동시에 실행되는 프로세스 수를 제한해 docker 데몬이 과부하되지 않도록 한다.
+ * 조회성 요청은 try* 메서드로 한도 초과 시 바로 거절하고, 정리 같은 작업은 자리가 날 때까지 기다린다.
+ * 오래 걸리는 빌드 스크립트는 별도 한도(startBuild)를 써서, 빌드가 몰려도 상태/로그 조회용 자리를 차지하지 않는다.
+ * 실행마다 호출 스레드에서 JFR ProcessEvent를, 종료 시 ProcessExitEvent를 남긴다 (uuid는 호출 스레드의 MDC에서).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProcessRunner {
+
+    private static final long ACQUIRE_TIMEOUT_SECONDS = 30;
+
+    // 프로세스를 실행한 샌드박스 uuid (JFR 이벤트용)
+    public static final String MDC_UUID_KEY = "uuid";
+
+    private final MeterRegistry meterRegistry;
+    private final ProcessLauncher processLauncher;
+
+    private Semaphore permits;
+    private int maxConcurrent;
+    private Semaphore buildPermits;
+    private int maxConcurrentBuilds;
+
+    // 빌드 자리를 기다리는 최대 시간
+    @Value("${sandbox.process.build-queue-timeout:PT10M}")
+    private Duration buildQueueTimeout;
+
+    @Value("${sandbox.process.max-concurrent:32}")
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+        Gauge.builder("sandbox.process.active", this, runner -> runner.maxConcurrent - runner.permits.availablePermits())
+                .description("External processes currently running")
+                .register(meterRegistry);
+    }
+
+    @Value("${sandbox.process.max-concurrent-builds:8}")
+    public void setMaxConcurrentBuilds(int maxConcurrentBuilds) {
+        this.maxConcurrentBuilds = maxConcurrentBuilds;
+        this.buildPermits = new Semaphore(maxConcurrentBuilds);
+        Gauge.builder("sandbox.process.builds.active", this,
+                        runner -> runner.maxConcurrentBuilds - runner.buildPermits.availablePermits())
+                .description("Build scripts currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 프로세스 시작 (한도에 도달하면 자리가 날 때까지 대기)
+     */
+    public Process start(ProcessBuilder pb) throws IOException {
+        return acquireAndStart(pb, permits, ACQUIRE_TIMEOUT_SECONDS, maxConcurrent);
+    }
+
+    /**
+     * 빌드 스크립트 시작 (빌드 전용 한도, 자리가 날 때까지 최대 build-queue-timeout 대기)
+     */
+    public Process startBuild(ProcessBuilder pb) throws IOException {
+        return acquireAndStart(pb, buildPermits, buildQueueTimeout.toSeconds(), maxConcurrentBuilds);
+    }
+
+    /**
+     * 컨테이너 수명 동안 계속 실행되는 스트림 프로세스 시작 (docker logs --follow, docker stats)
+     * 실행 슬롯을 차지하지 않고 이벤트만 남긴다.
+     */
+    public Process startStream(ProcessBuilder pb) throws IOException {
+        return launch(pb, beginEvent(pb), System.nanoTime(), null);
+    }
+
+    /**
+     * 프로세스 시작 (한도에 도달했으면 바로 ProcessLimitExceededException)
+     */
+    public Process tryStart(ProcessBuilder pb) throws IOException {
+        ProcessEvent event = beginEvent(pb);
+        long requestedAtNanos = System.nanoTime();
+        if (!permits.tryAcquire()) {
+            throw rejected(pb, event, maxConcurrent);
+        }
+        return launch(pb, event, requestedAtNanos, permits);
+    }
+
+    /**
+     * 명령 실행 후 출력(stdout + stderr)과 종료 코드 반환
+     * 제한 시간을 넘기면 프로세스를 강제 종료하고 IOException
+     */
+    public CommandResult run(long timeoutSeconds, String... command) throws IOException {
+        return run(timeoutSeconds, List.of(command));
+    }
+
+    public CommandResult run(long timeoutSeconds, List<String> command) throws IOException {
+        return waitFor(start(builder(command)), timeoutSeconds, command);
+    }
+
+    /**
+     * run과 같지만 한도에 도달했으면 바로 ProcessLimitExceededException (조회 요청용)
+     */
+    public CommandResult tryRun(long timeoutSeconds, String... command) throws IOException {
+        List<String> commandList = List.of(command);
+        return waitFor(tryStart(builder(commandList)), timeoutSeconds, commandList);
+    }
+
+    private Process acquireAndStart(ProcessBuilder pb, Semaphore semaphore, long timeoutSeconds, int limit)
+            throws IOException {
+        ProcessEvent event = beginEvent(pb);
+        long requestedAtNanos = System.nanoTime();
+        try {
+            if (!semaphore.tryAcquire(timeoutSeconds, TimeUnit.SECONDS)) {
+                throw rejected(pb, event, limit);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            endEvent(event, "failed");
+            throw new IOException("Interrupted while waiting for process slot", e);
+        }
+        return launch(pb, event, requestedAtNanos, semaphore);
+    }
+
+    /**
+     * @param semaphore 종료 시 반환할 실행 슬롯 (슬롯을 쓰지 않으면 null)
+     */
+    private Process launch(ProcessBuilder pb, ProcessEvent event, long requestedAtNanos, Semaphore semaphore)
+            throws IOException {
+        event.waitTime = System.nanoTime() - requestedAtNanos;
+        Process process;
+        try {
+            process = processLauncher.launch(pb);
+        } catch (IOException | RuntimeException e) {
+            if (semaphore != null) {
+                semaphore.release();
+            }
+            endEvent(event, "failed");
+            throw e;
+        }
+        event.pid = process.pid();
+        endEvent(event, "started");
+
+        long startedAtNanos = System.nanoTime();
+        process.onExit().whenComplete((exited, error) -> {
+            if (semaphore != null) {
+                semaphore.release();
+            }
+            ProcessExitEvent exit = new ProcessExitEvent();
+            exit.uuid = event.uuid;
+            exit.command = event.command;
+            exit.pid = event.pid;
+            exit.exitCode = exited != null ? exited.exitValue() : -1;
+            exit.runTime = System.nanoTime() - startedAtNanos;
+            exit.commit();
+        });
+        return process;
+    }
+
+    private static ProcessEvent beginEvent(ProcessBuilder pb) {
+        ProcessEvent event = new ProcessEvent();
+        event.uuid = MDC.get(MDC_UUID_KEY);
+        event.command = String.join(" ", pb.command());
+        event.begin();
+        return event;
+    }
+
+    private static void endEvent(ProcessEvent event, String outcome) {
+        event.outcome = outcome;
+        event.commit();
+    }
+
+    private ProcessLimitExceededException rejected(ProcessBuilder pb, ProcessEvent event, int limit) {
+        endEvent(event, "rejected");
+        meterRegistry.counter("sandbox.process.rejected").increment();
+        log.warn("Process limit ({}) reached, rejecting: {}", limit, String.join(" ", pb.command()));
+        return new ProcessLimitExceededException("동시에 실행 중인 프로세스가 너무 많습니다. 잠시 후 다시 시도해 주세요.");
+    }
+
+    private static ProcessBuilder builder(List<String> command) {
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        return pb;
+    }
+
+    private CommandResult waitFor(Process process, long timeoutSeconds, List<String> command) throws IOException {
+        StringBuilder output = new StringBuilder();
+        CompletableFuture<Void> outputFuture = CompletableFuture.runAsync(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    output.append(line).append("\n");
+                }
+            } catch (IOException e) {
+                log.debug("Failed to read process output: {}", command, e);
+            }
+        });
+
+        try {
+            if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("Command timed out after " + timeoutSeconds + " seconds: " + String.join(" ", command));
+            }
+            outputFuture.get(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+            throw new IOException("Interrupted while running: " + String.join(" ", command), e);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("Failed to wait for output thread completion: {}", command, e);
+        }
+
+        return new CommandResult(process.exitValue(), output.toString());
+    }
+
+    public record CommandResult(int exitCode, String output) {
+
+        public boolean isSuccess() {
+            return exitCode == 0;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.sandbox.sandbox_server.service;
+
+import com.sandbox.sandbox_server.jfr.PipelineStageEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 컨테이너 시작 후 애플리케이션이 첫 HTTP 응답을 줄 때까지의 시간 측정
+ * 상태 코드와 관계없이 응답이 오면 준비된 것으로 본다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReadinessProbe {
+
+    private static final long POLL_INTERVAL_MILLIS = 250;
+    private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+    private static final long RELOAD_POLL_INTERVAL_MILLIS = 50;
+    private static final long RELOAD_TIMEOUT_SECONDS = 60;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    // uuid -> 마지막으로 측정된 첫 응답 시간(ms)
+    private final ConcurrentHashMap<String, Long> firstResponseMillis = new ConcurrentHashMap<>();
+    // uuid -> 진행 중인 첫 응답 측정
+    private final ConcurrentHashMap<String, Future<?>> firstResponseProbes = new ConcurrentHashMap<>();
+    // uuid -> 마지막 소스 동기화 후 변경이 반영되기까지 걸린 시간(ms)
+    private final ConcurrentHashMap<String, Long> syncToVisibleMillis = new ConcurrentHashMap<>();
+
+    @Value("${sandbox.readiness.timeout-seconds:180}")
+    private long timeoutSeconds;
+
+    /**
+     * 첫 응답 시간 측정 (비동기)
+     * 같은 uuid의 이전 측정은 취소한다. 이전 컨테이너의 시작 시각으로 새 컨테이너의 응답을 기록하지 않도록.
+     * @param target 앱 주소 (프록시 경로의 컨테이너 주소, null이면 localhost:{port})
+     * @param startedAtNanos 컨테이너 시작 시점 (System.nanoTime 기준)
+     * @param cdsArchive 실행 중인 컨테이너에 CDS 아카이브가 있는지 (첫 응답 후 한 번 확인, spring 외에는 false)
+     */
+    public CompletableFuture<Long> measureFirstResponse(String uuid, String framework, int port, URI target,
+                                                        long startedAtNanos, BooleanSupplier cdsArchive) {
+        cancelProbe(uuid);
+        firstResponseMillis.remove(uuid);
+        URI url = target != null ? target.resolve("/") : URI.create("http://localhost:" + port + "/");
+
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        FutureTask<Long> task = new FutureTask<>(
+                () -> pollFirstResponse(uuid, framework, url, startedAtNanos, cdsArchive));
+        Future<?> previous = firstResponseProbes.put(uuid, task);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+
+        executor.execute(() -> {
+            try {
+                task.run();
+                result.complete(task.isCancelled() ? -1L : task.get());
+            } catch (Exception e) {
+                result.complete(-1L);
+            } finally {
+                firstResponseProbes.remove(uuid, task);
+            }
+        });
+        return result;
+    }
+
+    private long pollFirstResponse(String uuid, String framework, URI url, long startedAtNanos,
+                                   BooleanSupplier cdsArchive) {
+        long deadline = startedAtNanos + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        PipelineStageEvent event = PipelineStageEvent.start(uuid, PipelineStageEvent.READINESS, framework);
+
+        while (System.nanoTime() < deadline) {
+            boolean responded = responds(url);
+            // 응답을 기다리는 동안 취소되었으면 (중지/재실행) 기록하지 않음
+            if (Thread.currentThread().isInterrupted()) {
+                event.complete("cancelled");
+                return -1L;
+            }
+
+            if (responded) {
+                long elapsedNanos = System.nanoTime() - startedAtNanos;
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+                // 트레이닝 실행이 실패하면 아카이브 없이 뜨므로 설정이 아니라 실제 아카이브 유무로 태그
+                boolean cds = cdsArchive.getAsBoolean();
+
+                Timer.builder("sandbox.startup.first-response")
+                        .description("Time from container start to first HTTP response")
+                        .tag("framework", framework)
+                        .tag("cds", String.valueOf(cds))
+                        .register(meterRegistry)
+                        .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+                firstResponseMillis.put(uuid, elapsedMillis);
+                event.complete(PipelineStageEvent.SUCCESS);
+                log.info("First response - uuid: {}, framework: {}, cds: {}, elapsed: {} ms",
+                        uuid, framework, cds, elapsedMillis);
+                return elapsedMillis;
+            }
+
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                event.complete("cancelled");
+                return -1L;
+            }
+        }
+
+        event.complete("timeout");
+        log.warn("No response within {} seconds - uuid: {}, url: {}", timeoutSeconds, uuid, url);
+        return -1L;
+    }
+
+    private void cancelProbe(String uuid) {
+        Future<?> probe = firstResponseProbes.remove(uuid);
+        if (probe != null) {
+            probe.cancel(true);
+        }
+    }
+
+    /**
+     * 개발 모드 소스 동기화 후 변경이 반영되기까지의 시간 측정 (비동기)
+     * @param syncedAtNanos 동기화 시작 시점 (System.nanoTime 기준)
+     * @param visible 변경이 반영되었는지 확인 (개발 서버의 reload/HMR 로그 등)
+     */
+    public CompletableFuture<Long> measureSyncToVisible(String uuid, String framework, long syncedAtNanos,
+                                                        BooleanSupplier visible) {
+        return CompletableFuture.supplyAsync(() -> {
+            long deadline = syncedAtNanos + TimeUnit.SECONDS.toNanos(RELOAD_TIMEOUT_SECONDS);
+
+            while (System.nanoTime() < deadline) {
+                if (visible.getAsBoolean()) {
+                    long elapsedNanos = System.nanoTime() - syncedAtNanos;
+                    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+
+                    Timer.builder("sandbox.dev.sync-to-visible")
+                            .description("Time from dev source sync to the dev server picking up the change")
+                            .tag("framework", framework)
+                            .register(meterRegistry)
+                            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+                    syncToVisibleMillis.put(uuid, elapsedMillis);
+                    log.info("Sync visible - uuid: {}, framework: {}, elapsed: {} ms", uuid, framework, elapsedMillis);
+                    return elapsedMillis;
+                }
+
+                try {
+                    Thread.sleep(RELOAD_POLL_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return -1L;
+                }
+            }
+
+            meterRegistry.counter("sandbox.dev.sync-to-visible.timeouts", "framework", framework).increment();
+            log.warn("Sync not visible within {} seconds - uuid: {}", RELOAD_TIMEOUT_SECONDS, uuid);
+            return -1L;
+        }, executor);
+    }
+
+    /**
+     * 마지막 소스 동기화가 반영되기까지 걸린 시간 (측정 전이면 null)
+     */
+    public Long getSyncToVisibleMillis(String uuid) {
+        return syncToVisibleMillis.get(uuid);
+    }
+
+    /**
+     * 마지막으로 측정된 첫 응답 시간 (측정 전이면 null)
+     */
+    public Long getFirstResponseMillis(String uuid) {
+        return firstResponseMillis.get(uuid);
+    }
+
+    public void forget(String uuid) {
+        cancelProbe(uuid);
+        firstResponseMillis.remove(uuid);
+        syncToVisibleMillis.remove(uuid);
+    }
+
+    private boolean responds(URI url) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) url.toURL().openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+            connection.setReadTimeout(CONNECT_TIMEOUT_MILLIS * 5);
+            connection.setInstanceFollowRedirects(false);
+            connection.getResponseCode();
+            return true;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
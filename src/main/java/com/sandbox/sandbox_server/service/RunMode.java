@@ -0,0 +1,40 @@
+package com.sandbox.sandbox_server.service;
+
+import java.util.Locale;
+
+/**
+ * 샌드박스 실행 모드
+ */
+public enum RunMode {
+    // 소스를 포함한 이미지를 빌드해서 실행
+    BUILD,
+    // 의존성만 이미지에 설치하고 소스는 마운트해서 watch 모드 개발 서버로 실행
+    DEV;
+
+    /**
+     * 요청 값으로 모드 결정 (null이면 BUILD)
+     * 개발 모드를 지원하지 않는 프레임워크(spring)는 BUILD로 실행한다.
+     */
+    public static RunMode of(String value, String framework) {
+        if (value == null || value.isBlank()) {
+            return BUILD;
+        }
+
+        RunMode mode;
+        try {
+            mode = valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("지원하지 않는 실행 모드입니다: " + value);
+        }
+
+        return mode == DEV && !supportsDev(framework) ? BUILD : mode;
+    }
+
+    public static boolean supportsDev(String framework) {
+        return "react".equals(framework) || "fastapi".equals(framework);
+    }
+
+    public String scriptArgument() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
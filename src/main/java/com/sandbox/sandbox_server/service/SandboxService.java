@@ -1,87 +1,492 @@
 package com.sandbox.sandbox_server.service;
 
+import com.sandbox.sandbox_server.jfr.CleanupEvent;
+import com.sandbox.sandbox_server.jfr.PipelineStageEvent;
+import com.sandbox.sandbox_server.proxy.SandboxRouter;
+import com.sandbox.sandbox_server.util.DockerfileOptions;
 import com.sandbox.sandbox_server.util.DockerfileUtil;
+import com.sandbox.sandbox_server.util.RequestCoalescer;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class SandboxService {
 
     private static final int DOCKER_TIMEOUT_SECONDS = 300;
-
-    // 실행 중인 컨테이너 추적을 위한 맵 (uuid -> 컨테이너명)
+    private static final String CONTAINER_STARTED_MARKER = "Container started successfully!";
+    // DockerfileUtil의 CDS 단계가 남기는 아카이브 (트레이닝 실패 시 없음)
+    private static final String CDS_ARCHIVE_PATH = "/app/cds/application.jsa";
+
+    // 개발 서버가 소스 변경을 반영했을 때 남기는 로그
+    private static final Map<String, Pattern> DEV_RELOAD_MARKERS = Map.of(
+            "fastapi", Pattern.compile("Application startup complete"),
+            "react", Pattern.compile("hmr update|page reload|Compiled successfully|Compiled with warnings|webpack compiled")
+    );
+
+    // 프레임워크별 프로젝트 루트 판별 파일 (압축 파일 안에 상위 폴더가 있을 때 루트로 끌어올림)
+    private static final Map<String, List<String>> PROJECT_MARKERS = Map.of(
+            "spring", List.of("gradlew", "build.gradle", "pom.xml"),
+            "react", List.of("package.json"),
+            "fastapi", List.of("requirements.txt", "main.py")
+    );
+
+    private final ReadinessProbe readinessProbe;
+    private final LogSearchService logSearchService;
+    private final LogArchiveService logArchiveService;
+    private final WorkspaceManager workspaceManager;
+    private final ProcessRunner processRunner;
+    private final ImageRetentionService imageRetentionService;
+    private final WorkspaceSyncService workspaceSyncService;
+    private final ContainerStatsService containerStatsService;
+    private final SandboxRouter sandboxRouter;
+    private final BaseImageService baseImageService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${sandbox.spring.cds.enabled:true}")
+    private boolean springCdsEnabled;
+
+    @Value("${sandbox.artifact-cache.enabled:true}")
+    private boolean artifactCacheEnabled;
+
+    @Value("${sandbox.artifact-cache.public-url:http://host.docker.internal:9090/proxy}")
+    private String artifactCacheUrl;
+
+    // 실행 중인 컨테이너 추적을 위한 맵 (uuid -> 샌드박스 정보)
     // uuid를 프로젝트 식별자로 사용
-    private final ConcurrentHashMap<String, String> activeContainers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ActiveSandbox> activeContainers = new ConcurrentHashMap<>();
+
+    // 빌드 중인 이미지 (이미지 태그 -> 빌드 완료 future), 같은 이미지를 동시에 빌드하지 않기 위함
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> inFlightBuilds = new ConcurrentHashMap<>();
+
+    // 동시에 들어온 같은 상태/로그 조회 병합
+    private final RequestCoalescer<String, Map<String, Object>> statusRequests = new RequestCoalescer<>();
+    private final RequestCoalescer<String, Map<String, Object>> logRequests = new RequestCoalescer<>();
+
+    private ExecutorService batchExecutor;
+
+    @Value("${sandbox.batch.parallelism:8}")
+    public void setBatchParallelism(int parallelism) {
+        this.batchExecutor = Executors.newFixedThreadPool(parallelism);
+    }
 
     /**
      * 프로젝트 실행 전체 프로세스
      * @param uuid 프로젝트 식별자 (동일한 uuid의 중복 실행 방지)
      */
     public String runProject(String uuid, String s3Url, String framework, int port) throws IOException {
-        log.info("Starting project execution - uuid: {}, framework: {}, port: {}", uuid, framework, port);
+        return runProject(uuid, s3Url, framework, port, null);
+    }
+
+    /**
+     * @param mode build(기본) 또는 dev
+     *             dev로 실행 중인 같은 uuid를 다시 실행하면 의존성이 같을 때 컨테이너를 유지하고 소스만 동기화한다.
+     */
+    public String runProject(String uuid, String s3Url, String framework, int port, String mode) throws IOException {
+        try (MDC.MDCCloseable ignored = MDC.putCloseable(ProcessRunner.MDC_UUID_KEY, uuid)) {
+            return executeProject(uuid, s3Url, framework, port, mode);
+        }
+    }
+
+    private String executeProject(String uuid, String s3Url, String framework, int port, String mode) throws IOException {
+        RunMode runMode = RunMode.of(mode, framework);
+        log.info("Starting project execution - uuid: {}, framework: {}, port: {}, mode: {}",
+                uuid, framework, port, runMode);
+
+        // 개발 모드로 실행 중이면 재빌드 없이 소스만 동기화 시도
+        ActiveSandbox active = activeContainers.get(uuid);
+        if (isReusableDevSandbox(active, framework, port, runMode)) {
+            String synced = syncDevSandbox(uuid, s3Url, active);
+            if (synced != null) {
+                return synced;
+            }
+        }
 
         // 1. 기존 실행 중인 컨테이너 정리 (동일 uuid)
-        stopExistingContainer(uuid);
+        stopExistingContainer(uuid, "replace");
 
-        Path projectDir = Paths.get("uploads", uuid);
-        Files.createDirectories(projectDir);
+        // ZIP으로 내용이 바뀌므로 델타 업로드 상태 폐기
+        workspaceSyncService.invalidate(uuid);
 
         try {
-            // 2. S3에서 ZIP 다운로드
-            Path zipPath = downloadFromS3(s3Url, projectDir);
+            // 2. S3에서 ZIP 다운로드 (내용 해시 계산, 작업 디렉토리 밖에 저장)
+            MessageDigest archiveDigest = sha256();
+            Path zipPath = downloadFromS3(uuid, framework, s3Url, workspaceManager.scratchDir(uuid), archiveDigest);
+
+            // 3~7. 이미지 빌드(새 작업 디렉토리 세대에 압축 해제 포함) 및 컨테이너 실행
+            try {
+                return buildAndRun(uuid, framework, port, runMode, archiveDigest.digest(),
+                        () -> populateWorkspace(uuid, framework, zipPath));
+            } finally {
+                Files.deleteIfExists(zipPath);
+            }
+
+        } catch (Exception e) {
+            log.error("Project execution failed - uuid: {}", uuid, e);
+            cleanupResources(uuid);
+            throw new IOException("Project execution failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 델타 업로드로 갱신된 작업 디렉토리(uploads/uuid)로 프로젝트 실행
+     * 다운로드와 압축 해제 없이, 작업 디렉토리 내용 해시로 이미지를 찾거나 빌드한다.
+     */
+    public String runWorkspace(String uuid, String framework, int port, String mode) throws IOException {
+        try (MDC.MDCCloseable ignored = MDC.putCloseable(ProcessRunner.MDC_UUID_KEY, uuid)) {
+            return executeWorkspace(uuid, framework, port, mode);
+        }
+    }
 
-            // 3. 압축 해제
-            unzip(zipPath.toFile(), projectDir.toFile());
+    private String executeWorkspace(String uuid, String framework, int port, String mode) throws IOException {
+        RunMode runMode = RunMode.of(mode, framework);
+        log.info("Starting workspace execution - uuid: {}, framework: {}, port: {}, mode: {}",
+                uuid, framework, port, runMode);
 
-            // 4. 프로젝트 구조 정규화 (옵션)
-            normalizeProjectStructure(projectDir.toFile());
+        // 업로드가 끝나지 않았으면 기존 컨테이너를 건드리지 않고 실패
+        byte[] treeHash = workspaceSyncService.treeHash(uuid);
+
+        // 개발 모드로 실행 중이고 의존성이 같으면 업로드한 파일이 이미 마운트로 반영되어 있음
+        ActiveSandbox active = activeContainers.get(uuid);
+        if (isReusableDevSandbox(active, framework, port, runMode)
+                && devImageTag(projectRoot(workspaceManager.open(uuid), framework), framework).equals(active.image())) {
+            log.info("Dev sandbox already up to date - uuid: {}", uuid);
+            return uuid + ":" + port;
+        }
 
-            // 5. Dockerfile 생성
-            DockerfileUtil.generateDockerfile(projectDir, framework);
+        stopExistingContainer(uuid, "replace");
 
-            // 6. Docker 빌드 및 실행
+        try {
+            return buildAndRun(uuid, framework, port, runMode, treeHash, () -> { });
+        } catch (Exception e) {
+            log.error("Workspace execution failed - uuid: {}", uuid, e);
+            throw new IOException("Workspace execution failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 이미지 태그 결정, 빌드(필요할 때만), 컨테이너 실행
+     * 개발 모드는 소스를 이미지에 넣지 않으므로 의존성 파일 해시로 이미지를 찾는다.
+     * @param contentHash 프로젝트 내용 해시 (아카이브 또는 작업 디렉토리)
+     * @param prepare 작업 디렉토리를 채우는 단계 (이미지를 재사용해도 항상 실행)
+     */
+    private String buildAndRun(String uuid, String framework, int port, RunMode mode,
+                               byte[] contentHash, BuildStep prepare) throws Exception {
+        // 베이스 이미지 다이제스트가 확인되기 전이면 잠시 대기 (고정된 Dockerfile로 이미지 태그 결정)
+        baseImageService.awaitWarmup();
+        boolean cds = mode == RunMode.BUILD && springCdsEnabled && "spring".equals(framework);
+        DockerfileOptions options = dockerfileOptions(framework, mode);
+
+        // 작업 디렉토리는 이미지 재사용 여부와 관계없이 항상 채운다 (이후 델타 업로드/개발 모드 실행의 기준)
+        prepare.run();
+        // 실제 크기가 tmpfs 예산을 넘었으면 디스크로 (기존 컨테이너를 정리한 뒤라 마운트 중인 컨테이너가 없음)
+        workspaceSyncService.settleWorkspace(uuid);
+        // 프로젝트가 하위 폴더에 있으면 그 폴더를 빌드 컨텍스트로 쓴다 (작업 디렉토리 구조는 그대로)
+        Path workspace = workspaceManager.open(uuid);
+        Path projectDir = projectRoot(workspace, framework);
+        workspaceSyncService.setProjectRoot(uuid, projectPrefix(workspace, projectDir));
+
+        // 개발 모드는 의존성 파일 해시, 빌드 모드는 내용 해시 + 프레임워크 + Dockerfile로 이미지 태그 결정
+        String image = mode == RunMode.DEV
+                ? devImageTag(projectDir, framework)
+                : imageTagFor(contentHash, framework, options);
+        imageRetentionService.acquire(image);
+
+        try {
+            // 이미지 빌드 (같은 이미지가 있거나 빌드 중이면 공유)
+            buildImageOnce(uuid, framework, image, () -> {
+                DockerfileUtil.generateDockerfile(projectDir, framework, options);
+                runDockerContainer(uuid, port, framework, image, "build", mode);
+            });
+
+            // 컨테이너 실행
             String containerName = "sandbox-" + uuid;
-            runDockerContainer(uuid, port, framework);
+            PipelineStageEvent containerStart = PipelineStageEvent.start(uuid, PipelineStageEvent.CONTAINER_START, framework);
+            containerStart.image = image;
+            long startedAtNanos;
+            try {
+                startedAtNanos = runDockerContainer(uuid, port, framework, image, "run", mode);
+            } catch (Exception e) {
+                containerStart.complete(PipelineStageEvent.FAILED);
+                throw e;
+            }
+            containerStart.complete(PipelineStageEvent.SUCCESS);
 
-            // 7. 활성 컨테이너 목록에 추가
-            activeContainers.put(uuid, containerName);
+            // 활성 컨테이너 목록에 추가 및 로그 수집 시작
+            ActiveSandbox active = new ActiveSandbox(containerName, framework, port, image, mode);
+            activeContainers.put(uuid, active);
+            sandboxRouter.register(uuid, active);
+            logSearchService.startCapture(uuid);
+            containerStatsService.track(uuid, framework);
+
+            // 첫 응답까지의 시간 측정 (비동기, 프록시와 같은 주소로 확인)
+            readinessProbe.measureFirstResponse(uuid, framework, port, sandboxRouter.target(uuid),
+                    startedAtNanos, cds ? () -> hasCdsArchive(containerName) : () -> false);
 
             log.info("Project execution completed - uuid: {}, port: {}", uuid, port);
             return uuid + ":" + port;
 
         } catch (Exception e) {
-            log.error("Project execution failed - uuid: {}", uuid, e);
-            cleanupResources(uuid);
-            throw new IOException("Project execution failed: " + e.getMessage(), e);
+            imageRetentionService.release(image);
+            throw e;
         }
     }
 
+    /**
+     * 프로젝트 실행 (배치 실행용, 제한된 병렬도로 비동기 실행)
+     */
+    public CompletableFuture<String> runProjectAsync(String uuid, String s3Url, String framework, int port,
+                                                     String mode) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return runProject(uuid, s3Url, framework, port, mode);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, batchExecutor);
+    }
+
+    private boolean isReusableDevSandbox(ActiveSandbox active, String framework, int port, RunMode mode) {
+        return mode == RunMode.DEV
+                && active != null
+                && active.mode() == RunMode.DEV
+                && active.framework().equals(framework)
+                && active.port() == port;
+    }
+
+    /**
+     * 개발 모드 컨테이너에 새 ZIP의 소스 동기화
+     * 임시 디렉토리에 압축을 풀고 작업 디렉토리와 비교해 바뀐 파일만 반영한다.
+     * @return 의존성 파일이 바뀌어 재빌드가 필요하면 null
+     */
+    private String syncDevSandbox(String uuid, String s3Url, ActiveSandbox active) throws IOException {
+        Path stagingDir = workspaceManager.scratchDir(uuid).resolve("sync");
+        deleteRecursively(stagingDir);
+        Files.createDirectories(stagingDir);
+
+        try {
+            Path zipPath = downloadFromS3(uuid, active.framework(), s3Url, stagingDir, sha256());
+            unzip(uuid, active.framework(), zipPath.toFile(), stagingDir.toFile());
+
+            Path stagingRoot = projectRoot(stagingDir, active.framework());
+            if (!devImageTag(stagingRoot, active.framework()).equals(active.image())) {
+                log.info("Dependencies changed, rebuilding dev sandbox - uuid: {}", uuid);
+                return null;
+            }
+            // 프로젝트 루트 위치가 바뀌면 마운트 경로가 달라지므로 재실행
+            Path workspace = workspaceManager.open(uuid);
+            if (!projectPrefix(stagingDir, stagingRoot)
+                    .equals(projectPrefix(workspace, projectRoot(workspace, active.framework())))) {
+                log.info("Project root moved, restarting dev sandbox - uuid: {}", uuid);
+                return null;
+            }
+
+            DevSync sync = beginDevSync(uuid);
+            WorkspaceSyncService.SyncResult result = workspaceSyncService.syncFrom(uuid, stagingDir);
+            if (result.filesWritten() + result.filesDeleted() > 0) {
+                completeDevSync(sync);
+            }
+            return uuid + ":" + active.port();
+
+        } finally {
+            deleteRecursively(stagingDir);
+        }
+    }
+
+    /**
+     * 개발 모드 소스 변경 시작 (개발 모드로 실행 중이 아니면 null)
+     * 변경 전 로그 위치를 기억해 두고, completeDevSync에서 개발 서버가 변경을 반영했는지 로그로 확인한다.
+     */
+    public DevSync beginDevSync(String uuid) {
+        ActiveSandbox active = activeContainers.get(uuid);
+        if (active == null || active.mode() != RunMode.DEV) {
+            return null;
+        }
+        return new DevSync(uuid, active.framework(), logSearchService.nextSeq(uuid), System.nanoTime());
+    }
+
+    /**
+     * 소스 변경 완료 후 반영 시간 측정 시작 (비동기)
+     */
+    public void completeDevSync(DevSync sync) {
+        if (sync == null) {
+            return;
+        }
+        Pattern marker = DEV_RELOAD_MARKERS.get(sync.framework());
+        readinessProbe.measureSyncToVisible(sync.uuid(), sync.framework(), sync.startedAtNanos(),
+                () -> logSearchService.containsSince(sync.uuid(), sync.logSeq(), marker));
+    }
+
+    /**
+     * 개발 모드 소스 변경 추적 정보
+     * @param logSeq 변경 직전 수집된 로그 위치
+     */
+    public record DevSync(String uuid, String framework, long logSeq, long startedAtNanos) {
+    }
+
+    private DockerfileOptions dockerfileOptions(String framework, RunMode mode) {
+        return DockerfileOptions.builder()
+                .springCds(mode == RunMode.BUILD && springCdsEnabled && "spring".equals(framework))
+                .devMode(mode == RunMode.DEV)
+                .artifactCacheUrl(artifactCacheEnabled ? artifactCacheUrl : null)
+                .baseImageDigests(baseImageService.pinnedDigests())
+                .build();
+    }
+
+    /**
+     * 개발 모드 이미지 태그 (의존성 파일 + 프레임워크 + Dockerfile)
+     */
+    private String devImageTag(Path projectDir, String framework) throws IOException {
+        MessageDigest digest = sha256();
+        for (String name : DockerfileUtil.dependencyFiles(framework)) {
+            Path file = projectDir.resolve(name);
+            digest.update((name + "\0").getBytes(StandardCharsets.UTF_8));
+            if (Files.isRegularFile(file)) {
+                digest.update(Files.readAllBytes(file));
+            }
+        }
+        return imageTagFor(digest.digest(), framework, dockerfileOptions(framework, RunMode.DEV));
+    }
+
+    /**
+     * 이미지를 한 번만 빌드
+     * 이미 존재하면 재사용하고, 다른 요청이 같은 이미지를 빌드 중이면 그 결과를 기다린다.
+     */
+    private void buildImageOnce(String uuid, String framework, String image, BuildStep build) throws Exception {
+        PipelineStageEvent event = PipelineStageEvent.start(uuid, PipelineStageEvent.BUILD, framework);
+        event.image = image;
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        CompletableFuture<Void> existing = inFlightBuilds.putIfAbsent(image, future);
+        if (existing != null) {
+            log.info("Waiting for shared image build: {}", image);
+            recordBuild("shared");
+            try {
+                existing.get();
+                event.complete("shared");
+                return;
+            } catch (ExecutionException e) {
+                event.complete(PipelineStageEvent.FAILED);
+                throw new IOException("Shared image build failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        try {
+            if (imageExists(image)) {
+                log.info("Reusing existing image: {}", image);
+                recordBuild("reused");
+                event.complete("reused");
+            } else {
+                build.run();
+                recordBuild("built");
+                event.complete("built");
+            }
+            future.complete(null);
+        } catch (Exception e) {
+            event.complete(PipelineStageEvent.FAILED);
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightBuilds.remove(image, future);
+        }
+    }
+
+    /**
+     * CDS 단계는 트레이닝이 실패하면 /app/cds를 지우므로 아카이브 파일이 실제 적용 여부의 표시가 된다.
+     */
+    private boolean hasCdsArchive(String containerName) {
+        try {
+            return processRunner.run(10, "docker", "exec", containerName, "test", "-f", CDS_ARCHIVE_PATH).isSuccess();
+        } catch (Exception e) {
+            log.debug("Failed to check CDS archive - container: {}: {}", containerName, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean imageExists(String image) throws IOException {
+        return processRunner.run(10, "docker", "image", "inspect", "--format", "{{.Id}}", image).isSuccess();
+    }
+
+    private String imageTagFor(byte[] archiveHash, String framework, DockerfileOptions options) throws IOException {
+        MessageDigest digest = sha256();
+        digest.update(archiveHash);
+        digest.update(framework.getBytes(StandardCharsets.UTF_8));
+        digest.update(DockerfileUtil.renderDockerfile(framework, options).getBytes(StandardCharsets.UTF_8));
+        return "sandbox-img-" + HexFormat.of().formatHex(digest.digest()).substring(0, 16);
+    }
+
+    private void recordBuild(String result) {
+        meterRegistry.counter("sandbox.build.images", "result", result).increment();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BuildStep {
+        void run() throws Exception;
+    }
+
     /**
      * 기존 실행 중인 컨테이너 중지 및 정리
+     * @param reason replace: 재실행, manual: 중지 요청 (JFR CleanupEvent에 기록)
      */
-    private void stopExistingContainer(String uuid) {
-        String existingContainer = activeContainers.get(uuid);
-        if (existingContainer != null) {
+    private void stopExistingContainer(String uuid, String reason) {
+        ActiveSandbox existing = activeContainers.get(uuid);
+        if (existing != null) {
+            String existingContainer = existing.containerName();
             log.info("Stopping existing container for uuid {}: {}", uuid, existingContainer);
+            CleanupEvent event = CleanupEvent.start(uuid, existingContainer, reason);
+            boolean stopped = false;
 
             try {
                 // Docker 컨테이너 강제 중지
                 ProcessBuilder stopBuilder = new ProcessBuilder("docker", "stop", existingContainer);
-                Process stopProcess = stopBuilder.start();
+                Process stopProcess = processRunner.start(stopBuilder);
 
                 boolean stopFinished = stopProcess.waitFor(30, TimeUnit.SECONDS);
                 if (!stopFinished) {
@@ -91,7 +496,7 @@ public class SandboxService {
 
                 // Docker 컨테이너 삭제
                 ProcessBuilder rmBuilder = new ProcessBuilder("docker", "rm", "-f", existingContainer);
-                Process rmProcess = rmBuilder.start();
+                Process rmProcess = processRunner.start(rmBuilder);
 
                 boolean rmFinished = rmProcess.waitFor(10, TimeUnit.SECONDS);
                 if (!rmFinished) {
@@ -99,12 +504,8 @@ public class SandboxService {
                     rmProcess.destroyForcibly();
                 }
 
-                // Docker 이미지도 삭제 (옵션)
-                ProcessBuilder rmiBuilder = new ProcessBuilder("docker", "rmi", "-f", existingContainer);
-                Process rmiProcess = rmiBuilder.start();
-                rmiProcess.waitFor(10, TimeUnit.SECONDS);
-
                 log.info("Successfully stopped and removed container: {}", existingContainer);
+                stopped = true;
 
             } catch (Exception e) {
                 log.error("Failed to stop existing container {}: {}", existingContainer, e.getMessage());
@@ -115,7 +516,7 @@ public class SandboxService {
                             "bash", "-c",
                             String.format("docker ps -a | grep %s | awk '{print $1}' | xargs -r docker rm -f", existingContainer)
                     );
-                    forceCleanup.start().waitFor(10, TimeUnit.SECONDS);
+                    processRunner.start(forceCleanup).waitFor(10, TimeUnit.SECONDS);
                 } catch (Exception cleanupEx) {
                     log.warn("Force cleanup also failed for {}: {}", existingContainer, cleanupEx.getMessage());
                 }
@@ -123,6 +524,14 @@ public class SandboxService {
             } finally {
                 // 맵에서 제거
                 activeContainers.remove(uuid);
+                sandboxRouter.unregister(uuid);
+                readinessProbe.forget(uuid);
+                logSearchService.stopCapture(uuid);
+                containerStatsService.forget(uuid);
+
+                // 이미지는 재실행을 위해 보관 (디스크 예산 초과 시 ImageRetentionService가 정리)
+                imageRetentionService.release(existing.image());
+                event.complete(stopped);
             }
         }
     }
@@ -131,14 +540,13 @@ public class SandboxService {
      * 특정 프로젝트의 실행 중인 컨테이너 수동 중지
      */
     public boolean stopProject(String uuid) {
-        String containerName = activeContainers.get(uuid);
-        if (containerName == null) {
+        if (!activeContainers.containsKey(uuid)) {
             log.info("No running container found for uuid: {}", uuid);
             return false;
         }
 
-        try {
-            stopExistingContainer(uuid);
+        try (MDC.MDCCloseable ignored = MDC.putCloseable(ProcessRunner.MDC_UUID_KEY, uuid)) {
+            stopExistingContainer(uuid, "manual");
             log.info("Successfully stopped project: {}", uuid);
             return true;
         } catch (Exception e) {
@@ -147,11 +555,26 @@ public class SandboxService {
         }
     }
 
+    /**
+     * 컨테이너 시작 후 첫 응답까지 걸린 시간 (측정 전이면 null)
+     */
+    public Long getFirstResponseMillis(String uuid) {
+        return readinessProbe.getFirstResponseMillis(uuid);
+    }
+
+    /**
+     * 개발 모드에서 마지막 소스 동기화가 반영되기까지 걸린 시간 (측정 전이면 null)
+     */
+    public Long getSyncToVisibleMillis(String uuid) {
+        return readinessProbe.getSyncToVisibleMillis(uuid);
+    }
+
     /**
      * 현재 실행 중인 모든 컨테이너 목록 조회
      */
     public java.util.Map<String, String> getActiveContainers() {
-        return new java.util.HashMap<>(activeContainers);
+        return activeContainers.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().containerName()));
     }
 
     /**
@@ -162,61 +585,124 @@ public class SandboxService {
         if (!activeContainers.isEmpty()) {
             log.info("Cleaning up {} active containers on shutdown...", activeContainers.size());
 
-            for (java.util.Map.Entry<String, String> entry : activeContainers.entrySet()) {
+            for (java.util.Map.Entry<String, ActiveSandbox> entry : activeContainers.entrySet()) {
                 String uuid = entry.getKey();
-                String containerName = entry.getValue();
+                String containerName = entry.getValue().containerName();
+                CleanupEvent event = CleanupEvent.start(uuid, containerName, "shutdown");
 
-                try {
+                try (MDC.MDCCloseable ignored = MDC.putCloseable(ProcessRunner.MDC_UUID_KEY, uuid)) {
                     log.info("Stopping container on shutdown - uuid: {}, container: {}", uuid, containerName);
 
                     ProcessBuilder stopBuilder = new ProcessBuilder("docker", "stop", containerName);
-                    Process stopProcess = stopBuilder.start();
+                    Process stopProcess = processRunner.start(stopBuilder);
                     stopProcess.waitFor(10, TimeUnit.SECONDS);
 
                     ProcessBuilder rmBuilder = new ProcessBuilder("docker", "rm", "-f", containerName);
-                    Process rmProcess = rmBuilder.start();
+                    Process rmProcess = processRunner.start(rmBuilder);
                     rmProcess.waitFor(5, TimeUnit.SECONDS);
+                    event.complete(true);
 
                 } catch (Exception e) {
                     log.error("Failed to cleanup container on shutdown - {}: {}", containerName, e.getMessage());
+                    event.complete(false);
                 }
             }
 
             activeContainers.clear();
             log.info("Container cleanup completed");
         }
+
+        batchExecutor.shutdownNow();
     }
 
     // 나머지 기존 메서드들은 그대로...
 
-    private Path downloadFromS3(String s3Url, Path projectDir) throws IOException {
+    private Path downloadFromS3(String uuid, String framework, String s3Url, Path projectDir, MessageDigest digest)
+            throws IOException {
         log.debug("Downloading file from S3: {}", s3Url);
+        PipelineStageEvent event = PipelineStageEvent.start(uuid, PipelineStageEvent.DOWNLOAD, framework);
 
         Path zipPath = projectDir.resolve("project.zip");
-        try (InputStream in = new URL(s3Url).openStream()) {
+        try (InputStream in = new DigestInputStream(new URL(s3Url).openStream(), digest)) {
             Files.copy(in, zipPath, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            event.complete(PipelineStageEvent.FAILED);
+            throw e;
         }
 
         long fileSize = Files.size(zipPath);
+        event.bytes = fileSize;
+        event.complete(PipelineStageEvent.SUCCESS);
         log.debug("S3 download completed: {} ({} bytes)", zipPath, fileSize);
         return zipPath;
     }
 
-    private void unzip(File zipFile, File destDir) throws IOException {
+    /**
+     * 새 작업 디렉토리 세대에 ZIP 압축 해제 후 교체 (실패하면 이전 세대 유지)
+     * 작업 디렉토리는 ZIP과 같은 구조로 남으므로 (projectRoot 참고) 스냅샷의 파일이 ZIP 항목 경로와 그대로 맞는다.
+     */
+    private void populateWorkspace(String uuid, String framework, Path zipPath) throws IOException {
+        WorkspaceManager.Generation generation = workspaceManager.prepare(uuid, uncompressedSize(zipPath));
+        long startNanos = System.nanoTime();
+        try {
+            unzip(uuid, framework, zipPath.toFile(), generation.dir().toFile(), generation.snapshot());
+            workspaceManager.record(uuid, "populate", generation.tier(), startNanos);
+            workspaceManager.commit(generation);
+        } catch (IOException | RuntimeException e) {
+            workspaceManager.abort(generation);
+            throw e;
+        }
+    }
+
+    private static long uncompressedSize(Path zipPath) throws IOException {
+        try (ZipFile zip = new ZipFile(zipPath.toFile())) {
+            return zip.stream().mapToLong(entry -> Math.max(entry.getSize(), 0)).sum();
+        }
+    }
+
+    private void unzip(String uuid, String framework, File zipFile, File destDir) throws IOException {
+        unzip(uuid, framework, zipFile, destDir, false);
+    }
+
+    /**
+     * @param snapshot destDir가 이전 세대의 스냅샷이면 true
+     *                 같은 파일(크기와 CRC가 같음)은 그대로 두고, ZIP에 없는 파일은 삭제한다.
+     */
+    private void unzip(String uuid, String framework, File zipFile, File destDir, boolean snapshot) throws IOException {
         log.debug("Extracting zip file: {}", zipFile.getName());
+        PipelineStageEvent event = PipelineStageEvent.start(uuid, PipelineStageEvent.EXTRACT, framework);
+        event.bytes = zipFile.length();
+        AtomicInteger entries = new AtomicInteger();
+        AtomicInteger unchanged = new AtomicInteger();
+        Set<Path> extracted = new HashSet<>();
 
         try (ZipFile zip = new ZipFile(zipFile)) {
             zip.stream()
                     .filter(entry -> !isMacOSMetadata(entry.getName()))
                     .forEach(entry -> {
                         try {
-                            extractZipEntry(zip, entry, destDir);
+                            if (!extractZipEntry(zip, entry, destDir)) {
+                                unchanged.incrementAndGet();
+                            }
+                            extracted.add(destDir.toPath().resolve(entry.getName()).normalize());
+                            entries.incrementAndGet();
                         } catch (IOException e) {
                             throw new UncheckedIOException(e);
                         }
                     });
+            if (snapshot) {
+                int removed = removeStaleFiles(destDir.toPath(), extracted);
+                log.info("Snapshot extraction - uuid: {}, entries: {}, unchanged: {}, removed: {}",
+                        uuid, entries.get(), unchanged.get(), removed);
+            }
+        } catch (IOException | RuntimeException e) {
+            event.entries = entries.get();
+            event.complete(PipelineStageEvent.FAILED);
+            throw e;
         }
 
+        event.entries = entries.get();
+        event.complete(PipelineStageEvent.SUCCESS);
         Files.deleteIfExists(zipFile.toPath());
         log.debug("Zip extraction completed");
     }
@@ -228,7 +714,10 @@ public class SandboxService {
                 entryName.startsWith("._");
     }
 
-    private void extractZipEntry(ZipFile zip, ZipEntry entry, File destDir) throws IOException {
+    /**
+     * @return 파일을 새로 썼으면 true, 이미 같은 내용이 있어서 건너뛰었으면 false
+     */
+    private boolean extractZipEntry(ZipFile zip, ZipEntry entry, File destDir) throws IOException {
         File destFile = new File(destDir, entry.getName());
 
         if (!destFile.getCanonicalPath().startsWith(destDir.getCanonicalPath())) {
@@ -236,9 +725,21 @@ public class SandboxService {
         }
 
         if (entry.isDirectory()) {
+            if (destFile.isFile()) {
+                Files.delete(destFile.toPath());
+            }
             destFile.mkdirs();
         } else {
             destFile.getParentFile().mkdirs();
+            if (destFile.isDirectory()) {
+                deleteRecursively(destFile.toPath());
+            } else if (destFile.isFile()) {
+                if (sameContent(destFile.toPath(), entry)) {
+                    return false;
+                }
+                // 스냅샷 파일은 이전 세대와 하드링크로 공유하므로 덮어쓰지 않고 삭제 후 새로 쓴다
+                Files.delete(destFile.toPath());
+            }
             try (InputStream in = zip.getInputStream(entry);
                  FileOutputStream out = new FileOutputStream(destFile)) {
                 in.transferTo(out);
@@ -249,14 +750,94 @@ public class SandboxService {
                 log.debug("Set executable permission for: {}", entry.getName());
             }
         }
+        return true;
+    }
+
+    /**
+     * 프로젝트 루트 (프레임워크 판별 파일이 있는 디렉토리)
+     * 루트에 없고 하위 폴더에 있으면 그 폴더를 빌드 컨텍스트와 개발 모드 마운트 경로로 쓴다.
+     * 파일을 옮기지 않으므로 작업 디렉토리는 업로드된 구조 그대로 남는다 (델타 업로드 매니페스트, 세대 스냅샷과 같은 경로).
+     */
+    private Path projectRoot(Path workspace, String framework) throws IOException {
+        List<String> markers = PROJECT_MARKERS.getOrDefault(framework, List.of());
+        if (markers.stream().anyMatch(marker -> Files.exists(workspace.resolve(marker)))) {
+            return workspace;
+        }
+
+        try (Stream<Path> list = Files.list(workspace)) {
+            return list.sorted()
+                    .filter(Files::isDirectory)
+                    .filter(dir -> !dir.getFileName().toString().startsWith("."))
+                    .filter(dir -> markers.stream().anyMatch(marker -> Files.exists(dir.resolve(marker))))
+                    .findFirst()
+                    .orElse(workspace);
+        }
+    }
+
+    /**
+     * 작업 디렉토리 기준 프로젝트 루트 접두사 ("" 또는 "app/")
+     */
+    private static String projectPrefix(Path workspace, Path projectDir) {
+        return projectDir.equals(workspace) ? "" : workspace.relativize(projectDir).toString().replace('\\', '/') + "/";
+    }
+
+    private static boolean sameContent(Path file, ZipEntry entry) throws IOException {
+        if (entry.getSize() < 0 || entry.getCrc() < 0 || Files.size(file) != entry.getSize()) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        try (InputStream in = new CheckedInputStream(Files.newInputStream(file), crc)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return crc.getValue() == entry.getCrc();
+    }
+
+    /**
+     * 스냅샷에서 이번 ZIP에 없는 파일과 빈 디렉토리 삭제
+     */
+    private int removeStaleFiles(Path root, Set<Path> keep) throws IOException {
+        int removed = 0;
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                if (path.equals(root) || keep.contains(path)) {
+                    continue;
+                }
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    try (Stream<Path> children = Files.list(path)) {
+                        if (children.findAny().isEmpty()) {
+                            Files.delete(path);
+                        }
+                    }
+                } else {
+                    Files.delete(path);
+                    removed++;
+                }
+            }
+        }
+        return removed;
     }
 
-    private void normalizeProjectStructure(File destDir) throws IOException {
-        // 프로젝트 구조 정규화 로직
+    private void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path entry : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(entry);
+            }
+        }
     }
 
-    private void runDockerContainer(String uuid, int port, String framework) throws IOException, InterruptedException {
-        log.info("Running docker container - uuid: {}, port: {}, framework: {}", uuid, port, framework);
+    /**
+     * 빌드 스크립트 실행
+     * @param phase build: 이미지 빌드만, run: 빌드된 이미지로 컨테이너 실행만
+     * @param mode DEV면 작업 디렉토리를 컨테이너에 마운트해서 실행
+     * @return 컨테이너 시작 시점 (System.nanoTime 기준)
+     */
+    private long runDockerContainer(String uuid, int port, String framework, String image, String phase,
+                                    RunMode mode) throws IOException, InterruptedException {
+        log.info("Running docker container - uuid: {}, port: {}, framework: {}, image: {}, phase: {}, mode: {}",
+                uuid, port, framework, image, phase, mode);
 
         File scriptFile = new File("scripts/build_and_run.sh");
         if (!scriptFile.exists()) {
@@ -264,23 +845,38 @@ public class SandboxService {
         }
 
         ProcessBuilder pb = new ProcessBuilder(
-                "bash", "-x", "scripts/build_and_run.sh", uuid, String.valueOf(port), framework
+                "bash", "-x", "scripts/build_and_run.sh", uuid, String.valueOf(port), framework, image, phase,
+                mode.scriptArgument()
         );
 
         pb.directory(new File("."));
         pb.redirectErrorStream(true);
+        // 작업 디렉토리는 세대마다 위치가 달라지므로 스크립트에 실제 경로를 넘긴다
+        // (프로젝트가 하위 폴더에 있으면 그 폴더, 스크립트는 이미 프로젝트 루트라 정규화하지 않음)
+        Path workspace = workspaceManager.current(uuid);
+        if (workspace != null) {
+            pb.environment().put("SANDBOX_WORKDIR", projectRoot(workspace, framework).toAbsolutePath().toString());
+        }
+        pb.environment().put("SANDBOX_PUBLISH_PORTS", sandboxRouter.isPublishPorts() ? "1" : "0");
 
         log.info("Executing command: {}", String.join(" ", pb.command()));
 
-        Process process = pb.start();
+        Process process = processRunner.startBuild(pb);
 
         StringBuilder output = new StringBuilder();
+        AtomicLong startedAtNanos = new AtomicLong();
         CompletableFuture<Void> outputFuture = CompletableFuture.runAsync(() -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            // 빌드 스크립트 출력은 성공/실패와 관계없이 build 스트림으로 보관
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+                 LogArchiveService.SegmentWriter archive = logArchiveService.openWriter(uuid, LogArchiveService.BUILD)) {
                 String line;
                 while ((line = reader.readLine()) != null) {
+                    if (line.contains(CONTAINER_STARTED_MARKER)) {
+                        startedAtNanos.compareAndSet(0, System.nanoTime());
+                    }
                     log.info("DOCKER [{}]: {}", uuid, line);
                     output.append(line).append("\n");
+                    archive.append(line);
                 }
             } catch (IOException e) {
                 log.warn("Failed to read process output", e);
@@ -307,32 +903,133 @@ public class SandboxService {
         if (exitCode != 0) {
             throw new IOException("Docker execution failed:\n" + output);
         }
+
+        return startedAtNanos.get() != 0 ? startedAtNanos.get() : System.nanoTime();
+    }
+
+    /**
+     * 종료된 컨테이너의 보관 로그 (런타임 로그가 없으면 빌드 로그, 둘 다 없으면 null)
+     */
+    private Map<String, Object> archivedLogs(String uuid, String containerName, int lines, String since)
+            throws IOException {
+        String stream = logArchiveService.hasArchive(uuid, LogArchiveService.RUNTIME) ? LogArchiveService.RUNTIME
+                : logArchiveService.hasArchive(uuid, LogArchiveService.BUILD) ? LogArchiveService.BUILD
+                : null;
+        if (stream == null) {
+            return null;
+        }
+
+        LogArchiveService.Tail tail = logArchiveService.tail(uuid, stream, lines, since);
+        String stdout = tail.lines().isEmpty() ? "" : String.join("\n", tail.lines()) + "\n";
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("uuid", uuid);
+        body.put("containerName", containerName);
+        body.put("status", "ARCHIVED");
+        body.put("source", stream);
+        body.put("stdout", stdout);
+        body.put("stderr", "");
+        body.put("logs", stdout);
+        body.put("timestamp", System.currentTimeMillis());
+        body.put("hasLogs", !tail.lines().isEmpty());
+        body.put("linesReturned", tail.lines().size());
+        body.put("truncated", tail.truncated());
+        body.put("message", "컨테이너가 종료되어 보관된 로그를 반환합니다.");
+        return body;
     }
 
+    /**
+     * 실패한 실행의 작업 디렉토리 정리 (휴지통으로 이름만 바꾸고 삭제는 백그라운드)
+     */
     private void cleanupResources(String uuid) {
-        Path projectDir = Paths.get("uploads", uuid);
+        Path projectDir = workspaceManager.current(uuid);
+        CleanupEvent event = CleanupEvent.start(uuid, String.valueOf(projectDir), "failure");
+        workspaceSyncService.invalidate(uuid);
         try {
-            if (Files.exists(projectDir)) {
-                Files.walk(projectDir)
-                        .sorted((a, b) -> b.compareTo(a))
-                        .map(Path::toFile)
-                        .forEach(File::delete);
-            }
-        } catch (IOException e) {
+            workspaceManager.discard(uuid);
+            event.complete(true);
+        } catch (RuntimeException e) {
             log.warn("Failed to cleanup project directory: {}", projectDir, e);
+            event.complete(false);
+        }
+    }
+
+    /**
+     * 컨테이너 상태 조회 (docker ps)
+     * 같은 uuid에 대한 동시 조회는 docker 호출 하나로 병합한다.
+     */
+    public Map<String, Object> getContainerStatus(String uuid) throws IOException {
+        return coalesce(statusRequests, "status", uuid, () -> fetchContainerStatus(uuid));
+    }
+
+    private Map<String, Object> fetchContainerStatus(String uuid) throws IOException {
+        String containerName = "sandbox-" + uuid;
+
+        ProcessRunner.CommandResult result = processRunner.tryRun(10,
+                "docker", "ps", "--filter", "name=" + containerName, "--format", "{{.Status}}");
+        if (!result.isSuccess()) {
+            throw new IOException("docker ps failed: " + result.output().trim());
+        }
+
+        String status = result.output().lines().findFirst().orElse("").trim();
+        if (status.isEmpty()) {
+            return Map.of(
+                    "uuid", uuid,
+                    "status", "STOPPED",
+                    "details", "Container not found or stopped"
+            );
         }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("uuid", uuid);
+        body.put("status", "RUNNING");
+        body.put("details", status);
+
+        Long firstResponseMillis = getFirstResponseMillis(uuid);
+        if (firstResponseMillis != null) {
+            body.put("firstResponseMillis", firstResponseMillis);
+        }
+
+        Long syncToVisibleMillis = getSyncToVisibleMillis(uuid);
+        if (syncToVisibleMillis != null) {
+            body.put("syncToVisibleMillis", syncToVisibleMillis);
+        }
+        return body;
     }
 
     /**
      * 컨테이너 로그 조회
+     * 같은 조건의 동시 조회는 docker 호출 하나로 병합한다.
+     * @throws ProcessLimitExceededException 동시 실행 프로세스 한도 초과
      */
-    public Map<String, Object> getContainerLogs(String uuid, int lines, boolean follow, String since) {
+    public Map<String, Object> getContainerLogs(String uuid, int lines, boolean follow, String since) throws IOException {
+        String key = uuid + "|" + lines + "|" + follow + "|" + since;
+        return coalesce(logRequests, "logs", key, () -> fetchContainerLogs(uuid, lines, follow, since));
+    }
+
+    private Map<String, Object> coalesce(RequestCoalescer<String, Map<String, Object>> coalescer, String operation,
+                                         String key, Callable<Map<String, Object>> call) throws IOException {
+        try {
+            RequestCoalescer.Outcome<Map<String, Object>> outcome = coalescer.execute(key, call);
+            if (outcome.coalesced()) {
+                meterRegistry.counter("sandbox.requests.coalesced", "operation", operation).increment();
+            }
+            return outcome.value();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private Map<String, Object> fetchContainerLogs(String uuid, int lines, boolean follow, String since)
+            throws ProcessLimitExceededException {
         try {
             String containerName = "sandbox-" + uuid;
 
             // 먼저 컨테이너 존재 여부 확인
             ProcessBuilder checkBuilder = new ProcessBuilder("docker", "ps", "-a", "--filter", "name=" + containerName, "--format", "{{.Names}}");
-            Process checkProcess = checkBuilder.start();
+            Process checkProcess = processRunner.tryStart(checkBuilder);
 
             StringBuilder containerCheck = new StringBuilder();
             try (BufferedReader reader = new BufferedReader(new InputStreamReader(checkProcess.getInputStream()))) {
@@ -345,6 +1042,11 @@ public class SandboxService {
             checkProcess.waitFor(5, TimeUnit.SECONDS);
 
             if (containerCheck.toString().trim().isEmpty()) {
+                // 종료 후 삭제된 컨테이너는 보관된 로그로 응답
+                Map<String, Object> archived = archivedLogs(uuid, containerName, lines, since);
+                if (archived != null) {
+                    return archived;
+                }
                 return Map.of(
                         "uuid", uuid,
                         "containerName", containerName,
@@ -380,7 +1082,7 @@ public class SandboxService {
             command.add(containerName);
 
             ProcessBuilder pb = new ProcessBuilder(command);
-            Process process = pb.start();
+            Process process = processRunner.tryStart(pb);
 
             StringBuilder stdout = new StringBuilder();
             StringBuilder stderr = new StringBuilder();
@@ -434,6 +1136,8 @@ public class SandboxService {
                     "linesReturned", stdoutStr.split("\n").length
             );
 
+        } catch (ProcessLimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to get container logs: {}", uuid, e);
             return Map.of(
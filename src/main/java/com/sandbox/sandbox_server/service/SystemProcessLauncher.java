@@ -0,0 +1,16 @@
+package com.sandbox.sandbox_server.service;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+@Component
+@Profile("!simulated")
+public class SystemProcessLauncher implements ProcessLauncher {
+
+    @Override
+    public Process launch(ProcessBuilder pb) throws IOException {
+        return pb.start();
+    }
+}
@@ -0,0 +1,523 @@
+package com.sandbox.sandbox_server.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 프로젝트 작업 디렉토리 관리
+ * 작업 디렉토리는 {root}/{uuid}/g-NNNNNN 세대 디렉토리이며, 메모리 예산 안에서는 tmpfs, 넘으면 디스크에 만든다.
+ * 재실행할 때는 이전 세대를 하드링크로 복제한 새 세대를 만들고 바뀐 파일만 삭제 후 다시 쓴 뒤 교체한다.
+ * 정리는 휴지통 디렉토리로 이름만 바꾸고, 실제 삭제는 백그라운드에서 한다.
+ * 예약은 만들 때의 예상 크기로 시작하고, 제자리에서 커지는 작업 디렉토리(델타 업로드, 개발 모드)는 settle로 실제 크기를 반영한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WorkspaceManager {
+
+    public enum Tier { TMPFS, DISK }
+
+    private static final String TRASH_DIR = ".trash";
+    private static final String SCRATCH_DIR = ".scratch";
+    private static final Pattern GENERATION = Pattern.compile("^g-(\\d{6})$");
+    private static final Pattern VALID_UUID = Pattern.compile("^[A-Za-z0-9][A-Za-z0-9_.-]*$");
+    // 빌드할 때마다 다시 만드는 파일이라 스냅샷에서 제외 (제자리에 덮어써서 이전 세대와 공유하면 안 됨)
+    // 프로젝트가 하위 폴더에 있으면 그 폴더에 생성되므로 한 단계 아래까지 본다
+    private static final Set<String> GENERATED = Set.of("Dockerfile", ".sandbox");
+
+    private final MeterRegistry meterRegistry;
+
+    // uuid -> 현재 세대
+    private final ConcurrentHashMap<String, Workspace> workspaces = new ConcurrentHashMap<>();
+    // uuid -> 작업별 마지막 I/O 시간 (ms)
+    private final ConcurrentHashMap<String, Map<String, Long>> ioMillis = new ConcurrentHashMap<>();
+    // tmpfs에 예약된 바이트 (현재 세대 + 준비 중인 세대)
+    private final AtomicLong tmpfsReserved = new AtomicLong();
+    private final AtomicLong generationCounter = new AtomicLong();
+
+    private final ExecutorService purgeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "workspace-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean tmpfsAvailable;
+
+    @Value("${sandbox.workspace.disk-root:uploads}")
+    private Path diskRoot;
+
+    @Value("${sandbox.workspace.tmpfs.enabled:true}")
+    private boolean tmpfsEnabled;
+
+    @Value("${sandbox.workspace.tmpfs.root:/dev/shm/sandbox-workspaces}")
+    private Path tmpfsRoot;
+
+    @Value("${sandbox.workspace.tmpfs.budget:1GB}")
+    private DataSize tmpfsBudget;
+
+    // 크기를 미리 알 수 없는 작업 디렉토리(델타 업로드)의 예약 크기
+    @Value("${sandbox.workspace.default-reservation:64MB}")
+    private DataSize defaultReservation;
+
+    @Value("${sandbox.workspace.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(diskRoot.resolve(TRASH_DIR));
+        Files.createDirectories(diskRoot.resolve(SCRATCH_DIR));
+
+        if (tmpfsEnabled) {
+            try {
+                Files.createDirectories(tmpfsRoot.resolve(TRASH_DIR));
+                tmpfsAvailable = true;
+            } catch (IOException e) {
+                log.warn("tmpfs workspace root unavailable, using disk only - root: {}: {}", tmpfsRoot, e.getMessage());
+            }
+        }
+
+        adoptExisting(diskRoot, Tier.DISK);
+        if (tmpfsAvailable) {
+            adoptExisting(tmpfsRoot, Tier.TMPFS);
+        }
+
+        Gauge.builder("sandbox.workspace.tmpfs.reserved", tmpfsReserved, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("sandbox.workspace.count", workspaces, Map::size)
+                .register(meterRegistry);
+
+        log.info("Workspace manager ready - disk: {}, tmpfs: {} (budget {} MB), adopted: {}, reserved: {} bytes",
+                diskRoot.toAbsolutePath(), tmpfsAvailable ? tmpfsRoot : "disabled", tmpfsBudget.toMegabytes(),
+                workspaces.size(), tmpfsReserved.get());
+    }
+
+    /**
+     * 현재 작업 디렉토리 (없으면 null)
+     */
+    public Path current(String uuid) {
+        Workspace workspace = workspaces.get(validate(uuid));
+        return workspace != null ? workspace.dir() : null;
+    }
+
+    /**
+     * 현재 작업 디렉토리, 없으면 빈 세대를 만들어 바로 사용 (델타 업로드용)
+     */
+    public synchronized Path open(String uuid) throws IOException {
+        Workspace existing = workspaces.get(validate(uuid));
+        if (existing != null) {
+            return existing.dir();
+        }
+
+        Generation generation = createGeneration(uuid, defaultReservation.toBytes(), null, true);
+        Workspace workspace = new Workspace(generation.dir(), generation.tier(), generation.reservedBytes());
+        workspaces.put(uuid, workspace);
+        return workspace.dir();
+    }
+
+    /**
+     * 새 세대 준비 (스냅샷이 켜져 있으면 현재 세대를 하드링크로 복제)
+     * 새 세대에 파일을 쓸 때는 제자리에 덮어쓰지 말고 삭제 후 다시 써야 이전 세대가 바뀌지 않는다.
+     * @param sizeHint 예상 크기 (tmpfs 예산 판단용)
+     */
+    public Generation prepare(String uuid, long sizeHint) throws IOException {
+        Workspace previous;
+        Generation generation;
+        synchronized (this) {
+            previous = workspaces.get(validate(uuid));
+            generation = createGeneration(uuid, Math.max(sizeHint, 0), previous, true);
+        }
+
+        if (previous != null && snapshotEnabled && Files.isDirectory(previous.dir())) {
+            long startNanos = System.nanoTime();
+            try {
+                SnapshotStats stats = snapshot(previous.dir(), generation.dir(), previous.tier() == generation.tier());
+                record(uuid, "snapshot", generation.tier(), startNanos);
+                log.info("Workspace snapshot - uuid: {}, from: {}, linked: {}, copied: {}, {} ms",
+                        uuid, previous.dir(), stats.linked(), stats.copied(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                return new Generation(uuid, generation.dir(), generation.tier(), generation.reservedBytes(), true);
+            } catch (IOException e) {
+                // 스냅샷 없이 빈 세대로 진행
+                log.warn("Workspace snapshot failed, starting empty - uuid: {}: {}", uuid, e.getMessage());
+                purge(generation.dir());
+                Files.createDirectories(generation.dir());
+            }
+        }
+        return generation;
+    }
+
+    /**
+     * 준비한 세대를 현재 세대로 교체하고 이전 세대는 휴지통으로
+     */
+    public void commit(Generation generation) {
+        long startNanos = System.nanoTime();
+        Workspace previous;
+        synchronized (this) {
+            previous = workspaces.put(generation.uuid(),
+                    new Workspace(generation.dir(), generation.tier(), generation.reservedBytes()));
+        }
+        if (previous != null) {
+            retire(previous);
+        }
+        record(generation.uuid(), "commit", generation.tier(), startNanos);
+        log.info("Workspace committed - uuid: {}, dir: {}, tier: {}", generation.uuid(), generation.dir(),
+                generation.tier());
+    }
+
+    /**
+     * 작업 디렉토리의 실제 크기로 tmpfs 예약을 늘린다 (줄이지는 않음)
+     * @return tmpfs 예산을 넘었으면 true (relocate로 디스크로 옮길 대상)
+     */
+    public boolean settle(String uuid) throws IOException {
+        Workspace workspace = workspaces.get(validate(uuid));
+        if (workspace == null || workspace.tier() != Tier.TMPFS) {
+            return false;
+        }
+        long actual = sizeOf(workspace.dir());
+        synchronized (this) {
+            if (workspaces.get(uuid) != workspace) {
+                return false;
+            }
+            if (actual > workspace.reservedBytes()) {
+                tmpfsReserved.addAndGet(actual - workspace.reservedBytes());
+                workspaces.put(uuid, new Workspace(workspace.dir(), workspace.tier(), actual));
+            }
+            return tmpfsReserved.get() > tmpfsBudget.toBytes();
+        }
+    }
+
+    /**
+     * tmpfs에 있는 현재 세대를 디스크로 복사해 교체 (작업 디렉토리를 마운트한 컨테이너가 없을 때만 호출)
+     */
+    public void relocate(String uuid) throws IOException {
+        Workspace workspace = workspaces.get(validate(uuid));
+        if (workspace == null || workspace.tier() != Tier.TMPFS) {
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        Generation generation;
+        synchronized (this) {
+            generation = createGeneration(uuid, 0, null, false);
+        }
+        try {
+            snapshot(workspace.dir(), generation.dir(), false);
+        } catch (IOException e) {
+            abort(generation);
+            throw e;
+        }
+        commit(generation);
+
+        meterRegistry.counter("sandbox.workspace.tmpfs.relocated").increment();
+        record(uuid, "relocate", Tier.DISK, startNanos);
+        log.info("Workspace moved to disk (tmpfs budget exceeded) - uuid: {}, reserved: {} bytes, {} ms",
+                uuid, workspace.reservedBytes(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * 준비한 세대 폐기 (현재 세대는 그대로)
+     */
+    public void abort(Generation generation) {
+        retire(new Workspace(generation.dir(), generation.tier(), generation.reservedBytes()));
+    }
+
+    /**
+     * 작업 디렉토리 정리 (이름 변경 한 번, 삭제는 백그라운드)
+     */
+    public void discard(String uuid) {
+        long startNanos = System.nanoTime();
+        Workspace workspace;
+        synchronized (this) {
+            workspace = workspaces.remove(validate(uuid));
+        }
+        if (workspace != null) {
+            retire(workspace);
+            record(uuid, "teardown", workspace.tier(), startNanos);
+        }
+    }
+
+    /**
+     * 다운로드 파일, 동기화용 임시 디렉토리 등 작업 디렉토리 밖에 두는 파일 위치 (디스크)
+     */
+    public Path scratchDir(String uuid) throws IOException {
+        return Files.createDirectories(diskRoot.resolve(SCRATCH_DIR).resolve(validate(uuid)));
+    }
+
+    /**
+     * 작업 I/O 시간 기록
+     * @param op snapshot, populate, commit, teardown, purge 등
+     */
+    public void record(String uuid, String op, Tier tier, long startNanos) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        meterRegistry.timer("sandbox.workspace.io", "op", op, "tier", tier.name().toLowerCase())
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (uuid != null) {
+            ioMillis.computeIfAbsent(uuid, key -> new ConcurrentHashMap<>())
+                    .put(op, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+    }
+
+    /**
+     * 작업 디렉토리 위치와 작업별 마지막 I/O 시간 (없으면 null)
+     */
+    public Map<String, Object> describe(String uuid) {
+        Workspace workspace = workspaces.get(validate(uuid));
+        if (workspace == null) {
+            return null;
+        }
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("dir", workspace.dir().toAbsolutePath().toString());
+        info.put("tier", workspace.tier().name().toLowerCase());
+        info.put("reservedBytes", workspace.reservedBytes());
+        info.put("ioMillis", ioMillis.getOrDefault(uuid, Map.of()));
+        info.put("tmpfsReservedBytes", tmpfsReserved.get());
+        info.put("tmpfsBudgetBytes", tmpfsAvailable ? tmpfsBudget.toBytes() : 0);
+        return info;
+    }
+
+    /**
+     * 예산과 tmpfs 남은 공간을 보고 위치를 정해 빈 세대 디렉토리 생성
+     * @param replacing 교체될 현재 세대 (tmpfs에 있으면 그만큼은 곧 반환되는 것으로 본다)
+     * @param tmpfsAllowed false면 항상 디스크
+     */
+    private Generation createGeneration(String uuid, long sizeHint, Workspace replacing, boolean tmpfsAllowed)
+            throws IOException {
+        long released = replacing != null && replacing.tier() == Tier.TMPFS ? replacing.reservedBytes() : 0;
+        Tier tier = Tier.DISK;
+        if (tmpfsAllowed && tmpfsAvailable && tmpfsReserved.get() - released + sizeHint <= tmpfsBudget.toBytes()
+                && usableSpace(tmpfsRoot) > sizeHint) {
+            tier = Tier.TMPFS;
+            tmpfsReserved.addAndGet(sizeHint);
+        } else if (tmpfsAllowed && tmpfsAvailable) {
+            meterRegistry.counter("sandbox.workspace.tmpfs.fallback").increment();
+            log.info("tmpfs budget exceeded, using disk - uuid: {}, size hint: {} bytes, reserved: {} bytes",
+                    uuid, sizeHint, tmpfsReserved.get());
+        }
+
+        Path root = tier == Tier.TMPFS ? tmpfsRoot : diskRoot;
+        Path dir = root.resolve(uuid).resolve(String.format("g-%06d", generationCounter.incrementAndGet()));
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            if (tier == Tier.TMPFS) {
+                tmpfsReserved.addAndGet(-sizeHint);
+            }
+            throw e;
+        }
+        return new Generation(uuid, dir, tier, tier == Tier.TMPFS ? sizeHint : 0, false);
+    }
+
+    /**
+     * 디렉토리 구조는 새로 만들고 파일은 하드링크 (위치가 다르거나 링크를 지원하지 않으면 복사)
+     */
+    private SnapshotStats snapshot(Path source, Path target, boolean link) throws IOException {
+        long[] counts = new long[2];
+        try (Stream<Path> walk = Files.walk(source)) {
+            for (Path path : (Iterable<Path>) walk::iterator) {
+                Path relative = source.relativize(path);
+                if (isGenerated(relative)) {
+                    continue;
+                }
+                Path dest = target.resolve(relative.toString());
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    Files.createDirectories(dest);
+                } else if (link && Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)) {
+                    try {
+                        Files.createLink(dest, path);
+                        counts[0]++;
+                    } catch (FileSystemException | UnsupportedOperationException e) {
+                        Files.copy(path, dest, StandardCopyOption.COPY_ATTRIBUTES);
+                        counts[1]++;
+                    }
+                } else {
+                    Files.copy(path, dest, LinkOption.NOFOLLOW_LINKS, StandardCopyOption.COPY_ATTRIBUTES);
+                    counts[1]++;
+                }
+            }
+        }
+        return new SnapshotStats(counts[0], counts[1]);
+    }
+
+    /**
+     * 휴지통으로 이름을 바꾸고 예약 반환, 삭제는 백그라운드
+     */
+    private void retire(Workspace workspace) {
+        if (workspace.tier() == Tier.TMPFS) {
+            tmpfsReserved.addAndGet(-workspace.reservedBytes());
+        }
+
+        Path root = workspace.tier() == Tier.TMPFS ? tmpfsRoot : diskRoot;
+        Path trash = root.resolve(TRASH_DIR).resolve(
+                workspace.dir().getParent().getFileName() + "-" + workspace.dir().getFileName() + "-" + System.nanoTime());
+        Path target = workspace.dir();
+        try {
+            Files.move(workspace.dir(), trash, StandardCopyOption.ATOMIC_MOVE);
+            target = trash;
+        } catch (IOException e) {
+            log.warn("Failed to move workspace to trash, deleting in place - dir: {}: {}", workspace.dir(), e.getMessage());
+        }
+
+        Path toPurge = target;
+        Path uuidDir = workspace.dir().getParent();
+        purgeExecutor.submit(() -> {
+            long startNanos = System.nanoTime();
+            purge(toPurge);
+            deleteIfEmpty(uuidDir);
+            record(null, "purge", workspace.tier(), startNanos);
+        });
+    }
+
+    /**
+     * 재시작 전에 만든 작업 디렉토리 중 가장 최근 세대를 다시 사용하고 나머지는 정리
+     */
+    private void adoptExisting(Path root, Tier tier) throws IOException {
+        try (Stream<Path> trash = Files.list(root.resolve(TRASH_DIR))) {
+            trash.forEach(dir -> purgeExecutor.submit(() -> purge(dir)));
+        }
+
+        List<Path> uuidDirs;
+        try (Stream<Path> list = Files.list(root)) {
+            uuidDirs = list.filter(Files::isDirectory)
+                    .filter(dir -> !dir.getFileName().toString().startsWith("."))
+                    .toList();
+        }
+
+        for (Path uuidDir : uuidDirs) {
+            String uuid = uuidDir.getFileName().toString();
+            List<Path> generations = new ArrayList<>();
+            try (Stream<Path> list = Files.list(uuidDir)) {
+                list.forEach(generations::add);
+            }
+            generations.sort(Comparator.comparing(path -> path.getFileName().toString()));
+
+            Path latest = null;
+            for (Path generation : generations) {
+                Matcher matcher = GENERATION.matcher(generation.getFileName().toString());
+                if (matcher.matches() && Files.isDirectory(generation)) {
+                    latest = generation;
+                    generationCounter.accumulateAndGet(Long.parseLong(matcher.group(1)), Math::max);
+                }
+            }
+
+            Workspace existing = workspaces.get(uuid);
+            if (latest == null || !VALID_UUID.matcher(uuid).matches()
+                    || (existing != null && existing.dir().getFileName().toString()
+                    .compareTo(latest.getFileName().toString()) > 0)) {
+                // 세대 구조가 아닌 예전 uploads/uuid, 또는 다른 위치에 더 최근 세대가 있음
+                retire(new Workspace(latest != null ? latest : uuidDir, tier, 0));
+                continue;
+            }
+
+            long size = tier == Tier.TMPFS ? sizeOf(latest) : 0;
+            tmpfsReserved.addAndGet(size);
+            Workspace replaced = workspaces.put(uuid, new Workspace(latest, tier, size));
+            if (replaced != null) {
+                retire(replaced);
+            }
+            for (Path generation : generations) {
+                if (!generation.equals(latest)) {
+                    retire(new Workspace(generation, tier, 0));
+                }
+            }
+        }
+    }
+
+    private void purge(Path path) {
+        try {
+            if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+                return;
+            }
+            try (Stream<Path> walk = Files.walk(path)) {
+                for (Path entry : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.deleteIfExists(entry);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to purge workspace: {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static boolean isGenerated(Path relative) {
+        int count = relative.getNameCount();
+        return (count > 0 && GENERATED.contains(relative.getName(0).toString()))
+                || (count > 1 && GENERATED.contains(relative.getName(1).toString()));
+    }
+
+    private static void deleteIfEmpty(Path dir) {
+        try (Stream<Path> children = Files.list(dir)) {
+            if (children.findAny().isEmpty()) {
+                Files.deleteIfExists(dir);
+            }
+        } catch (IOException e) {
+            // 새 세대가 만들어지는 중이거나 이미 삭제됨
+        }
+    }
+
+    private static long sizeOf(Path dir) throws IOException {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            return walk.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private static long usableSpace(Path root) {
+        try {
+            return Files.getFileStore(root).getUsableSpace();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static String validate(String uuid) {
+        if (uuid == null || !VALID_UUID.matcher(uuid).matches() || uuid.contains("..")) {
+            throw new IllegalArgumentException("잘못된 uuid입니다: " + uuid);
+        }
+        return uuid;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 남은 삭제 작업은 다음 시작 시 휴지통 정리로 처리
+        purgeExecutor.shutdownNow();
+    }
+
+    /**
+     * @param snapshot 이전 세대를 복제해서 만들었는지 (true면 파일을 제자리에 덮어쓰면 안 됨)
+     */
+    public record Generation(String uuid, Path dir, Tier tier, long reservedBytes, boolean snapshot) {
+    }
+
+    private record Workspace(Path dir, Tier tier, long reservedBytes) {
+    }
+
+    private record SnapshotStats(long linked, long copied) {
+    }
+}
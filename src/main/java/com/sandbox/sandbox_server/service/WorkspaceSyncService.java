@@ -0,0 +1,436 @@
+package com.sandbox.sandbox_server.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 파일 단위 변경분 업로드
+ * 클라이언트가 보낸 매니페스트(경로 -> sha256)와 작업 디렉토리(WorkspaceManager)를 비교해
+ * 없는 파일만 받고, 매니페스트에 없는 파일은 삭제한다.
+ * 서버가 생성하는 파일(Dockerfile, .sandbox/)은 비교 대상에서 제외한다.
+ * 프로젝트가 하위 폴더에 있으면 작업 디렉토리는 업로드된 구조 그대로 두고, 생성 파일만 그 폴더 기준으로 판별한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WorkspaceSyncService {
+
+    private static final Set<String> GENERATED_FILES = Set.of("Dockerfile", "project.zip");
+    private static final String GENERATED_DIR = ".sandbox/";
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+
+    private final MeterRegistry meterRegistry;
+    private final WorkspaceManager workspaceManager;
+
+    // uuid -> 현재 작업 디렉토리 상태 (경로 -> sha256)
+    private final ConcurrentHashMap<String, Map<String, String>> manifests = new ConcurrentHashMap<>();
+    // uuid -> 마지막 매니페스트 요청으로 받은 목표 상태
+    private final ConcurrentHashMap<String, Map<String, String>> targets = new ConcurrentHashMap<>();
+    // uuid -> 프로젝트 루트 경로 접두사 (작업 디렉토리 루트면 "", 하위 폴더면 "app/")
+    private final ConcurrentHashMap<String, String> projectRoots = new ConcurrentHashMap<>();
+    // uuid별 동기화 잠금
+    private final ConcurrentHashMap<String, Object> locks = new ConcurrentHashMap<>();
+
+    /**
+     * 매니페스트 적용
+     * 매니페스트에 없는 파일은 바로 삭제하고, 서버에 없거나 내용이 다른 파일 목록을 반환한다.
+     */
+    public ManifestDiff applyManifest(String uuid, Map<String, String> files) throws IOException {
+        long startNanos = System.nanoTime();
+        Map<String, String> target = new TreeMap<>();
+        for (Map.Entry<String, String> entry : files.entrySet()) {
+            String hash = entry.getValue() == null ? "" : entry.getValue().toLowerCase(Locale.ROOT);
+            if (!SHA256.matcher(hash).matches()) {
+                throw new IllegalArgumentException("잘못된 sha256 값입니다: " + entry.getKey());
+            }
+            String path = normalizePath(entry.getKey());
+            if (!isGenerated(uuid, path)) {
+                target.put(path, hash);
+            }
+        }
+
+        synchronized (lockFor(uuid)) {
+            Path root = workspaceManager.open(uuid);
+            Map<String, String> current = loadManifest(uuid);
+
+            List<String> deleted = new ArrayList<>();
+            for (String path : new ArrayList<>(current.keySet())) {
+                if (!target.containsKey(path)) {
+                    Files.deleteIfExists(resolve(root, path));
+                    current.remove(path);
+                    deleted.add(path);
+                }
+            }
+            if (!deleted.isEmpty()) {
+                deleteEmptyDirectories(root);
+            }
+
+            List<String> missing = missingFiles(current, target);
+            targets.put(uuid, target);
+
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            meterRegistry.timer("sandbox.workspace.delta.apply", "step", "manifest")
+                    .record(elapsedMillis, TimeUnit.MILLISECONDS);
+            log.info("Workspace manifest applied - uuid: {}, files: {}, missing: {}, deleted: {}, {} ms",
+                    uuid, target.size(), missing.size(), deleted.size(), elapsedMillis);
+
+            return new ManifestDiff(missing, deleted, target.size() - missing.size(), elapsedMillis);
+        }
+    }
+
+    /**
+     * 개별 파일 업로드 적용 (파일명 = 프로젝트 기준 상대 경로)
+     */
+    public UploadResult applyFiles(String uuid, Map<String, InputStream> files) throws IOException {
+        long startNanos = System.nanoTime();
+
+        synchronized (lockFor(uuid)) {
+            Map<String, String> target = requireTarget(uuid);
+            long bytes = 0;
+            for (Map.Entry<String, InputStream> file : files.entrySet()) {
+                bytes += writeFile(uuid, target, normalizePath(file.getKey()), file.getValue());
+            }
+            return uploadResult(uuid, target, files.size(), bytes, startNanos);
+        }
+    }
+
+    /**
+     * 변경된 파일만 담은 ZIP 패치 적용
+     */
+    public UploadResult applyPatch(String uuid, InputStream zip) throws IOException {
+        long startNanos = System.nanoTime();
+
+        synchronized (lockFor(uuid)) {
+            Map<String, String> target = requireTarget(uuid);
+            int written = 0;
+            long bytes = 0;
+            try (ZipInputStream in = new ZipInputStream(zip)) {
+                ZipEntry entry;
+                while ((entry = in.getNextEntry()) != null) {
+                    if (entry.isDirectory()) {
+                        continue;
+                    }
+                    bytes += writeFile(uuid, target, normalizePath(entry.getName()), in);
+                    written++;
+                }
+            }
+            return uploadResult(uuid, target, written, bytes, startNanos);
+        }
+    }
+
+    /**
+     * 작업 디렉토리 전체의 내용 해시 (이미지 태그 결정용)
+     * 매니페스트의 파일이 모두 업로드되지 않았으면 IllegalStateException
+     */
+    public byte[] treeHash(String uuid) throws IOException {
+        synchronized (lockFor(uuid)) {
+            Map<String, String> target = requireTarget(uuid);
+            List<String> missing = missingFiles(loadManifest(uuid), target);
+            if (!missing.isEmpty()) {
+                throw new IllegalStateException("업로드되지 않은 파일이 " + missing.size() + "개 있습니다.");
+            }
+
+            MessageDigest digest = sha256();
+            for (Map.Entry<String, String> entry : target.entrySet()) {
+                digest.update((entry.getKey() + "\0" + entry.getValue() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return digest.digest();
+        }
+    }
+
+    /**
+     * 다른 디렉토리(새로 받은 ZIP의 압축 해제 결과 등)와 같아지도록 작업 디렉토리 갱신
+     * 내용이 다른 파일만 덮어쓰고, 없어진 파일은 삭제한다. (개발 모드 컨테이너는 마운트로 바로 반영)
+     */
+    public SyncResult syncFrom(String uuid, Path sourceRoot) throws IOException {
+        long startNanos = System.nanoTime();
+
+        synchronized (lockFor(uuid)) {
+            Path root = workspaceManager.open(uuid);
+
+            Set<String> sourceFiles = new HashSet<>();
+            int written = 0;
+            long bytes = 0;
+            try (Stream<Path> paths = Files.walk(sourceRoot)) {
+                for (Path source : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                    String path = sourceRoot.relativize(source).toString().replace('\\', '/');
+                    if (isGenerated(uuid, path)) {
+                        continue;
+                    }
+                    sourceFiles.add(path);
+
+                    Path dest = resolve(root, path);
+                    if (Files.isRegularFile(dest) && Files.mismatch(source, dest) == -1) {
+                        continue;
+                    }
+                    Files.createDirectories(dest.getParent());
+                    Path tmp = Files.createTempFile(dest.getParent(), ".upload-", ".tmp");
+                    try {
+                        Files.copy(source, tmp, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                        Files.move(tmp, dest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    } finally {
+                        Files.deleteIfExists(tmp);
+                    }
+                    written++;
+                    bytes += Files.size(dest);
+                }
+            }
+
+            int deleted = 0;
+            try (Stream<Path> paths = Files.walk(root)) {
+                List<Path> stale = paths.filter(Files::isRegularFile)
+                        .filter(file -> {
+                            String path = root.relativize(file).toString().replace('\\', '/');
+                            return !isGenerated(uuid, path) && !sourceFiles.contains(path);
+                        })
+                        .toList();
+                for (Path file : stale) {
+                    Files.deleteIfExists(file);
+                    deleted++;
+                }
+            }
+            if (deleted > 0) {
+                deleteEmptyDirectories(root);
+            }
+
+            // 작업 디렉토리 상태가 바뀌었으므로 델타 업로드 상태 폐기
+            manifests.remove(uuid);
+            targets.remove(uuid);
+            // 개발 모드 컨테이너가 마운트 중이므로 옮기지 않고 예약만 반영
+            workspaceManager.settle(uuid);
+
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            meterRegistry.timer("sandbox.workspace.delta.apply", "step", "sync")
+                    .record(elapsedMillis, TimeUnit.MILLISECONDS);
+            log.info("Workspace synced - uuid: {}, written: {}, deleted: {}, bytes: {}, {} ms",
+                    uuid, written, deleted, bytes, elapsedMillis);
+
+            return new SyncResult(written, deleted, bytes, elapsedMillis);
+        }
+    }
+
+    /**
+     * 작업 디렉토리 실제 크기를 tmpfs 예약에 반영하고, 예산을 넘었으면 디스크로 옮긴다
+     * 업로드와 겹치지 않도록 동기화 잠금 안에서 처리하며, 작업 디렉토리를 마운트한 컨테이너가 없을 때만 호출한다.
+     */
+    public void settleWorkspace(String uuid) throws IOException {
+        synchronized (lockFor(uuid)) {
+            if (workspaceManager.settle(uuid)) {
+                workspaceManager.relocate(uuid);
+            }
+        }
+    }
+
+    /**
+     * 빌드 컨텍스트로 쓰는 프로젝트 루트 기록 (서버가 Dockerfile, .sandbox/를 생성하는 위치)
+     * @param prefix 작업 디렉토리 기준 상대 경로 ("" 또는 "app/")
+     */
+    public void setProjectRoot(String uuid, String prefix) {
+        synchronized (lockFor(uuid)) {
+            projectRoots.put(uuid, prefix);
+        }
+    }
+
+    /**
+     * 작업 디렉토리가 다른 경로(ZIP 압축 해제, 정리 등)로 바뀌었을 때 캐시된 상태 폐기
+     */
+    public void invalidate(String uuid) {
+        synchronized (lockFor(uuid)) {
+            manifests.remove(uuid);
+            targets.remove(uuid);
+            projectRoots.remove(uuid);
+        }
+    }
+
+    private long writeFile(String uuid, Map<String, String> target, String path, InputStream in) throws IOException {
+        String expected = target.get(path);
+        if (expected == null) {
+            throw new IllegalArgumentException("매니페스트에 없는 파일입니다: " + path);
+        }
+
+        Path dest = resolve(workspaceManager.open(uuid), path);
+        Files.createDirectories(dest.getParent());
+        Path tmp = Files.createTempFile(dest.getParent(), ".upload-", ".tmp");
+
+        try {
+            MessageDigest digest = sha256();
+            long bytes;
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                bytes = new DigestInputStream(in, digest).transferTo(out);
+            }
+
+            String actual = HexFormat.of().formatHex(digest.digest());
+            if (!actual.equals(expected)) {
+                throw new IllegalArgumentException("파일 해시가 매니페스트와 다릅니다: " + path);
+            }
+
+            Files.move(tmp, dest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (path.endsWith("gradlew") || path.endsWith(".sh")) {
+                dest.toFile().setExecutable(true);
+            }
+            loadManifest(uuid).put(path, actual);
+            return bytes;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private UploadResult uploadResult(String uuid, Map<String, String> target, int written, long bytes, long startNanos)
+            throws IOException {
+        // 제자리에서 커진 만큼 tmpfs 예약 반영 (디스크 이동은 다음 실행 때)
+        workspaceManager.settle(uuid);
+        List<String> missing = missingFiles(loadManifest(uuid), target);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        meterRegistry.counter("sandbox.workspace.delta.bytes").increment(bytes);
+        meterRegistry.timer("sandbox.workspace.delta.apply", "step", "upload")
+                .record(elapsedMillis, TimeUnit.MILLISECONDS);
+        log.info("Workspace files applied - uuid: {}, written: {}, bytes: {}, remaining: {}, {} ms",
+                uuid, written, bytes, missing.size(), elapsedMillis);
+
+        return new UploadResult(written, bytes, missing, elapsedMillis);
+    }
+
+    /**
+     * 작업 디렉토리의 현재 상태 (처음이면 디스크에서 계산)
+     */
+    private Map<String, String> loadManifest(String uuid) throws IOException {
+        Map<String, String> manifest = manifests.get(uuid);
+        if (manifest != null) {
+            return manifest;
+        }
+
+        manifest = new TreeMap<>();
+        Path root = workspaceManager.current(uuid);
+        if (root != null && Files.isDirectory(root)) {
+            try (Stream<Path> paths = Files.walk(root)) {
+                for (Path file : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                    String path = root.relativize(file).toString().replace('\\', '/');
+                    if (!isGenerated(uuid, path)) {
+                        manifest.put(path, hashFile(file));
+                    }
+                }
+            }
+        }
+        manifests.put(uuid, manifest);
+        return manifest;
+    }
+
+    private Map<String, String> requireTarget(String uuid) {
+        Map<String, String> target = targets.get(uuid);
+        if (target == null) {
+            throw new IllegalStateException("매니페스트를 먼저 전송해야 합니다.");
+        }
+        return target;
+    }
+
+    private static List<String> missingFiles(Map<String, String> current, Map<String, String> target) {
+        return target.entrySet().stream()
+                .filter(entry -> !entry.getValue().equals(current.get(entry.getKey())))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static void deleteEmptyDirectories(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            List<Path> dirs = paths.filter(Files::isDirectory)
+                    .filter(dir -> !dir.equals(root))
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
+            for (Path dir : dirs) {
+                try (Stream<Path> children = Files.list(dir)) {
+                    if (children.findAny().isEmpty()) {
+                        Files.delete(dir);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String normalizePath(String path) {
+        if (path == null || path.isBlank()) {
+            throw new IllegalArgumentException("파일 경로가 비어 있습니다.");
+        }
+        String normalized = Paths.get(path.replace('\\', '/')).normalize().toString().replace('\\', '/');
+        if (normalized.startsWith("/") || normalized.startsWith("..") || normalized.isEmpty()) {
+            throw new IllegalArgumentException("잘못된 파일 경로입니다: " + path);
+        }
+        return normalized;
+    }
+
+    private static Path resolve(Path root, String path) {
+        Path resolved = root.resolve(path).normalize();
+        if (!resolved.startsWith(root)) {
+            throw new IllegalArgumentException("잘못된 파일 경로입니다: " + path);
+        }
+        return resolved;
+    }
+
+    private boolean isGenerated(String uuid, String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        if (GENERATED_FILES.contains(path) || path.startsWith(GENERATED_DIR)
+                || (name.startsWith(".upload-") && name.endsWith(".tmp"))) {
+            return true;
+        }
+        String prefix = projectRoots.getOrDefault(uuid, "");
+        if (prefix.isEmpty() || !path.startsWith(prefix)) {
+            return false;
+        }
+        String relative = path.substring(prefix.length());
+        return relative.equals("Dockerfile") || relative.startsWith(GENERATED_DIR);
+    }
+
+    private Object lockFor(String uuid) {
+        return locks.computeIfAbsent(uuid, key -> new Object());
+    }
+
+    private static String hashFile(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param missing 업로드가 필요한 파일
+     * @param deleted 매니페스트에 없어 삭제된 파일
+     */
+    public record ManifestDiff(List<String> missing, List<String> deleted, int unchanged, long applyMillis) {
+    }
+
+    /**
+     * @param missing 아직 업로드되지 않은 파일
+     */
+    public record UploadResult(int filesWritten, long bytesReceived, List<String> missing, long applyMillis) {
+    }
+
+    public record SyncResult(int filesWritten, int filesDeleted, long bytesWritten, long applyMillis) {
+    }
+}
@@ -0,0 +1,171 @@
+package com.sandbox.sandbox_server.simulation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 가짜 런타임이 돌려주는 프로세스
+ * 출력은 println으로 흘려보내고 exit로 종료한다. destroy하면 137(SIGKILL)로 종료된다.
+ */
+final class SimulatedProcess extends Process {
+
+    private static final AtomicLong PIDS = new AtomicLong(100_000);
+    private static final int KILLED_EXIT_CODE = 137;
+
+    private final long pid = PIDS.incrementAndGet();
+    private final OutputFeed stdout = new OutputFeed();
+    private final CompletableFuture<Integer> exit = new CompletableFuture<>();
+
+    void println(String line) {
+        if (!exit.isDone()) {
+            stdout.append((line + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    void exit(int exitCode) {
+        if (exit.complete(exitCode)) {
+            stdout.finish();
+        }
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return OutputStream.nullOutputStream();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return stdout;
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+        return InputStream.nullInputStream();
+    }
+
+    @Override
+    public int waitFor() throws InterruptedException {
+        try {
+            return exit.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            exit.get(timeout, unit);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public int exitValue() {
+        Integer exitCode = exit.getNow(null);
+        if (exitCode == null) {
+            throw new IllegalThreadStateException("process has not exited");
+        }
+        return exitCode;
+    }
+
+    @Override
+    public void destroy() {
+        exit(KILLED_EXIT_CODE);
+    }
+
+    @Override
+    public boolean isAlive() {
+        return !exit.isDone();
+    }
+
+    @Override
+    public long pid() {
+        return pid;
+    }
+
+    @Override
+    public CompletableFuture<Process> onExit() {
+        return exit.thenApply(exitCode -> this);
+    }
+
+    /**
+     * 쓰는 쪽과 읽는 쪽이 다른 스레드인 출력 스트림 (읽을 수 있는 만큼만 돌려줘서 follow 출력도 바로 읽힌다)
+     */
+    private static final class OutputFeed extends InputStream {
+
+        private static final byte[] END = new byte[0];
+
+        private final LinkedBlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+        private byte[] current;
+        private int position;
+        private boolean finished;
+
+        void append(byte[] chunk) {
+            chunks.add(chunk);
+        }
+
+        void finish() {
+            chunks.add(END);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public synchronized int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            while (current == null || position == current.length) {
+                if (finished) {
+                    return -1;
+                }
+                try {
+                    current = chunks.take();
+                    position = 0;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while reading simulated output", e);
+                }
+                if (current == END) {
+                    finished = true;
+                    current = null;
+                    return -1;
+                }
+            }
+
+            int count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public synchronized int available() {
+            return current == null ? 0 : current.length - position;
+        }
+
+        @Override
+        public void close() {
+            chunks.clear();
+            finish();
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package com.sandbox.sandbox_server.simulation;
+
+import com.sandbox.sandbox_server.service.ProcessLauncher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 가짜 컨테이너 런타임 (simulated 프로필)
+ * docker CLI와 build_and_run.sh 호출을 메모리 안의 이미지/컨테이너 상태로 흉내 낸다.
+ * 빌드/시작 지연, 실패율, 로그 출력 간격을 설정할 수 있어 실제 Docker 없이 부하 테스트에 쓴다.
+ */
+@Slf4j
+@Component
+@Profile("simulated")
+public class SimulatedProcessLauncher implements ProcessLauncher {
+
+    private static final String STARTED_MARKER = "Container started successfully!";
+    private static final int MAX_LOG_LINES = 2000;
+    private static final String CLEAR_SCREEN = "\u001B[2J\u001B[H";
+    private static final long MIB = 1024 * 1024;
+    private static final long STATS_INTERVAL_MILLIS = 1000;
+
+    // 프레임워크별 가짜 컨테이너의 평소 메모리 사용량
+    private static final Map<String, Long> BASE_MEMORY = Map.of(
+            "spring", 350 * MIB,
+            "react", 180 * MIB,
+            "fastapi", 80 * MIB
+    );
+
+    private static final String[] LOG_TEMPLATES = {
+            "INFO  GET /api/items 200 %dms",
+            "INFO  POST /api/items 201 %dms",
+            "DEBUG cache lookup took %dms",
+            "WARN  slow query took %dms",
+            "ERROR request failed after %dms: simulated failure"
+    };
+
+    @Value("${sandbox.simulated.build-latency:3s}")
+    private Duration buildLatency;
+
+    @Value("${sandbox.simulated.start-latency:500ms}")
+    private Duration startLatency;
+
+    @Value("${sandbox.simulated.command-latency:20ms}")
+    private Duration commandLatency;
+
+    // 지연 시간 편차 (0.2면 ±20%)
+    @Value("${sandbox.simulated.latency-jitter:0.2}")
+    private double latencyJitter;
+
+    @Value("${sandbox.simulated.build-failure-rate:0}")
+    private double buildFailureRate;
+
+    @Value("${sandbox.simulated.start-failure-rate:0}")
+    private double startFailureRate;
+
+    @Value("${sandbox.simulated.build-log-lines:40}")
+    private int buildLogLines;
+
+    @Value("${sandbox.simulated.log-interval:200ms}")
+    private Duration logInterval;
+
+    @Value("${sandbox.simulated.image-size:300MB}")
+    private DataSize imageSize;
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private final ExecutorService scriptExecutor = Executors.newCachedThreadPool();
+
+    // 이미지 태그 -> 생성 시각
+    private final ConcurrentHashMap<String, Instant> images = new ConcurrentHashMap<>();
+    // 받아 둔 베이스 이미지 -> 다이제스트
+    private final ConcurrentHashMap<String, String> baseImages = new ConcurrentHashMap<>();
+    // 컨테이너 이름 -> 실행 중인 컨테이너
+    private final ConcurrentHashMap<String, Container> containers = new ConcurrentHashMap<>();
+    // docker stats 스트림 프로세스
+    private final CopyOnWriteArrayList<SimulatedProcess> statsFollowers = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    public void start() {
+        long intervalMillis = Math.max(1, logInterval.toMillis());
+        scheduler.scheduleAtFixedRate(this::emitLogs, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(this::emitStats, STATS_INTERVAL_MILLIS, STATS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        log.info("Simulated container runtime enabled - build: {}, start: {}, build failure rate: {}, start failure rate: {}",
+                buildLatency, startLatency, buildFailureRate, startFailureRate);
+    }
+
+    @Override
+    public Process launch(ProcessBuilder pb) {
+        List<String> command = List.copyOf(pb.command());
+        SimulatedProcess process = new SimulatedProcess();
+
+        if (command.size() > 2 && command.get(2).endsWith("build_and_run.sh")) {
+            scriptExecutor.execute(() -> runScript(process, command.subList(3, command.size())));
+        } else if (command.size() > 1 && command.get(0).equals("docker")) {
+            scheduler.schedule(() -> {
+                try {
+                    docker(process, command.subList(1, command.size()));
+                } catch (RuntimeException e) {
+                    log.warn("Simulated command failed: {}", command, e);
+                    process.println("Error: " + e.getMessage());
+                    process.exit(1);
+                }
+            }, jittered(commandLatency), TimeUnit.NANOSECONDS);
+        } else {
+            scheduler.schedule(() -> process.exit(0), jittered(commandLatency), TimeUnit.NANOSECONDS);
+        }
+        return process;
+    }
+
+    /**
+     * build_and_run.sh UUID PORT FRAMEWORK [IMAGE] [PHASE] [MODE]
+     */
+    private void runScript(SimulatedProcess process, List<String> args) {
+        String uuid = args.get(0);
+        String port = args.get(1);
+        String framework = args.get(2);
+        String image = args.size() > 3 ? args.get(3) : "sandbox-" + uuid;
+        String phase = args.size() > 4 ? args.get(4) : "all";
+        String containerName = "sandbox-" + uuid;
+
+        try {
+            if (!"run".equals(phase)) {
+                process.println("Building Docker image...");
+                long buildNanos = jittered(buildLatency);
+                for (int step = 1; step <= buildLogLines && process.isAlive(); step++) {
+                    TimeUnit.NANOSECONDS.sleep(buildNanos / (buildLogLines + 1));
+                    process.println("#" + step + " [" + step + "/" + buildLogLines + "] RUN simulated build step");
+                }
+                TimeUnit.NANOSECONDS.sleep(buildNanos / (buildLogLines + 1));
+
+                if (fails(buildFailureRate)) {
+                    process.println("ERROR: Docker build failed");
+                    process.exit(1);
+                    return;
+                }
+                images.put(image, Instant.now());
+
+                if ("build".equals(phase)) {
+                    process.println("Image built: " + image);
+                    process.exit(0);
+                    return;
+                }
+            } else if (!images.containsKey(image)) {
+                process.println("Unable to find image '" + image + "' locally");
+                process.exit(125);
+                return;
+            }
+
+            process.println("Starting container with port mapping " + port + "...");
+            TimeUnit.NANOSECONDS.sleep(jittered(startLatency));
+            if (fails(startFailureRate)) {
+                process.println("Error: Failed to start container");
+                process.exit(1);
+                return;
+            }
+
+            Container previous = containers.put(containerName, new Container(image, framework, Instant.now()));
+            if (previous != null) {
+                previous.stop();
+            }
+            process.println(STARTED_MARKER);
+            process.println("Container: " + containerName);
+            process.exit(0);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroy();
+        }
+    }
+
+    private void docker(SimulatedProcess process, List<String> args) {
+        switch (args.get(0)) {
+            case "image" -> {
+                if (args.size() > 1 && args.get(1).equals("inspect")) {
+                    inspectImages(process, args.subList(2, args.size()));
+                } else {
+                    process.println("Total reclaimed space: 0B");
+                    process.exit(0);
+                }
+            }
+            case "pull" -> {
+                String image = args.get(args.size() - 1);
+                String digest = baseImages.computeIfAbsent(image, key -> "sha256:"
+                        + HexFormat.of().formatHex(key.getBytes(StandardCharsets.UTF_8)));
+                process.println(image.substring(0, image.lastIndexOf(':')) + "@" + digest);
+                process.exit(0);
+            }
+            case "images" -> {
+                images.keySet().forEach(image -> process.println(image + ":latest"));
+                process.exit(0);
+            }
+            case "system" -> {
+                // docker system df -v --format json: 이미지 크기의 2/3를 베이스 레이어로 공유한다고 가정
+                long unique = imageSize.toBytes() / 3;
+                process.println(images.keySet().stream()
+                        .map(image -> "{\"Repository\":\"" + image + "\",\"Tag\":\"latest\",\"Size\":\""
+                                + imageSize.toBytes() + "B\",\"SharedSize\":\"" + (imageSize.toBytes() - unique)
+                                + "B\",\"UniqueSize\":\"" + unique + "B\"}")
+                        .collect(Collectors.joining(",", "{\"Images\":[", "]}")));
+                process.exit(0);
+            }
+            case "builder" -> {
+                process.println("Total reclaimed space: 0B");
+                process.exit(0);
+            }
+            case "rmi" -> process.exit(images.remove(args.get(args.size() - 1)) != null ? 0 : 1);
+            case "ps" -> listContainers(process, args);
+            case "logs" -> logs(process, args);
+            case "stats" -> statsFollowers.add(process);
+            case "stop", "rm" -> {
+                String name = args.get(args.size() - 1);
+                if (args.get(0).equals("rm") && !args.contains("-f") && containers.containsKey(name)) {
+                    // 실행 중인 컨테이너는 -f 없이 지울 수 없음
+                    process.println("Error response from daemon: cannot remove container \"" + name
+                            + "\": container is running");
+                    process.exit(1);
+                    return;
+                }
+                Container container = containers.remove(name);
+                if (container != null) {
+                    container.stop();
+                    process.println(name);
+                    process.exit(0);
+                } else {
+                    process.println("Error response from daemon: No such container: " + name);
+                    process.exit(args.contains("-f") ? 0 : 1);
+                }
+            }
+            default -> process.exit(0);
+        }
+    }
+
+    /**
+     * docker image inspect --format FORMAT TAG...
+     */
+    private void inspectImages(SimulatedProcess process, List<String> args) {
+        String format = option(args, "--format");
+        List<String> tags = positional(args, "--format");
+        boolean allFound = true;
+
+        for (String tag : tags) {
+            String baseDigest = baseImages.get(tag);
+            if (baseDigest != null) {
+                process.println(tag.substring(0, tag.lastIndexOf(':')) + "@" + baseDigest);
+                continue;
+            }
+            Instant created = images.get(tag.endsWith(":latest") ? tag.substring(0, tag.length() - 7) : tag);
+            if (created == null) {
+                process.println("Error: No such image: " + tag);
+                allFound = false;
+            } else if (format != null && format.contains("{{.Size}}")) {
+                process.println((tag.contains(":") ? tag : tag + ":latest") + "|" + imageSize.toBytes() + "|" + created);
+            } else {
+                process.println("sha256:" + HexFormat.of().formatHex(tag.getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        process.exit(allFound ? 0 : 1);
+    }
+
+    /**
+     * docker ps [-a] --filter name=NAME --format FORMAT
+     */
+    private void listContainers(SimulatedProcess process, List<String> args) {
+        String filter = option(args, "--filter");
+        String format = option(args, "--format");
+        String name = filter != null && filter.startsWith("name=") ? filter.substring(5) : "";
+        // 시뮬레이션 컨테이너는 종료 상태가 없다
+        if (args.stream().anyMatch(arg -> arg.startsWith("status=") && !arg.equals("status=running"))) {
+            process.exit(0);
+            return;
+        }
+
+        containers.forEach((containerName, container) -> {
+            if (containerName.contains(name)) {
+                process.println(format != null && format.contains("{{.Names}}")
+                        ? containerName
+                        : "Up " + uptime(container.startedAt()));
+            }
+        });
+        process.exit(0);
+    }
+
+    /**
+     * docker logs [--tail N] [--follow] [--since S] [--timestamps] NAME
+     */
+    private void logs(SimulatedProcess process, List<String> args) {
+        String name = args.get(args.size() - 1);
+        Container container = containers.get(name);
+        if (container == null) {
+            process.println("Error response from daemon: No such container: " + name);
+            process.exit(1);
+            return;
+        }
+
+        String tail = option(args, "--tail");
+        int limit = tail != null ? Integer.parseInt(tail) : Integer.MAX_VALUE;
+        for (String line : container.tail(limit)) {
+            process.println(line);
+        }
+
+        if (args.contains("--follow") || args.contains("-f")) {
+            container.followers().add(process);
+        } else {
+            process.exit(0);
+        }
+    }
+
+    private void emitLogs() {
+        try {
+            for (Container container : containers.values()) {
+                String template = LOG_TEMPLATES[ThreadLocalRandom.current().nextInt(LOG_TEMPLATES.length)];
+                String line = Instant.now() + " " + String.format(template, ThreadLocalRandom.current().nextInt(1, 500));
+                container.append(line);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to emit simulated logs: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * docker stats 스트림 흉내 (화면 지우기 후 컨테이너마다 JSON 한 줄)
+     */
+    private void emitStats() {
+        statsFollowers.removeIf(follower -> !follower.isAlive());
+        if (statsFollowers.isEmpty()) {
+            return;
+        }
+
+        List<String> frame = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        containers.forEach((name, container) -> {
+            long uptime = Math.max(1, Duration.between(container.startedAt(), Instant.now()).toSeconds());
+            long memory = (long) (BASE_MEMORY.getOrDefault(container.framework(), 128 * MIB) * random.nextDouble(0.8, 1.3));
+            double cpu = random.nextDouble() < 0.05 ? random.nextDouble(30, 120) : random.nextDouble(0.1, 5);
+            frame.add(String.format("{\"BlockIO\":\"%dkB / %dkB\",\"CPUPerc\":\"%.2f%%\",\"Container\":\"%s\","
+                            + "\"MemUsage\":\"%.1fMiB / 2GiB\",\"Name\":\"%s\",\"NetIO\":\"%dkB / %dkB\",\"PIDs\":\"%d\"}",
+                    uptime * 4, uptime * 2, cpu, name, memory / (double) MIB, name, uptime * 3, uptime, 8));
+        });
+
+        for (SimulatedProcess follower : statsFollowers) {
+            follower.println(CLEAR_SCREEN + (frame.isEmpty() ? "" : String.join("\n", frame)));
+        }
+    }
+
+    private long jittered(Duration latency) {
+        double factor = 1 + latencyJitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1);
+        return Math.max(0, (long) (latency.toNanos() * factor));
+    }
+
+    private static boolean fails(double rate) {
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private static String uptime(Instant startedAt) {
+        long seconds = Duration.between(startedAt, Instant.now()).toSeconds();
+        if (seconds < 60) {
+            return seconds + " seconds";
+        }
+        return seconds / 60 + " minutes";
+    }
+
+    private static String option(List<String> args, String name) {
+        int index = args.indexOf(name);
+        return index >= 0 && index + 1 < args.size() ? args.get(index + 1) : null;
+    }
+
+    private static List<String> positional(List<String> args, String... valueOptions) {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < args.size(); i++) {
+            if (List.of(valueOptions).contains(args.get(i))) {
+                i++;
+            } else if (!args.get(i).startsWith("-")) {
+                values.add(args.get(i));
+            }
+        }
+        return values;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        containers.values().forEach(Container::stop);
+        containers.clear();
+        statsFollowers.forEach(follower -> follower.exit(0));
+        scheduler.shutdownNow();
+        scriptExecutor.shutdownNow();
+    }
+
+    /**
+     * 실행 중인 가짜 컨테이너 (최근 로그와 docker logs -f 프로세스)
+     */
+    private record Container(String image, String framework, Instant startedAt, ArrayDeque<String> lines,
+                             CopyOnWriteArrayList<SimulatedProcess> followers) {
+
+        Container(String image, String framework, Instant startedAt) {
+            this(image, framework, startedAt, new ArrayDeque<>(), new CopyOnWriteArrayList<>());
+        }
+
+        void append(String line) {
+            synchronized (lines) {
+                lines.addLast(line);
+                if (lines.size() > MAX_LOG_LINES) {
+                    lines.removeFirst();
+                }
+            }
+            followers.removeIf(follower -> !follower.isAlive());
+            followers.forEach(follower -> follower.println(line));
+        }
+
+        List<String> tail(int limit) {
+            synchronized (lines) {
+                List<String> all = new ArrayList<>(lines);
+                return all.subList(Math.max(0, all.size() - limit), all.size());
+            }
+        }
+
+        void stop() {
+            followers.forEach(follower -> follower.exit(0));
+            followers.clear();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.sandbox.sandbox_server.util;
+
+/**
+ * 정해진 시각이 지나면 읽기를 중단하는 CharSequence
+ * java.util.regex는 매칭 중 인터럽트를 확인하지 않으므로, 사용자가 넘긴 정규식의 역추적 폭주를
+ * 문자를 읽는 시점에서 끊는다. 시간 확인은 CHECK_INTERVAL 글자마다 한 번만 한다.
+ */
+public final class DeadlineCharSequence implements CharSequence {
+
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final CharSequence delegate;
+    private final long deadlineNanos;
+    private int reads;
+
+    public DeadlineCharSequence(CharSequence delegate, long deadlineNanos) {
+        this.delegate = delegate;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (++reads % CHECK_INTERVAL == 0 && System.nanoTime() - deadlineNanos > 0) {
+            throw new DeadlineExceededException();
+        }
+        return delegate.charAt(index);
+    }
+
+    @Override
+    public int length() {
+        return delegate.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new DeadlineCharSequence(delegate.subSequence(start, end), deadlineNanos);
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    public static final class DeadlineExceededException extends RuntimeException {
+
+        public DeadlineExceededException() {
+            super("Deadline exceeded", null, false, false);
+        }
+    }
+}
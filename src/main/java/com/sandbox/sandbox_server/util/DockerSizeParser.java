@@ -0,0 +1,45 @@
+package com.sandbox.sandbox_server.util;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * docker CLI가 출력하는 크기 문자열을 바이트로 변환
+ * "1.23GB", "512kB"(10진) 와 "80MiB", "1.5GiB"(2진) 형식을 모두 지원한다.
+ */
+public class DockerSizeParser {
+
+    private static final Pattern SIZE = Pattern.compile("([0-9]*\\.?[0-9]+)\\s*([a-zA-Z]*)");
+
+    private DockerSizeParser() {
+    }
+
+    /**
+     * @return 해석할 수 없으면 0
+     */
+    public static long parse(String value) {
+        if (value == null) {
+            return 0;
+        }
+        Matcher matcher = SIZE.matcher(value.trim());
+        if (!matcher.find()) {
+            return 0;
+        }
+
+        double number = Double.parseDouble(matcher.group(1));
+        double multiplier = switch (matcher.group(2).toLowerCase(Locale.ROOT)) {
+            case "", "b" -> 1;
+            case "kb", "k" -> 1e3;
+            case "mb", "m" -> 1e6;
+            case "gb", "g" -> 1e9;
+            case "tb", "t" -> 1e12;
+            case "kib" -> 1024d;
+            case "mib" -> 1024d * 1024;
+            case "gib" -> 1024d * 1024 * 1024;
+            case "tib" -> 1024d * 1024 * 1024 * 1024;
+            default -> 0;
+        };
+        return (long) (number * multiplier);
+    }
+}
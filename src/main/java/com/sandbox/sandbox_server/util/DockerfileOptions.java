@@ -0,0 +1,33 @@
+package com.sandbox.sandbox_server.util;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Dockerfile 생성 옵션
+ */
+@Getter
+@Builder
+public class DockerfileOptions {
+
+    // Spring 이미지에 CDS 아카이브를 포함할지 여부
+    @Builder.Default
+    private boolean springCds = false;
+
+    // 개발 모드 (의존성만 이미지에 설치하고 소스는 마운트해서 watch 모드로 실행)
+    @Builder.Default
+    private boolean devMode = false;
+
+    // 의존성 캐시 프록시 주소 (null이면 업스트림에서 직접 받음)
+    private String artifactCacheUrl;
+
+    // 베이스 이미지 -> 다이제스트 (sha256:...), 있으면 FROM을 이미지@다이제스트로 고정
+    @Builder.Default
+    private Map<String, String> baseImageDigests = Map.of();
+
+    public static DockerfileOptions defaults() {
+        return DockerfileOptions.builder().build();
+    }
+}
@@ -1,24 +1,205 @@
 package com.sandbox.sandbox_server.util;
 
 import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class DockerfileUtil {
+
+    /**
+     * 템플릿이 사용하는 베이스 이미지 (서버 시작 시 미리 받아 다이제스트를 확인)
+     */
+    public static final List<String> BASE_IMAGES = List.of("openjdk:17-slim", "node:20-slim", "python:3.11-slim");
+
+    private static final String GRADLE_DISTRIBUTION_URL = "https://services.gradle.org/distributions/";
+    private static final String CACHE_CONFIG_DIR = ".sandbox";
+
     public static void generateDockerfile(Path projectDir, String framework) throws IOException {
-        String content = switch (framework) {
-            case "spring" -> generateSpringDockerfile();
-            case "react" -> generateReactDockerfile();
-            case "fastapi" -> generateFastApiDockerfile();
-            default -> throw new IOException("지원하지 않는 프레임워크입니다: " + framework);
-        };
+        generateDockerfile(projectDir, framework, DockerfileOptions.defaults());
+    }
+
+    public static void generateDockerfile(Path projectDir, String framework, DockerfileOptions options) throws IOException {
+        String content = renderDockerfile(framework, options);
+
+        if (options.getArtifactCacheUrl() != null) {
+            writeDependencyCacheConfig(projectDir, options.getArtifactCacheUrl());
+        }
+        if (options.isDevMode() && "fastapi".equals(framework)) {
+            writeDevRequirements(projectDir);
+        }
 
         Files.writeString(projectDir.resolve("Dockerfile"), content);
     }
 
-    private static String generateSpringDockerfile() {
+    /**
+     * 개발 모드 이미지에 들어가는 의존성 파일 (이 파일들이 같으면 개발 모드 이미지를 재사용)
+     */
+    public static List<String> dependencyFiles(String framework) {
+        return switch (framework) {
+            case "react" -> List.of("package.json", "package-lock.json");
+            case "fastapi" -> List.of("requirements.txt");
+            default -> List.of();
+        };
+    }
+
+    /**
+     * Dockerfile 내용만 생성 (파일로 쓰지 않음)
+     */
+    public static String renderDockerfile(String framework, DockerfileOptions options) throws IOException {
+        String content;
+        if (options.isDevMode()) {
+            content = switch (framework) {
+                case "react" -> generateReactDevDockerfile(options);
+                case "fastapi" -> generateFastApiDevDockerfile(options);
+                default -> throw new IOException("개발 모드를 지원하지 않는 프레임워크입니다: " + framework);
+            };
+        } else {
+            content = switch (framework) {
+                case "spring" -> generateSpringDockerfile(options);
+                case "react" -> generateReactDockerfile(options);
+                case "fastapi" -> generateFastApiDockerfile(options);
+                default -> throw new IOException("지원하지 않는 프레임워크입니다: " + framework);
+            };
+        }
+        return pinBaseImages(content, options.getBaseImageDigests());
+    }
+
+    /**
+     * FROM 이미지:태그 -> FROM 이미지:태그@다이제스트
+     * 태그는 읽기 쉽도록 남겨 두고 실제로는 다이제스트로 받는다. 다이제스트가 바뀌면 Dockerfile 내용이 바뀌므로
+     * 이미지 태그(내용 해시)도 함께 바뀐다.
+     */
+    static String pinBaseImages(String content, Map<String, String> digests) {
+        String result = content;
+        for (Map.Entry<String, String> entry : digests.entrySet()) {
+            Pattern from = Pattern.compile("(?m)^FROM\\s+" + Pattern.quote(entry.getKey()) + "(?=\\s|$)");
+            result = from.matcher(result)
+                    .replaceAll(Matcher.quoteReplacement("FROM " + entry.getKey() + "@" + entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * 의존성 캐시 프록시 설정 파일 생성 (.sandbox 디렉토리)
+     * Gradle init 스크립트, Maven settings.xml, npmrc, pip.conf
+     */
+    private static void writeDependencyCacheConfig(Path projectDir, String cacheUrl) throws IOException {
+        Path configDir = Files.createDirectories(projectDir.resolve(CACHE_CONFIG_DIR));
+        String cacheHost = URI.create(cacheUrl).getHost();
+
+        Files.writeString(configDir.resolve("init.gradle"), """
+            // 샌드박스 의존성 캐시 프록시 (자동 생성)
+            def cacheUrl = '{{cacheUrl}}'
+            def mirrors = [
+                    'https://repo.maven.apache.org/maven2': "${cacheUrl}/maven/",
+                    'https://repo1.maven.org/maven2'      : "${cacheUrl}/maven/",
+                    'https://plugins.gradle.org/m2'       : "${cacheUrl}/gradle-plugins/",
+            ]
+            def redirect = { repo ->
+                if (repo instanceof MavenArtifactRepository) {
+                    def mirror = mirrors[repo.url.toString().replaceAll('/+$', '')]
+                    if (mirror != null) {
+                        repo.url = mirror
+                        repo.allowInsecureProtocol = true
+                    }
+                }
+            }
+            
+            settingsEvaluated { settings ->
+                if (settings.pluginManagement.repositories.isEmpty()) {
+                    settings.pluginManagement.repositories.gradlePluginPortal()
+                }
+                settings.pluginManagement.repositories.all(redirect)
+                settings.dependencyResolutionManagement.repositories.all(redirect)
+            }
+            
+            allprojects {
+                buildscript.repositories.all(redirect)
+                repositories.all(redirect)
+            }
+            """.replace("{{cacheUrl}}", cacheUrl));
+
+        Files.writeString(configDir.resolve("settings.xml"), """
+            <settings>
+              <mirrors>
+                <mirror>
+                  <id>sandbox-cache</id>
+                  <mirrorOf>central</mirrorOf>
+                  <url>{{cacheUrl}}/maven/</url>
+                </mirror>
+              </mirrors>
+            </settings>
+            """.replace("{{cacheUrl}}", cacheUrl));
+
+        Files.writeString(configDir.resolve("npmrc"), "registry=" + cacheUrl + "/npm/\n");
+
+        Files.writeString(configDir.resolve("pip.conf"), """
+            [global]
+            index-url = {{cacheUrl}}/pypi/simple/
+            trusted-host = {{cacheHost}}
+            """.replace("{{cacheUrl}}", cacheUrl).replace("{{cacheHost}}", cacheHost));
+    }
+
+    /**
+     * 개발 모드 FastAPI 의존성 목록 (.sandbox/requirements.txt)
+     * requirements.txt가 없어도 COPY가 실패하지 않도록 항상 만들어 둔다.
+     */
+    private static void writeDevRequirements(Path projectDir) throws IOException {
+        Path configDir = Files.createDirectories(projectDir.resolve(CACHE_CONFIG_DIR));
+        Path requirements = projectDir.resolve("requirements.txt");
+
+        if (Files.exists(requirements)) {
+            Files.copy(requirements, configDir.resolve("requirements.txt"), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.writeString(configDir.resolve("requirements.txt"), "fastapi\n");
+        }
+    }
+
+    /**
+     * 템플릿의 {{key}} 자리에 값 삽입
+     */
+    private static String render(String template, Map<String, String> values) {
+        String result = template;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            result = result.replace("{{" + entry.getKey() + "}}", entry.getValue());
+        }
+        return result;
+    }
+
+    private static String generateSpringDockerfile(DockerfileOptions options) {
+        String cacheUrl = options.getArtifactCacheUrl();
+
+        String dependencyCache = cacheUrl == null ? "" : """
+            # 의존성 캐시 프록시 설정 (Gradle init 스크립트, wrapper 배포본 주소)
+            RUN mkdir -p /root/.gradle/init.d && \\
+                cp .sandbox/init.gradle /root/.gradle/init.d/sandbox-cache.gradle && \\
+                if [ -f gradle/wrapper/gradle-wrapper.properties ]; then \\
+                    sed -i 's#^distributionUrl=.*/distributions/#distributionUrl={{cacheUrl}}/gradle-dist/#' \\
+                        gradle/wrapper/gradle-wrapper.properties; \\
+                fi
+            """.replace("{{cacheUrl}}", cacheUrl);
+
+        String buildStage = render(generateSpringBuildStage(), Map.of(
+                "gradleDistributionUrl", cacheUrl == null ? GRADLE_DISTRIBUTION_URL : cacheUrl + "/gradle-dist/",
+                "dependencyCache", dependencyCache,
+                "mavenSettings", cacheUrl == null ? "" : "-s .sandbox/settings.xml "
+        ));
+
+        return buildStage
+                + (options.isSpringCds() ? generateSpringCdsStage() : "")
+                + generateSpringRuntimeStage(options.isSpringCds());
+    }
+
+    private static String generateSpringBuildStage() {
         return """
             FROM openjdk:17-slim
+            LABEL sandbox.managed=true
             WORKDIR /app
             
             # 시스템 패키지 설치
@@ -27,7 +208,7 @@ public class DockerfileUtil {
                 rm -rf /var/lib/apt/lists/*
             
             # Gradle 설치 (gradlew가 없는 경우를 위해)
-            RUN wget -q https://services.gradle.org/distributions/gradle-8.5-bin.zip && \\
+            RUN wget -q {{gradleDistributionUrl}}gradle-8.5-bin.zip && \\
                 unzip -q gradle-8.5-bin.zip && \\
                 mv gradle-8.5 /opt/gradle && \\
                 rm gradle-8.5-bin.zip
@@ -38,6 +219,7 @@ public class DockerfileUtil {
             # 프로젝트 파일 복사
             COPY . .
             
+            {{dependencyCache}}
             # Gradle 실행 권한 설정
             RUN if [ -f gradlew ]; then chmod +x gradlew; fi
             
@@ -51,7 +233,7 @@ public class DockerfileUtil {
                 elif [ -f pom.xml ]; then \\
                     echo "Building with Maven..." && \\
                     apt-get update && apt-get install -y maven && \\
-                    mvn clean package spring-boot:repackage -DskipTests; \\
+                    mvn {{mavenSettings}}clean package spring-boot:repackage -DskipTests; \\
                 else \\
                     echo "No build file found!" && \\
                     ls -la && \\
@@ -94,20 +276,65 @@ public class DockerfileUtil {
                 echo "Checking app.jar manifest:" && \\
                 jar tf app.jar | grep -E "MANIFEST.MF|BOOT-INF" | head -5
             
+            """;
+    }
+
+    /**
+     * CDS 아카이브 생성 단계
+     * jar를 추출한 뒤 컨텍스트 refresh 직후 종료하는 트레이닝 실행으로 클래스 아카이브를 덤프한다.
+     * 추출이나 트레이닝이 실패하면 아카이브 없이 일반 jar로 실행된다.
+     */
+    private static String generateSpringCdsStage() {
+        return """
+            # CDS 아카이브 생성 (jar 추출 + 트레이닝 실행)
+            RUN mkdir -p /app/cds && \\
+                if java -Djarmode=tools -jar app.jar extract --destination /app/cds/application; then \\
+                    echo "Running CDS training run..." && \\
+                    (timeout 120 java -XX:ArchiveClassesAtExit=/app/cds/application.jsa \\
+                        -Dspring.context.exit=onRefresh \\
+                        -jar /app/cds/application/app.jar || true); \\
+                else \\
+                    echo "jarmode=tools not supported by this Spring Boot version, skipping CDS"; \\
+                fi && \\
+                if [ -f /app/cds/application.jsa ]; then \\
+                    echo "CDS archive created:" && ls -la /app/cds/application.jsa; \\
+                else \\
+                    echo "CDS archive not created, falling back to plain jar" && rm -rf /app/cds; \\
+                fi
+            
+            """;
+    }
+
+    private static String generateSpringRuntimeStage(boolean cds) {
+        String cmd = cds
+                ? "CMD [\"sh\", \"-c\", \"if [ -f /app/cds/application.jsa ]; then "
+                    + "exec java -XX:SharedArchiveFile=/app/cds/application.jsa -jar /app/cds/application/app.jar; "
+                    + "else exec java -jar app.jar; fi\"]\n"
+                : "CMD [\"java\", \"-jar\", \"app.jar\"]\n";
+
+        return """
             EXPOSE 8080
             
             # 헬스체크 추가
             HEALTHCHECK --interval=30s --timeout=10s --start-period=60s --retries=3 \\
                 CMD curl -f http://localhost:8080/actuator/health || curl -f http://localhost:8080/ || exit 1
             
-            CMD ["java", "-jar", "app.jar"]
-            """;
+            """ + cmd;
     }
 
-    private static String generateReactDockerfile() {
-        return """
+    private static String generateReactDockerfile(DockerfileOptions options) {
+        boolean cache = options.getArtifactCacheUrl() != null;
+
+        return render(REACT_TEMPLATE, Map.of(
+                "npmrcBuilder", cache ? "COPY .sandbox/npmrc /root/.npmrc\n" : "",
+                "npmrcRuntime", cache ? "COPY --from=builder /root/.npmrc /root/.npmrc\n" : ""
+        ));
+    }
+
+    private static final String REACT_TEMPLATE = """
             # 빌드 스테이지
             FROM node:20-slim AS builder
+            LABEL sandbox.managed=true
             WORKDIR /app
             
             # 시스템 패키지 업데이트 및 필요한 도구 설치
@@ -116,6 +343,7 @@ public class DockerfileUtil {
                 rm -rf /var/lib/apt/lists/*
             
             # 패키지 파일 복사 (캐시 최적화)
+            {{npmrcBuilder}}
             COPY package*.json ./
             
             # npm 설정 (엔진 호환성 체크 우회)
@@ -141,6 +369,7 @@ public class DockerfileUtil {
             
             # 런타임 스테이지
             FROM node:20-slim
+            LABEL sandbox.managed=true
             WORKDIR /app
             
             # 시스템 패키지 설치
@@ -149,6 +378,7 @@ public class DockerfileUtil {
                 rm -rf /var/lib/apt/lists/*
             
             # serve 설치
+            {{npmrcRuntime}}
             RUN npm install -g serve@14.2.3
             
             # 빌드된 파일 복사 시도 (dist 우선)
@@ -166,11 +396,18 @@ public class DockerfileUtil {
             # 시작 명령어 (dist 디렉토리 사용)
             CMD ["sh", "-c", "echo 'Starting React application...' && echo 'Available files:' && ls -la && serve -s dist -l 3000 -n"]
             """;
+
+    private static String generateFastApiDockerfile(DockerfileOptions options) {
+        return render(FASTAPI_TEMPLATE, Map.of(
+                "pipConfig", options.getArtifactCacheUrl() != null
+                        ? "ENV PIP_CONFIG_FILE=/app/.sandbox/pip.conf\n"
+                        : ""
+        ));
     }
 
-    private static String generateFastApiDockerfile() {
-        return """
+    private static final String FASTAPI_TEMPLATE = """
             FROM python:3.11-slim
+            LABEL sandbox.managed=true
             
             WORKDIR /app
             
@@ -181,6 +418,7 @@ public class DockerfileUtil {
             
             # 모든 파일 복사
             COPY . .
+            {{pipConfig}}
             
             # 구조 확인
             RUN echo "=== Project structure ===" && \\
@@ -230,5 +468,68 @@ public class DockerfileUtil {
             EXPOSE 8000
             CMD ["uvicorn", "main:app", "--host", "0.0.0.0", "--port", "8000"]
             """;
+
+    private static String generateReactDevDockerfile(DockerfileOptions options) {
+        return render(REACT_DEV_TEMPLATE, Map.of(
+                "npmrc", options.getArtifactCacheUrl() != null ? "COPY .sandbox/npmrc /root/.npmrc\n" : ""
+        ));
+    }
+
+    /**
+     * React 개발 모드 (Vite 또는 CRA 개발 서버)
+     * 의존성만 설치하고 소스는 실행 시 /app에 마운트한다. node_modules는 이미지의 것을 그대로 쓴다.
+     */
+    private static final String REACT_DEV_TEMPLATE = """
+            FROM node:20-slim
+            LABEL sandbox.managed=true
+            WORKDIR /app
+            
+            RUN apt-get update && \\
+                apt-get install -y curl && \\
+                rm -rf /var/lib/apt/lists/*
+            
+            # 의존성 설치 (package*.json이 바뀔 때만 이미지 재빌드)
+            {{npmrc}}
+            COPY package*.json ./
+            RUN npm config set engine-strict false && \\
+                npm config set fund false && \\
+                npm config set audit false
+            RUN npm ci --no-audit --no-fund || \\
+                npm install --legacy-peer-deps --no-audit --no-fund
+            
+            ENV HOST=0.0.0.0 PORT=3000 BROWSER=none
+            EXPOSE 3000
+            
+            # Vite면 vite 개발 서버, 아니면 npm start (CRA 등)
+            CMD ["sh", "-c", "if [ -x node_modules/.bin/vite ]; then exec node_modules/.bin/vite --host 0.0.0.0 --port 3000 --strictPort; else exec npm start; fi"]
+            """;
+
+    private static String generateFastApiDevDockerfile(DockerfileOptions options) {
+        return render(FASTAPI_DEV_TEMPLATE, Map.of(
+                "pipConfig", options.getArtifactCacheUrl() != null ? "COPY .sandbox/pip.conf /etc/pip.conf\n" : ""
+        ));
     }
-}
\ No newline at end of file
+
+    /**
+     * FastAPI 개발 모드 (uvicorn --reload)
+     * 의존성만 설치하고 소스는 실행 시 /app에 마운트한다.
+     */
+    private static final String FASTAPI_DEV_TEMPLATE = """
+            FROM python:3.11-slim
+            LABEL sandbox.managed=true
+            WORKDIR /app
+            
+            RUN apt-get update && \\
+                apt-get install -y curl && \\
+                rm -rf /var/lib/apt/lists/*
+            
+            # 의존성 설치 (requirements.txt가 바뀔 때만 이미지 재빌드)
+            {{pipConfig}}
+            COPY .sandbox/requirements.txt /tmp/requirements.txt
+            RUN pip install --no-cache-dir -r /tmp/requirements.txt && \\
+                pip install --no-cache-dir "uvicorn[standard]"
+            
+            EXPOSE 8000
+            CMD ["uvicorn", "main:app", "--host", "0.0.0.0", "--port", "8000", "--reload", "--reload-dir", "/app"]
+            """;
+}
@@ -0,0 +1,19 @@
+package com.sandbox.sandbox_server.util;
+
+/**
+ * 컨테이너 로그 레벨 (심각도 오름차순)
+ */
+public enum LogLevel {
+    TRACE, DEBUG, INFO, WARN, ERROR, UNKNOWN;
+
+    public static LogLevel from(String value) {
+        return switch (value.toUpperCase()) {
+            case "TRACE" -> TRACE;
+            case "DEBUG" -> DEBUG;
+            case "INFO" -> INFO;
+            case "WARN", "WARNING" -> WARN;
+            case "ERROR", "FATAL", "CRITICAL" -> ERROR;
+            default -> UNKNOWN;
+        };
+    }
+}
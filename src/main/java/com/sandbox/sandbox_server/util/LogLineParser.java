@@ -0,0 +1,93 @@
+package com.sandbox.sandbox_server.util;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * docker logs --timestamps 출력 한 줄에서 시각과 로그 레벨 추출
+ * Spring Boot, uvicorn, node(pino/winston 등) 형식을 지원한다.
+ */
+public class LogLineParser {
+
+    // Spring Boot: "2024-01-01T12:00:00.000Z  INFO 1 --- [main] ..."
+    private static final Pattern SPRING = Pattern.compile(
+            "^\\S+\\s+(TRACE|DEBUG|INFO|WARN|ERROR)\\s");
+    // uvicorn: "INFO:     Uvicorn running on ..."
+    private static final Pattern UVICORN = Pattern.compile(
+            "^(TRACE|DEBUG|INFO|WARNING|ERROR|CRITICAL):");
+    // pino JSON: {"level":30,...}
+    private static final Pattern PINO = Pattern.compile("\"level\"\\s*:\\s*(\\d{2})");
+    // 그 외: 줄 앞부분의 레벨 키워드 ("[INFO]", "error:", "Error: ..." 등)
+    private static final Pattern GENERIC = Pattern.compile(
+            "\\b(TRACE|DEBUG|INFO|WARN|WARNING|ERROR|FATAL|CRITICAL)\\b", Pattern.CASE_INSENSITIVE);
+    // 스택 트레이스 등 이전 줄에 이어지는 줄
+    private static final Pattern CONTINUATION = Pattern.compile(
+            "^(\\s+at\\s|\\s+\\.\\.\\.|Caused by:|\\s+File \"|Traceback|\\t)");
+
+    private static final int GENERIC_SCAN_LENGTH = 64;
+
+    private LogLineParser() {
+    }
+
+    /**
+     * @return 선행 타임스탬프가 있으면 그 시각(epoch ms), 없으면 -1
+     */
+    public static long parseTimestamp(String line) {
+        int space = line.indexOf(' ');
+        if (space < 20 || !Character.isDigit(line.charAt(0))) {
+            return -1;
+        }
+        try {
+            return Instant.parse(line.substring(0, space)).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 타임스탬프를 제외한 메시지 부분
+     */
+    public static String stripTimestamp(String line) {
+        return parseTimestamp(line) >= 0 ? line.substring(line.indexOf(' ') + 1) : line;
+    }
+
+    /**
+     * @param previous 직전 줄의 레벨 (스택 트레이스 줄에 이어 붙이기 위함)
+     */
+    public static LogLevel parseLevel(String message, LogLevel previous) {
+        if (CONTINUATION.matcher(message).find()) {
+            return previous;
+        }
+
+        Matcher matcher = SPRING.matcher(message);
+        if (matcher.find()) {
+            return LogLevel.from(matcher.group(1));
+        }
+
+        matcher = UVICORN.matcher(message);
+        if (matcher.find()) {
+            return LogLevel.from(matcher.group(1));
+        }
+
+        matcher = PINO.matcher(message);
+        if (matcher.find()) {
+            int level = Integer.parseInt(matcher.group(1));
+            return level >= 50 ? LogLevel.ERROR
+                    : level >= 40 ? LogLevel.WARN
+                    : level >= 30 ? LogLevel.INFO
+                    : level >= 20 ? LogLevel.DEBUG
+                    : LogLevel.TRACE;
+        }
+
+        matcher = GENERIC.matcher(message.length() > GENERIC_SCAN_LENGTH
+                ? message.substring(0, GENERIC_SCAN_LENGTH)
+                : message);
+        if (matcher.find()) {
+            return LogLevel.from(matcher.group(1));
+        }
+
+        return LogLevel.UNKNOWN;
+    }
+}
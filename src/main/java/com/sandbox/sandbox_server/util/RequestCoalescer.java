@@ -0,0 +1,55 @@
+package com.sandbox.sandbox_server.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 같은 키의 동시 요청 병합
+ * 처리 중인 요청이 있으면 새로 실행하지 않고 그 결과를 함께 받는다. (결과는 캐시하지 않음)
+ */
+public class RequestCoalescer<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @return 결과와 다른 요청에 병합되었는지 여부
+     */
+    public Outcome<V> execute(K key, Callable<V> call) throws Exception {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return new Outcome<>(join(existing), true);
+        }
+
+        try {
+            V value = call.call();
+            future.complete(value);
+            return new Outcome<>(value, false);
+        } catch (Throwable t) {
+            // Error도 전달해야 병합된 요청이 영원히 기다리지 않는다
+            future.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public record Outcome<V>(V value, boolean coalesced) {
+    }
+}
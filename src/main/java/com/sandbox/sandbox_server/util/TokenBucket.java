@@ -0,0 +1,71 @@
+package com.sandbox.sandbox_server.util;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 토큰 버킷
+ * 초당 refillPerSecond개씩 최대 capacity개까지 채워지고, 요청마다 토큰 하나를 쓴다.
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final LongSupplier clock;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private volatile long lastUsedNanos;
+
+    public TokenBucket(double capacity, double refillPerSecond) {
+        this(capacity, refillPerSecond, System::nanoTime);
+    }
+
+    public TokenBucket(double capacity, double refillPerSecond, LongSupplier clock) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / NANOS_PER_SECOND;
+        this.clock = clock;
+        this.tokens = capacity;
+        this.lastRefillNanos = clock.getAsLong();
+        this.lastUsedNanos = lastRefillNanos;
+    }
+
+    /**
+     * 토큰 하나 사용 (없으면 false)
+     */
+    public synchronized boolean tryConsume() {
+        long now = clock.getAsLong();
+        refill(now);
+        lastUsedNanos = now;
+
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 다음 토큰이 생길 때까지 남은 시간(초, 올림)
+     */
+    public synchronized long secondsUntilAvailable() {
+        refill(clock.getAsLong());
+        if (tokens >= 1 || refillPerNano <= 0) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / refillPerNano / NANOS_PER_SECOND);
+    }
+
+    /**
+     * 마지막 사용 이후 지난 시간(ns)
+     */
+    public long idleNanos() {
+        return clock.getAsLong() - lastUsedNanos;
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+    }
+}
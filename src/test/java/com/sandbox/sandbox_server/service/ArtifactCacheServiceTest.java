@@ -0,0 +1,35 @@
+package com.sandbox.sandbox_server.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtifactCacheServiceTest {
+
+	private static final String UPSTREAM = "https://registry.npmjs.org/";
+	private static final String PROXY = "http://host.docker.internal:9090/proxy/npm/";
+
+	@Test
+	void rewritesUrlsSpanningChunkBoundaries() throws Exception {
+		StringBuilder metadata = new StringBuilder();
+		for (int i = 0; i < 2000; i++) {
+			metadata.append("{\"tarball\":\"").append(UPSTREAM).append("pkg/-/pkg-").append(i).append(".tgz\"},");
+		}
+
+		StringWriter out = new StringWriter();
+		ArtifactCacheService.CachedArtifact.replace(new StringReader(metadata.toString()), out, UPSTREAM, PROXY);
+
+		assertThat(out.toString()).isEqualTo(metadata.toString().replace(UPSTREAM, PROXY));
+	}
+
+	@Test
+	void keepsTrailingPartialMatch() throws Exception {
+		StringWriter out = new StringWriter();
+		ArtifactCacheService.CachedArtifact.replace(new StringReader("end https://registry.npm"), out, UPSTREAM, PROXY);
+
+		assertThat(out.toString()).isEqualTo("end https://registry.npm");
+	}
+}
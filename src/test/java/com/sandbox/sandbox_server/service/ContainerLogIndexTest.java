@@ -0,0 +1,70 @@
+package com.sandbox.sandbox_server.service;
+
+import com.sandbox.sandbox_server.util.LogLevel;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContainerLogIndexTest {
+
+	private static final String[] LINES = {
+			"2024-01-01T00:00:01.000000000Z 2024-01-01T00:00:01.000Z  INFO 1 --- [main] o.s.b.StartupInfoLogger : Started",
+			"2024-01-01T00:00:02.000000000Z INFO:     Uvicorn running on http://0.0.0.0:8000",
+			"2024-01-01T00:00:03.000000000Z ERROR:    Exception in ASGI application",
+			"2024-01-01T00:00:03.100000000Z Traceback (most recent call last):",
+			"2024-01-01T00:00:04.000000000Z {\"level\":40,\"msg\":\"slow request\"}",
+			"2024-01-01T00:00:05.000000000Z > vite dev server ready"
+	};
+
+	@Test
+	void filtersByLevelAndPaginatesWithCursor() {
+		ContainerLogIndex index = filledIndex(1024 * 1024);
+
+		ContainerLogIndex.Result first = index.search(new ContainerLogIndex.Query(null, null, LogLevel.WARN, null, 0, 2));
+		assertThat(first.entries()).extracting(ContainerLogIndex.LogEntry::level)
+				.containsExactly(LogLevel.ERROR, LogLevel.ERROR);
+		assertThat(first.nextCursor()).isEqualTo(4L);
+
+		ContainerLogIndex.Result second = index.search(new ContainerLogIndex.Query(null, null, LogLevel.WARN, null, first.nextCursor(), 2));
+		assertThat(second.entries()).extracting(ContainerLogIndex.LogEntry::message)
+				.containsExactly("{\"level\":40,\"msg\":\"slow request\"}");
+		assertThat(second.nextCursor()).isNull();
+	}
+
+	@Test
+	void filtersByTimeRangeAndText() {
+		ContainerLogIndex index = filledIndex(1024 * 1024);
+		long from = Instant.parse("2024-01-01T00:00:02Z").toEpochMilli();
+		long to = Instant.parse("2024-01-01T00:00:03Z").toEpochMilli();
+
+		ContainerLogIndex.Result result = index.search(
+				new ContainerLogIndex.Query(from, to, null, message -> message.contains("ASGI"), 0, 10));
+
+		assertThat(result.entries()).extracting(ContainerLogIndex.LogEntry::seq).containsExactly(2L);
+		assertThat(result.scanned()).isEqualTo(2);
+	}
+
+	@Test
+	void dropsOldestEntriesWhenOverBudget() {
+		ContainerLogIndex index = new ContainerLogIndex(2048);
+		for (int i = 0; i < 100; i++) {
+			index.append("2024-01-01T00:01:00.000000000Z WARN line " + i);
+		}
+
+		assertThat(index.usedBytes()).isLessThanOrEqualTo(2048);
+		ContainerLogIndex.Result result = index.search(new ContainerLogIndex.Query(null, null, LogLevel.WARN, null, 1, 1000));
+		assertThat(result.truncated()).isTrue();
+		assertThat(result.entries()).last()
+				.extracting(ContainerLogIndex.LogEntry::message).isEqualTo("WARN line 99");
+	}
+
+	private ContainerLogIndex filledIndex(long maxBytes) {
+		ContainerLogIndex index = new ContainerLogIndex(maxBytes);
+		for (String line : LINES) {
+			index.append(line);
+		}
+		return index;
+	}
+}
@@ -0,0 +1,43 @@
+package com.sandbox.sandbox_server.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContainerResourceSeriesTest {
+
+	@Test
+	void overwritesOldestSamplesButKeepsLifetimeMaximum() {
+		ContainerResourceSeries series = new ContainerResourceSeries(3);
+		series.add(sample(1_000, 90, 500));
+		series.add(sample(2_000, 10, 100));
+		series.add(sample(3_000, 20, 200));
+		series.add(sample(4_000, 30, 300));
+
+		List<ContainerResourceSeries.Sample> samples = series.samples(0);
+		assertThat(samples.size()).isEqualTo(3);
+		assertThat(samples.get(0).timestamp()).isEqualTo(2_000L);
+		assertThat(series.latest().timestamp()).isEqualTo(4_000L);
+		assertThat(series.samples(3_000).size()).isEqualTo(2);
+
+		ContainerResourceSeries.Summary summary = series.summary();
+		assertThat(summary.memoryP50Bytes()).isEqualTo(200L);
+		assertThat(summary.memoryP95Bytes()).isEqualTo(300L);
+		assertThat(summary.memoryMaxBytes()).isEqualTo(500L);
+		assertThat(summary.cpuMaxPercent()).isEqualTo(90.0);
+	}
+
+	@Test
+	void emptySeriesHasNoLatestSample() {
+		ContainerResourceSeries series = new ContainerResourceSeries(4);
+
+		assertThat(series.latest()).isNull();
+		assertThat(series.summary().samples()).isEqualTo(0);
+	}
+
+	private static ContainerResourceSeries.Sample sample(long timestamp, double cpu, long memory) {
+		return new ContainerResourceSeries.Sample(timestamp, cpu, memory, 1_000, 0, 0, 0, 0, 1);
+	}
+}
@@ -0,0 +1,92 @@
+package com.sandbox.sandbox_server.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WorkspaceSyncServiceTest {
+
+	private static final String UUID = "nested-root";
+
+	@TempDir
+	Path root;
+
+	private WorkspaceManager workspaceManager;
+	private WorkspaceSyncService syncService;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		workspaceManager = new WorkspaceManager(registry);
+		ReflectionTestUtils.setField(workspaceManager, "diskRoot", root);
+		ReflectionTestUtils.setField(workspaceManager, "tmpfsEnabled", false);
+		ReflectionTestUtils.setField(workspaceManager, "defaultReservation", DataSize.ofMegabytes(64));
+		ReflectionTestUtils.setField(workspaceManager, "tmpfsBudget", DataSize.ofGigabytes(1));
+		workspaceManager.init();
+		syncService = new WorkspaceSyncService(registry, workspaceManager);
+	}
+
+	@Test
+	void deltaUploadWithNestedProjectRootKeepsUnchangedFiles() throws Exception {
+		Map<String, String> manifest = Map.of("app/package.json", sha256("{}"));
+		syncService.applyManifest(UUID, manifest);
+		syncService.applyFiles(UUID, Map.of("app/package.json", stream("{}")));
+
+		// 실행 시 하위 폴더를 빌드 컨텍스트로 쓰고, 생성 파일은 그 폴더에 쓴다
+		Path workspace = workspaceManager.open(UUID);
+		syncService.setProjectRoot(UUID, "app/");
+		Files.writeString(workspace.resolve("app/Dockerfile"), "FROM node");
+		Files.createDirectories(workspace.resolve("app/.sandbox"));
+		Files.writeString(workspace.resolve("app/.sandbox/npmrc"), "cache=/cache");
+
+		WorkspaceSyncService.ManifestDiff diff = syncService.applyManifest(UUID, Map.of(
+				"app/package.json", sha256("{}"),
+				"app/index.js", sha256("run()")));
+
+		assertThat(diff.missing()).containsExactly("app/index.js");
+		assertThat(diff.deleted()).isEmpty();
+		assertThat(diff.unchanged()).isEqualTo(1);
+		assertThatThrownBy(() -> syncService.treeHash(UUID)).isInstanceOf(IllegalStateException.class);
+
+		syncService.applyFiles(UUID, Map.of("app/index.js", stream("run()")));
+
+		assertThat(syncService.treeHash(UUID)).isNotEmpty();
+		assertThat(workspace.resolve("app/package.json")).hasContent("{}");
+		assertThat(workspace.resolve("app/Dockerfile")).exists();
+		assertThat(workspace.resolve("app/.sandbox/npmrc")).exists();
+
+		// 작업 디렉토리를 다시 읽어도 생성 파일은 비교 대상이 아님
+		syncService.invalidate(UUID);
+		syncService.setProjectRoot(UUID, "app/");
+		diff = syncService.applyManifest(UUID, Map.of(
+				"app/package.json", sha256("{}"),
+				"app/index.js", sha256("run()")));
+
+		assertThat(diff.missing()).isEmpty();
+		assertThat(diff.deleted()).isEmpty();
+	}
+
+	private static InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String sha256(String content) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+				.digest(content.getBytes(StandardCharsets.UTF_8)));
+	}
+}
@@ -0,0 +1,33 @@
+package com.sandbox.sandbox_server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeadlineCharSequenceTest {
+
+	@Test
+	void abortsCatastrophicBacktracking() {
+		Pattern pattern = Pattern.compile("(.*a){20}");
+		String input = "a".repeat(35) + "!";
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+
+		long start = System.nanoTime();
+		assertThatThrownBy(() -> pattern.matcher(new DeadlineCharSequence(input, deadline)).find())
+				.isInstanceOf(DeadlineCharSequence.DeadlineExceededException.class);
+		assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(2);
+	}
+
+	@Test
+	void matchesNormallyBeforeDeadline() {
+		Pattern pattern = Pattern.compile("ERROR .* failed");
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+		assertThat(pattern.matcher(new DeadlineCharSequence("ERROR request failed", deadline)).find()).isTrue();
+		assertThat(pattern.matcher(new DeadlineCharSequence("INFO ok", deadline)).find()).isFalse();
+	}
+}
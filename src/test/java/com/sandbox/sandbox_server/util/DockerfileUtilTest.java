@@ -0,0 +1,34 @@
+package com.sandbox.sandbox_server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DockerfileUtilTest {
+
+	@Test
+	void pinsEveryStageOfTheBaseImageToItsDigest() throws Exception {
+		DockerfileOptions options = DockerfileOptions.builder()
+				.baseImageDigests(Map.of("node:20-slim", "sha256:abc123"))
+				.build();
+
+		String dockerfile = DockerfileUtil.renderDockerfile("react", options);
+
+		assertThat(dockerfile).contains("FROM node:20-slim@sha256:abc123 AS builder\n");
+		assertThat(dockerfile).contains("FROM node:20-slim@sha256:abc123\n");
+		assertThat(dockerfile).doesNotContain("FROM node:20-slim\n");
+	}
+
+	@Test
+	void leavesTagsWithoutDigestUntouched() throws Exception {
+		DockerfileOptions options = DockerfileOptions.builder()
+				.baseImageDigests(Map.of("python:3.11-slim", "sha256:def456"))
+				.build();
+
+		assertThat(DockerfileUtil.renderDockerfile("spring", options)).contains("FROM openjdk:17-slim\n");
+		assertThat(DockerfileUtil.renderDockerfile("spring", DockerfileOptions.defaults()))
+				.isEqualTo(DockerfileUtil.renderDockerfile("spring", options));
+	}
+}
@@ -0,0 +1,38 @@
+package com.sandbox.sandbox_server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+	@Test
+	void rejectsOnceCapacityIsUsedAndRefillsOverTime() {
+		AtomicLong clock = new AtomicLong();
+		TokenBucket bucket = new TokenBucket(3, 2, clock::get);
+
+		assertThat(bucket.tryConsume()).isTrue();
+		assertThat(bucket.tryConsume()).isTrue();
+		assertThat(bucket.tryConsume()).isTrue();
+		assertThat(bucket.tryConsume()).isFalse();
+		assertThat(bucket.secondsUntilAvailable()).isEqualTo(1);
+
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+		assertThat(bucket.tryConsume()).isTrue();
+		assertThat(bucket.tryConsume()).isFalse();
+	}
+
+	@Test
+	void neverRefillsBeyondCapacity() {
+		AtomicLong clock = new AtomicLong();
+		TokenBucket bucket = new TokenBucket(2, 100, clock::get);
+
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+		assertThat(bucket.tryConsume()).isTrue();
+		assertThat(bucket.tryConsume()).isTrue();
+		assertThat(bucket.tryConsume()).isFalse();
+	}
+}